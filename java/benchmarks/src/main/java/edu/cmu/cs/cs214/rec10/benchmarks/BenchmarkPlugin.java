@@ -0,0 +1,88 @@
+package edu.cmu.cs.cs214.rec10.benchmarks;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFramework;
+import edu.cmu.cs.cs214.rec10.framework.core.GamePlugin;
+import edu.cmu.cs.cs214.rec10.games.TicTacToe;
+
+/**
+ * A minimal {@link TicTacToe} plug-in used to drive the framework in
+ * benchmarks, on a board of any size.
+ */
+final class BenchmarkPlugin implements GamePlugin<TicTacToe.Player> {
+    private final int size;
+    private final int winLength;
+    private GameFramework framework;
+    private TicTacToe game;
+
+    BenchmarkPlugin(int size, int winLength) {
+        this.size = size;
+        this.winLength = winLength;
+    }
+
+    @Override
+    public String getGameName() {
+        return "TicTacToe " + size + "x" + size;
+    }
+
+    @Override
+    public int getGridWidth() {
+        return size;
+    }
+
+    @Override
+    public int getGridHeight() {
+        return size;
+    }
+
+    @Override
+    public void onRegister(GameFramework f) {
+        framework = f;
+    }
+
+    @Override
+    public void onNewGame() {
+        game = new TicTacToe(size, winLength);
+        framework.setFooterText("X to play");
+    }
+
+    @Override
+    public void onNewMove() {
+    }
+
+    @Override
+    public boolean isMoveValid(int x, int y) {
+        return game.isValidPlay(x, y);
+    }
+
+    @Override
+    public boolean isMoveOver() {
+        return true;
+    }
+
+    @Override
+    public void onMovePlayed(int x, int y) {
+        TicTacToe.Player player = game.currentPlayer();
+        game.play(x, y);
+        framework.setSquare(x, y, player.name());
+        framework.setFooterText(game.currentPlayer() + " to play");
+    }
+
+    @Override
+    public boolean isGameOver() {
+        return game.isOver();
+    }
+
+    @Override
+    public String getGameOverMessage() {
+        return game.winner() == null ? "Tie" : game.winner() + " won";
+    }
+
+    @Override
+    public void onGameClosed() {
+    }
+
+    @Override
+    public TicTacToe.Player currentPlayer() {
+        return game.currentPlayer();
+    }
+}
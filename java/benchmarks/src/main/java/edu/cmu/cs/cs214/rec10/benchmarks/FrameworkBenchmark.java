@@ -0,0 +1,56 @@
+package edu.cmu.cs.cs214.rec10.benchmarks;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link GameFrameworkImpl#playMove} and {@link GameFrameworkImpl#startNewGame}.
+ * Moves sweep the board row by row; a new game starts whenever the sweep hits a
+ * finished game or the end of the board.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class FrameworkBenchmark {
+    @Param({"3", "15"})
+    public int size;
+
+    private GameFrameworkImpl framework;
+    private BenchmarkPlugin plugin;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        framework = new GameFrameworkImpl();
+        plugin = new BenchmarkPlugin(size, Math.min(size, 5));
+        framework.registerPlugin(plugin);
+        framework.startNewGame(plugin);
+    }
+
+    @Benchmark
+    public boolean playMove() {
+        if (next == size * size || plugin.isGameOver()) {
+            framework.startNewGame(plugin);
+            next = 0;
+        }
+        int cell = next++;
+        return framework.playMove(cell % size, cell / size);
+    }
+
+    @Benchmark
+    public long startNewGame() {
+        framework.startNewGame(plugin);
+        return framework.getStateVersion();
+    }
+}
@@ -0,0 +1,129 @@
+package edu.cmu.cs.cs214.rec10.benchmarks;
+
+import edu.cmu.cs.cs214.rec10.games.Memory;
+import edu.cmu.cs.cs214.rec10.games.RockPaperScissors;
+import edu.cmu.cs.cs214.rec10.games.TicTacToe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks the hot queries of the game engines: {@link TicTacToe#winner} and
+ * {@link TicTacToe#isValidPlay} mid-game, {@link Memory#selectMatch} and
+ * {@link Memory#isOver}, and {@link RockPaperScissors#vs}.
+ *
+ * Each engine has its own state class, so a benchmark only runs over the
+ * parameters of the engine it measures rather than their cross product.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class GameEngineBenchmark {
+
+    @State(Scope.Thread)
+    public static class TicTacToeState {
+        @Param({"3", "15"})
+        public int size;
+
+        TicTacToe game;
+
+        @Setup
+        public void setUp() {
+            game = new TicTacToe(size, Math.min(size, 5));
+            game.play(0, 0);
+            game.play(size - 1, size - 1);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class MemoryState {
+        @Param({"8", "100000"})
+        public int pairs;
+
+        Memory<Integer> game;
+        int mismatchFirst;
+        int mismatchSecond;
+
+        @Setup
+        public void setUp() {
+            List<Integer> items = new ArrayList<>();
+            for (int i = 0; i < pairs; i++) {
+                items.add(i);
+            }
+            game = new Memory<>(2, items, 42L);
+            for (int i = 1; i < pairs * 2; i++) {
+                if (!game.itemAt(i).equals(game.itemAt(0))) {
+                    mismatchFirst = 0;
+                    mismatchSecond = i;
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RockPaperScissorsState {
+        RockPaperScissors[] moves;
+
+        @Setup
+        public void setUp() {
+            moves = new RockPaperScissors[1024];
+            for (int i = 0; i < moves.length; i++) {
+                moves[i] = RockPaperScissors.random();
+            }
+        }
+    }
+
+    @Benchmark
+    public TicTacToe.Player ticTacToeWinner(TicTacToeState state) {
+        return state.game.winner();
+    }
+
+    @Benchmark
+    public boolean ticTacToeIsValidPlay(TicTacToeState state) {
+        return state.game.isValidPlay(1, 1);
+    }
+
+    /** A mismatch only advances the turn, so the board stays in steady state. */
+    @Benchmark
+    public boolean memorySelectMismatch(MemoryState state) {
+        return state.game.selectMatch(state.mismatchFirst, state.mismatchSecond);
+    }
+
+    /** Matching removes the pair, so each invocation plays it on a fresh copy of a small board. */
+    @Benchmark
+    public boolean memorySelectMatchFreshGame() {
+        Memory<Integer> fresh = new Memory<>(2, List.of(1, 2, 3, 4), 42L);
+        int first = 0;
+        for (int i = 1; i < 8; i++) {
+            if (fresh.itemAt(i).equals(fresh.itemAt(first))) {
+                return fresh.selectMatch(first, i);
+            }
+        }
+        throw new AssertionError("No match on board");
+    }
+
+    @Benchmark
+    public boolean memoryIsOver(MemoryState state) {
+        return state.game.isOver();
+    }
+
+    @Benchmark
+    public void rpsVs(RockPaperScissorsState state, Blackhole bh) {
+        RockPaperScissors[] moves = state.moves;
+        for (int i = 0; i < moves.length - 1; i++) {
+            bh.consume(moves[i].vs(moves[i + 1]));
+        }
+    }
+}
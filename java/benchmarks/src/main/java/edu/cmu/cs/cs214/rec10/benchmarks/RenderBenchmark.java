@@ -0,0 +1,66 @@
+package edu.cmu.cs.cs214.rec10.benchmarks;
+
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.Template;
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+import edu.cmu.cs.cs214.rec10.framework.gui.GameState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Benchmarks building the view model with {@link GameState#forGame} and
+ * applying the Handlebars page template to it, on small and large grids with
+ * a few moves played.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class RenderBenchmark {
+    @Param({"3", "100"})
+    public int size;
+
+    private GameFrameworkImpl framework;
+    private GameState state;
+    private Template template;
+
+    @Setup
+    public void setUp() throws IOException {
+        framework = new GameFrameworkImpl();
+        BenchmarkPlugin plugin = new BenchmarkPlugin(size, size);
+        framework.registerPlugin(plugin);
+        framework.startNewGame(plugin);
+        framework.playMoves(new int[]{0, 0, 1, 0, 1, 1});
+        state = GameState.forGame(framework);
+        template = new Handlebars().compile("game_template");
+    }
+
+    @Benchmark
+    public GameState forGame() {
+        return GameState.forGame(framework);
+    }
+
+    @Benchmark
+    public String templateApply() throws IOException {
+        return template.apply(state);
+    }
+
+    @Benchmark
+    public int forGameAndRender() throws IOException {
+        StringWriter out = new StringWriter();
+        template.apply(GameState.forGame(framework), out);
+        return out.getBuffer().length();
+    }
+}
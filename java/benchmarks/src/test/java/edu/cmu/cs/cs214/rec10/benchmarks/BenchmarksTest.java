@@ -0,0 +1,70 @@
+package edu.cmu.cs.cs214.rec10.benchmarks;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs each benchmark body outside JMH, so a benchmark that measures
+ * something other than what it claims (an invalid move, a finished game, a
+ * matching pair where a mismatch is meant) fails here instead of quietly
+ * reporting the wrong number.
+ */
+public class BenchmarksTest {
+    @Test
+    public void frameworkBenchmarkOnlyPlaysValidMoves() {
+        for (int size : new int[]{3, 15}) {
+            FrameworkBenchmark benchmark = new FrameworkBenchmark();
+            benchmark.size = size;
+            benchmark.setUp();
+            // Enough moves to finish and restart several games.
+            for (int i = 0; i < 3 * size * size; i++) {
+                assertTrue(benchmark.playMove(), "move " + i + " on " + size + "x" + size);
+            }
+            long version = benchmark.startNewGame();
+            assertTrue(benchmark.startNewGame() > version);
+        }
+    }
+
+    @Test
+    public void engineBenchmarksMeasureAGameInProgress() {
+        GameEngineBenchmark benchmark = new GameEngineBenchmark();
+        for (int size : new int[]{3, 15}) {
+            GameEngineBenchmark.TicTacToeState state = new GameEngineBenchmark.TicTacToeState();
+            state.size = size;
+            state.setUp();
+            assertNull(benchmark.ticTacToeWinner(state));
+            assertTrue(benchmark.ticTacToeIsValidPlay(state));
+        }
+
+        GameEngineBenchmark.MemoryState memory = new GameEngineBenchmark.MemoryState();
+        memory.pairs = 8;
+        memory.setUp();
+        assertNotEquals(memory.game.itemAt(memory.mismatchFirst), memory.game.itemAt(memory.mismatchSecond));
+        for (int i = 0; i < 3; i++) {
+            assertFalse(benchmark.memorySelectMismatch(memory));
+        }
+        assertFalse(benchmark.memoryIsOver(memory));
+        assertTrue(benchmark.memorySelectMatchFreshGame());
+    }
+
+    @Test
+    public void renderBenchmarksRenderTheSameBoard() throws IOException {
+        for (int size : new int[]{3, 100}) {
+            RenderBenchmark benchmark = new RenderBenchmark();
+            benchmark.size = size;
+            benchmark.setUp();
+            assertEquals("TicTacToe " + size + "x" + size, benchmark.forGame().getName());
+            assertEquals("O", benchmark.forGame().getCurrentPlayer());
+            String page = benchmark.templateApply();
+            assertTrue(page.contains("TicTacToe " + size + "x" + size), page);
+            assertEquals(page.length(), benchmark.forGameAndRender());
+        }
+    }
+}
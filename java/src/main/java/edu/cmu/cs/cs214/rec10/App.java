@@ -1,16 +1,82 @@
 package edu.cmu.cs.cs214.rec10;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.Deflater;
 
 import com.github.jknack.handlebars.Handlebars;
 import com.github.jknack.handlebars.Template;
-import edu.cmu.cs.cs214.rec10.framework.core.GamePlugin;
 import edu.cmu.cs.cs214.rec10.framework.gui.GameState;
+import edu.cmu.cs.cs214.rec10.framework.gui.GameStateDiff;
+import edu.cmu.cs.cs214.rec10.framework.gui.Viewport;
 import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+import edu.cmu.cs.cs214.rec10.framework.core.GamePlugin;
+import edu.cmu.cs.cs214.rec10.framework.headless.HeadlessFramework;
+import edu.cmu.cs.cs214.rec10.framework.headless.MonteCarloTreeSearch;
+import edu.cmu.cs.cs214.rec10.metrics.Counter;
+import edu.cmu.cs.cs214.rec10.metrics.LatencyHistogram;
+import edu.cmu.cs.cs214.rec10.metrics.Metrics;
+import edu.cmu.cs.cs214.rec10.server.BoundedAsyncRunner;
+import edu.cmu.cs.cs214.rec10.server.BufferPool;
+import edu.cmu.cs.cs214.rec10.server.Compression;
+import edu.cmu.cs.cs214.rec10.server.ContentEncoding;
+import edu.cmu.cs.cs214.rec10.server.MoveJournal;
+import edu.cmu.cs.cs214.rec10.server.Moves;
+import edu.cmu.cs.cs214.rec10.server.PageCache;
+import edu.cmu.cs.cs214.rec10.server.PageRenderer;
+import edu.cmu.cs.cs214.rec10.server.PlaySocket;
+import edu.cmu.cs.cs214.rec10.server.PluginCatalog;
+import edu.cmu.cs.cs214.rec10.server.PooledOutputStream;
+import edu.cmu.cs.cs214.rec10.server.Session;
+import edu.cmu.cs.cs214.rec10.server.SessionJournal;
+import edu.cmu.cs.cs214.rec10.server.SessionRegistry;
+import edu.cmu.cs.cs214.rec10.server.SpectatorHub;
 import fi.iki.elonen.NanoHTTPD;
+import fi.iki.elonen.NanoWSD;
 
-public class App extends NanoHTTPD {
+public class App extends NanoWSD {
+    private static final String SESSION_COOKIE = "rec10-session";
+    private static final String PLAY_SOCKET_PATH = "/ws";
+    private static final long SESSION_IDLE_MILLIS = Long.getLong("rec10.session.idleMillis", 30 * 60 * 1000L);
+    private static final int MAX_SESSIONS = Integer.getInteger("rec10.session.max", 10_000);
+    private static final String JOURNAL_DIR = System.getProperty("rec10.journal.dir", "journal");
+    private static final int JOURNAL_SEGMENT_BYTES = Integer.getInteger("rec10.journal.segmentBytes", 64 << 20);
+    private static final long JOURNAL_COMMIT_MILLIS = Long.getLong("rec10.journal.commitMillis", 20L);
+    private static final int JOURNAL_COMPACT_AFTER = Integer.getInteger("rec10.journal.compactAfterSegments", 4);
+    private static final int PAGE_CACHE_ENTRIES = Integer.getInteger("rec10.pageCache.entries", 1024);
+    private static final int PAGE_CACHE_MAX_BYTES = Integer.getInteger("rec10.pageCache.maxPageBytes", 256 * 1024);
+    private static final int SPECTATOR_QUEUE = Integer.getInteger("rec10.spectators.queue", 64);
+    private static final int SPECTATOR_MAX_STREAMS = Integer.getInteger("rec10.spectators.maxStreams", 1024);
+    private static final int VIEWPORT_SIZE = Integer.getInteger("rec10.viewport.size", 64);
+    private static final int VIEWPORT_MAX_SIZE = Integer.getInteger("rec10.viewport.maxSize", 256);
+    private static final Viewport DEFAULT_VIEWPORT = new Viewport(0, 0, VIEWPORT_SIZE, VIEWPORT_SIZE);
+    private static final long HINT_MILLIS = Long.getLong("rec10.hint.millis", 200L);
+    private static final long HINT_MAX_MILLIS = Long.getLong("rec10.hint.maxMillis", 2000L);
+    private static final int HINT_MAX_PLAYOUT_MOVES = Integer.getInteger("rec10.hint.maxPlayoutMoves", 10_000);
+    private static final int COMPRESSION_MIN_BYTES = Integer.getInteger("rec10.compression.minBytes", 1024);
+    private static final int COMPRESSION_LEVEL = Integer.getInteger("rec10.compression.level", Deflater.DEFAULT_COMPRESSION);
+    private static final int COMPRESSION_POOLED = Integer.getInteger("rec10.compression.pooledDeflaters", 64);
+    private static final String BOOT_ID = Long.toHexString(System.currentTimeMillis());
+
+    private static final LatencyHistogram ROOT_TIME = endpointHistogram("/");
+    private static final LatencyHistogram PLUGIN_TIME = endpointHistogram("/plugin");
+    private static final LatencyHistogram PLAY_TIME = endpointHistogram("/play");
+    private static final LatencyHistogram BATCH_TIME = endpointHistogram("/batch");
+    private static final LatencyHistogram STATE_TIME = endpointHistogram("/state");
+    private static final LatencyHistogram HINT_TIME = endpointHistogram("/hint");
+    private static final LatencyHistogram OTHER_TIME = endpointHistogram("other");
+    private static final Counter NOT_MODIFIED = Metrics.counter("rec10_not_modified_total",
+            "Page requests answered with 304 Not Modified.");
+    private static final Counter PAGE_CACHE_HITS = Metrics.counter("rec10_page_cache_hits_total",
+            "Pages served from the rendered page cache.");
+    private static final Counter REQUESTS_REJECTED = Metrics.counter("rec10_requests_rejected_total",
+            "Requests turned away because no request slot freed up in time.");
+    private static final LatencyHistogram RENDER_TIME = Metrics.histogram("rec10_render_seconds",
+            "Time to build the game state and apply the page template.");
 
     public static void main(String[] args) {
         try {
@@ -20,61 +86,438 @@ public class App extends NanoHTTPD {
         }
     }
 
-    private GameFrameworkImpl game;
-    private Template template;
-    private List<GamePlugin> plugins;
+    private PluginCatalog plugins;
+    private SessionRegistry sessions;
+    private SessionJournal journal;
+    private PageRenderer renderer;
+    private final BufferPool buffers = new BufferPool(16 * 1024, 1024 * 1024, 256);
+    private final Compression compression = new Compression(buffers, COMPRESSION_LEVEL, COMPRESSION_MIN_BYTES,
+            COMPRESSION_POOLED);
+    private final SpectatorHub spectators = new SpectatorHub(SPECTATOR_QUEUE, SPECTATOR_MAX_STREAMS);
+    private final PageCache pageCache = new PageCache(PAGE_CACHE_ENTRIES, PAGE_CACHE_MAX_BYTES);
+    private final MonteCarloTreeSearch hints = MonteCarloTreeSearch.withRandomPlayouts(HINT_MAX_PLAYOUT_MOVES);
+    private final BoundedAsyncRunner runner = BoundedAsyncRunner.fromSystemProperties();
 
     public App() throws IOException {
         super(8080);
 
-        this.game = new GameFrameworkImpl();
-        plugins = loadPlugins();
-        for (GamePlugin p: plugins){
-            game.registerPlugin(p);
+        this.plugins = PluginCatalog.discover();
+        System.out.printf("Discovered %d plugins in %.1f ms%n", plugins.size(), plugins.getDiscoveryNanos() / 1e6);
+        if (!JOURNAL_DIR.isEmpty()) {
+            this.journal = new SessionJournal(MoveJournal.open(Paths.get(JOURNAL_DIR),
+                    JOURNAL_SEGMENT_BYTES, JOURNAL_COMMIT_MILLIS, JOURNAL_COMPACT_AFTER), plugins);
+        }
+        this.sessions = new SessionRegistry(this::newGameFramework, this::sessionEnded, SESSION_IDLE_MILLIS, MAX_SESSIONS);
+        if (journal != null) {
+            System.out.println("Restored " + journal.restore(sessions) + " sessions from " + JOURNAL_DIR);
         }
         Handlebars handlebars = new Handlebars();
-        this.template = handlebars.compile("game_template");
+        Template template = handlebars.compile("game_template");
+        this.renderer = new PageRenderer("game_head.html", template, buffers, compression);
 
+        setAsyncRunner(runner);
+        System.out.println("Serving requests on " + runner.getMode().name().toLowerCase() + " threads");
         start(NanoHTTPD.SOCKET_READ_TIMEOUT, false);
         System.out.println("\nRunning! Point your browsers to http://localhost:8080/ \n");
+        plugins.warmUp(ForkJoinPool.commonPool());
     }
 
     @Override
     public Response serve(IHTTPSession session) {
+        if (isWebsocketRequested(session) && !session.getUri().equals(PLAY_SOCKET_PATH)) {
+            return newFixedLengthResponse(Response.Status.NOT_FOUND, MIME_PLAINTEXT, "No WebSocket at " + session.getUri());
+        }
+        return super.serve(session);
+    }
+
+    /**
+     * Opens the play channel for the requesting session; see {@link PlaySocket}.
+     */
+    @Override
+    protected WebSocket openWebSocket(IHTTPSession handshake) {
+        // Playing needs a session of its own; at the cap, the socket can only watch the anonymous blank game.
+        Session user = sessionFor(handshake);
+        return new PlaySocket(handshake, user != null ? user : sessions.getAnonymous(), spectators,
+                NanoHTTPD.SOCKET_READ_TIMEOUT / 2, DEFAULT_VIEWPORT);
+    }
+
+    @Override
+    protected Response serveHttp(IHTTPSession session) {
+        String uri = session.getUri();
+        if (uri.equals("/metrics")) {
+            return metrics();
+        }
+        // Upgraded play sockets never get here, and event streams only hold the slot until their response starts.
+        if (!runner.beginRequest()) {
+            REQUESTS_REJECTED.increment();
+            return newFixedLengthResponse(Response.Status.SERVICE_UNAVAILABLE, MIME_PLAINTEXT, "Server busy");
+        }
+        long start = System.nanoTime();
         try {
-            String uri = session.getUri();
-            Map<String, String> params = session.getParms();
-            if (uri.equals("/plugin")) {
-                game.startNewGame(plugins.get(Integer.parseInt(params.get("i"))));
-            } else if (uri.equals("/play")){
-                if (game.hasGame()) {
-                    game.playMove(Integer.parseInt(params.get("x")), Integer.parseInt(params.get("y")));
+            return serveGame(session, uri);
+        } finally {
+            endpointTimer(uri).recordSince(start);
+            runner.endRequest();
+        }
+    }
+
+    private Response serveGame(IHTTPSession session, String uri) {
+        try {
+            if (uri.equals("/watch")) {
+                Map<String, String> params = params(session);
+                return watch(session, params.get("game"), params);
+            }
+            // Only endpoints that play need a session of their own; the others read the requester's, if any.
+            boolean plays = uri.equals("/plugin") || uri.equals("/play") || uri.equals("/batch");
+            Session found = plays ? sessionFor(session) : existingSession(session);
+            if (found == null && plays) {
+                return newFixedLengthResponse(Response.Status.SERVICE_UNAVAILABLE, MIME_PLAINTEXT,
+                        "Too many games in progress");
+            }
+            Session user = found != null ? found : sessions.getAnonymous();
+            Map<String, String> params = params(session);
+            ContentEncoding encoding = ContentEncoding.negotiate(session.getHeaders().get("accept-encoding"));
+            if (uri.equals("/state")) {
+                String since = params.get("since");
+                long sinceVersion = since == null ? -1 : Long.parseLong(since);
+                Viewport viewport = viewport(user, params);
+                if (viewport == null) {
+                    return invalidViewport();
+                }
+                String json = user.getActor().call(game -> GameStateDiff.forGame(game, sinceVersion, viewport).toJson());
+                return withVary(compression.respond(Response.Status.OK, "application/json",
+                        json.getBytes(StandardCharsets.UTF_8), encoding));
+            }
+            if (uri.equals("/hint")) {
+                return hint(user, params.get("ms"));
+            }
+            int[] moves = null;
+            if (uri.equals("/batch")) {
+                moves = Moves.parse(params.get("moves"));
+                if (moves == null) {
+                    return newFixedLengthResponse(Response.Status.BAD_REQUEST, MIME_PLAINTEXT,
+                            "Expected moves=x,y;x,y;...");
                 }
             }
-            // Extract the view-specific data from the game and apply it to the template.
-            GameState gameplay = GameState.forGame(this.game);
-            String HTML = this.template.apply(gameplay);
-            return newFixedLengthResponse(HTML);
+            Viewport viewport = viewport(user, params);
+            if (viewport == null) {
+                return invalidViewport();
+            }
+            int[] batch = moves;
+            String ifNoneMatch = session.getHeaders().get("if-none-match");
+            // Only the session's actor touches its game; different sessions run in parallel.
+            PageView view = user.getActor().call(game -> {
+                if (uri.equals("/plugin")) {
+                    GamePlugin<?> plugin = game.getRegisteredPlugin(Integer.parseInt(params.get("i")));
+                    if (plugin != null) {
+                        game.startNewGame(plugin);
+                    }
+                } else if (uri.equals("/play")){
+                    if (game.hasGame()) {
+                        game.playMove(Integer.parseInt(params.get("x")), Integer.parseInt(params.get("y")));
+                    }
+                } else if (batch != null) {
+                    if (game.hasGame()) {
+                        game.playMoves(batch);
+                    }
+                }
+                user.setGameInProgress(game.isGameInProgress());
+                spectators.publish(user);
+                return pageView(user, game, viewport, encoding, ifNoneMatch);
+            });
+
+            if (view.notModified) {
+                NOT_MODIFIED.increment();
+                return withCacheHeaders(newFixedLengthResponse(Response.Status.NOT_MODIFIED, MIME_HTML, ""), view.etag);
+            }
+            if (view.cachedPage != null) {
+                PAGE_CACHE_HITS.increment();
+                return withCacheHeaders(renderer.respond(view.cachedPage, encoding), view.etag);
+            }
+            // Apply the view-specific data to the template, off the game's actor.
+            long renderStart = System.nanoTime();
+            PooledOutputStream page = this.renderer.renderBody(view.state);
+            RENDER_TIME.record(view.stateNanos + System.nanoTime() - renderStart);
+            if (pageCache.accepts(page.size())) {
+                byte[] body = page.toByteArray();
+                page.close();
+                pageCache.put(user.getId(), view.cacheKey, body);
+                return withCacheHeaders(renderer.respond(body, encoding), view.etag);
+            }
+            return withCacheHeaders(renderer.respond(page, encoding), view.etag);
         } catch (IOException e) {
             e.printStackTrace();
             return null;
         }
     }
 
+    /** What a page request needs from the game, taken on its actor. */
+    private static final class PageView {
+        final String etag;
+        final String cacheKey;
+        final boolean notModified;
+        final byte[] cachedPage;
+        final GameState state;
+        final long stateNanos;
+
+        PageView(String etag, String cacheKey, boolean notModified, byte[] cachedPage, GameState state, long stateNanos) {
+            this.etag = etag;
+            this.cacheKey = cacheKey;
+            this.notModified = notModified;
+            this.cachedPage = cachedPage;
+            this.state = state;
+            this.stateNanos = stateNanos;
+        }
+    }
 
     /**
-     * Load plugins listed in META-INF/services/...
-     *
-     * @return List of instantiated plugins
+     * Returns whether the client's copy of the page is current, else the
+     * cached page, else the game state to render it from. Runs on the game's actor.
      */
-    private static List<GamePlugin> loadPlugins() {
-        ServiceLoader<GamePlugin> plugins = ServiceLoader.load(GamePlugin.class);
-        List<GamePlugin> result = new ArrayList<>();
-        for (GamePlugin plugin : plugins) {
-            System.out.println("Loaded plugin " + plugin.getGameName());
-            result.add(plugin);
+    private PageView pageView(Session user, GameFrameworkImpl game, Viewport viewport, ContentEncoding encoding,
+                              String ifNoneMatch) {
+        // The cache holds the uncompressed page, shared by every coding of it.
+        String cacheKey = etag(user, game, viewport);
+        String etag = encoding.tag(cacheKey);
+        if (matches(ifNoneMatch, etag)) {
+            return new PageView(etag, cacheKey, true, null, null, 0);
         }
-        return result;
+        byte[] cached = pageCache.get(user.getId(), cacheKey);
+        if (cached != null) {
+            return new PageView(etag, cacheKey, false, cached, null, 0);
+        }
+        // Extract the view-specific data from the game.
+        long start = System.nanoTime();
+        GameState state = GameState.forGame(game, viewport);
+        return new PageView(etag, cacheKey, false, null, state, System.nanoTime() - start);
+    }
+
+    /**
+     * Suggests a move for the session's game as JSON, searching for at most
+     * {@code ms} milliseconds. The game is forked on its actor and searched
+     * off it, so the player's own requests are not held up by the search.
+     */
+    private Response hint(Session user, String ms) {
+        long budget;
+        try {
+            budget = ms == null ? HINT_MILLIS : Long.parseLong(ms);
+        } catch (NumberFormatException e) {
+            budget = -1;
+        }
+        if (budget < 0 || budget > HINT_MAX_MILLIS) {
+            return newFixedLengthResponse(Response.Status.BAD_REQUEST, MIME_PLAINTEXT,
+                    "Expected ms between 0 and " + HINT_MAX_MILLIS);
+        }
+        HeadlessFramework position = user.getActor().call(game -> {
+            GamePlugin<?> plugin = game.getCurrentPlugin();
+            if (plugin == null || !plugin.supportsFork() || plugin.isGameOver()) {
+                return null;
+            }
+            return HeadlessFramework.fork(plugin, game);
+        });
+        MonteCarloTreeSearch.Result hint = position == null ? null
+                : hints.search(position, budget, ThreadLocalRandom.current().nextLong());
+        if (hint == null) {
+            return newFixedLengthResponse(Response.Status.CONFLICT, MIME_PLAINTEXT,
+                    "No game in progress that can suggest a move");
+        }
+        String json = String.format(Locale.ROOT, "{\"x\":%d,\"y\":%d,\"winRate\":%.3f,\"playouts\":%d}",
+                hint.x(), hint.y(), hint.winRate(), hint.playouts());
+        return newFixedLengthResponse(Response.Status.OK, "application/json", json);
+    }
+
+    /**
+     * Returns the window of the board to render: the session's last one,
+     * moved or resized by any of the {@code vx}, {@code vy}, {@code vw} and
+     * {@code vh} parameters, which the session then remembers (unless it is
+     * the shared anonymous session). Returns null
+     * if a parameter is invalid.
+     */
+    private Viewport viewport(Session user, Map<String, String> params) {
+        if (user == sessions.getAnonymous()) {
+            return viewport(DEFAULT_VIEWPORT, params);
+        }
+        Viewport viewport = viewport(user.getViewport() != null ? user.getViewport() : DEFAULT_VIEWPORT, params);
+        if (viewport != null) {
+            user.setViewport(viewport);
+        }
+        return viewport;
     }
-}
 
+    /**
+     * Returns the given window moved or resized by any of the {@code vx},
+     * {@code vy}, {@code vw} and {@code vh} parameters, or null if a parameter
+     * is invalid.
+     */
+    private static Viewport viewport(Viewport current, Map<String, String> params) {
+        if (!params.containsKey("vx") && !params.containsKey("vy") && !params.containsKey("vw") && !params.containsKey("vh")) {
+            return current;
+        }
+        try {
+            int x = intParam(params, "vx", current.getX());
+            int y = intParam(params, "vy", current.getY());
+            int w = intParam(params, "vw", current.getWidth());
+            int h = intParam(params, "vh", current.getHeight());
+            if (x < 0 || y < 0 || w < 1 || h < 1 || w > VIEWPORT_MAX_SIZE || h > VIEWPORT_MAX_SIZE) {
+                return null;
+            }
+            return new Viewport(x, y, w, h);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** Returns the first value of each query or form parameter of a request. */
+    private static Map<String, String> params(IHTTPSession session) {
+        Map<String, String> params = new HashMap<>();
+        session.getParameters().forEach((name, values) -> {
+            if (!values.isEmpty()) {
+                params.put(name, values.get(0));
+            }
+        });
+        return params;
+    }
+
+    private static Response invalidViewport() {
+        return newFixedLengthResponse(Response.Status.BAD_REQUEST, MIME_PLAINTEXT,
+                "Expected non-negative vx, vy and vw, vh between 1 and " + VIEWPORT_MAX_SIZE);
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    /**
+     * With a {@code game} spectator id, streams that game's updates within
+     * the window given by the viewport parameters as Server-Sent Events; without one, tells the requester where others can
+     * watch their own game.
+     */
+    private Response watch(IHTTPSession session, String spectatorId, Map<String, String> params) {
+        if (spectatorId == null) {
+            Session user = existingSession(session);
+            if (user == null) {
+                return newFixedLengthResponse(Response.Status.NOT_FOUND, MIME_PLAINTEXT, "No game to watch");
+            }
+            String stream = "/watch?game=" + user.getSpectatorId();
+            return newFixedLengthResponse(Response.Status.OK, "application/json", "{\"stream\":\"" + stream + "\"}");
+        }
+        Session watched = sessions.getBySpectatorId(spectatorId);
+        if (watched == null) {
+            return newFixedLengthResponse(Response.Status.NOT_FOUND, MIME_PLAINTEXT, "No such game");
+        }
+        Viewport viewport = viewport(DEFAULT_VIEWPORT, params);
+        if (viewport == null) {
+            return invalidViewport();
+        }
+        return spectators.subscribe(watched, viewport);
+    }
+
+    /** Returns the requester's session, or null if it has none. */
+    private Session existingSession(IHTTPSession session) {
+        return sessions.get(session.getCookies().read(SESSION_COOKIE));
+    }
+
+    /**
+     * Returns the requester's session, creating one (and setting its cookie)
+     * if needed, or null if there is no room for another session.
+     */
+    private Session sessionFor(IHTTPSession session) {
+        Session user = sessions.getOrCreate(session.getCookies().read(SESSION_COOKIE));
+        if (user != null && !user.getId().equals(session.getCookies().read(SESSION_COOKIE))) {
+            session.getCookies().set(new Cookie(SESSION_COOKIE, user.getId()));
+        }
+        return user;
+    }
+
+    /**
+     * Returns the strong ETag of a session's page. Pages only change with the
+     * game's state version, the catalog's plugin names or the viewport, and
+     * the boot id keeps tags from before a restart from matching.
+     */
+    private String etag(Session user, GameFrameworkImpl game, Viewport viewport) {
+        return "\"" + BOOT_ID + "-" + Integer.toHexString(user.getId().hashCode()) + "-" + plugins.getEpoch()
+                + "-" + game.getStateVersion() + "-" + viewport.getX() + "." + viewport.getY() + "."
+                + viewport.getWidth() + "." + viewport.getHeight() + "\"";
+    }
+
+    /** Returns true if an If-None-Match header value lists the given ETag (or is "*"). */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Makes browsers revalidate the page with its ETag instead of re-fetching it. */
+    private static Response withCacheHeaders(Response response, String etag) {
+        response.addHeader("ETag", etag);
+        response.addHeader("Cache-Control", "no-cache");
+        return withVary(response);
+    }
+
+    /** Tells caches that the response depends on the request's Accept-Encoding. */
+    private static Response withVary(Response response) {
+        response.addHeader("Vary", "Accept-Encoding");
+        return response;
+    }
+
+    /** Returns every metric in the Prometheus text format. */
+    private static Response metrics() {
+        StringBuilder text = new StringBuilder(16 * 1024);
+        try {
+            Metrics.writePrometheus(text);
+        } catch (IOException e) {
+            throw new AssertionError("StringBuilder does not throw", e);
+        }
+        return newFixedLengthResponse(Response.Status.OK, Metrics.PROMETHEUS_CONTENT_TYPE, text.toString());
+    }
+
+    /** Returns the latency histogram for an endpoint; unknown paths share one, to bound the number of series. */
+    private static LatencyHistogram endpointTimer(String uri) {
+        switch (uri) {
+            case "/": return ROOT_TIME;
+            case "/plugin": return PLUGIN_TIME;
+            case "/play": return PLAY_TIME;
+            case "/batch": return BATCH_TIME;
+            case "/state": return STATE_TIME;
+            case "/hint": return HINT_TIME;
+            default: return OTHER_TIME;
+        }
+    }
+
+    private static LatencyHistogram endpointHistogram(String endpoint) {
+        return Metrics.histogram("rec10_http_request_seconds",
+                "Time to handle a request, up to the start of the response body.", "endpoint", endpoint);
+    }
+
+    /**
+     * Creates a framework for a new session, whose plugins are instantiated
+     * on first use, journaled under the given id (or not at all if it is null).
+     */
+    private GameFrameworkImpl newGameFramework(String journalId) {
+        GameFrameworkImpl game = new GameFrameworkImpl();
+        plugins.registerWith(game);
+        if (journal != null && journalId != null) {
+            game.setMoveListener(journal.listenerFor(journalId));
+        }
+        return game;
+    }
+
+    private void sessionEnded(Session session) {
+        pageCache.remove(session.getId());
+        spectators.sessionEnded(session);
+        if (journal != null) {
+            journal.sessionEnded(session);
+        }
+    }
+}
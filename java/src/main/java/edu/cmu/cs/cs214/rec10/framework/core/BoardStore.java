@@ -0,0 +1,273 @@
+package edu.cmu.cs.cs214.rec10.framework.core;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Compact storage for the strings on a game grid. Each distinct string is
+ * interned once into a symbol table and the cells hold only its symbol id,
+ * two bytes per cell while there are at most 65535 distinct strings and four
+ * bytes per cell after that.
+ *
+ * The grid is split into chunks of up to {@value #CHUNK_SIDE} by
+ * {@value #CHUNK_SIDE} squares that are only allocated when one of their
+ * squares is first set, so a very large board costs memory only for the tiles
+ * that have actually been played. Chunks are no wider or taller than the
+ * board, so a board smaller than a chunk takes a single chunk of its own size.
+ * Clearing the board returns its full-size chunks to a pool shared by every
+ * board (of up to {@code rec10.board.pooledChunks} chunks in all) and keeps
+ * its symbol table for the next game, so starting a new game does not
+ * allocate while the pool has chunks.
+ *
+ * Symbol 0 always stands for null (a square that has not been set).
+ *
+ * This class is not thread-safe, but different boards may be used from
+ * different threads.
+ */
+final class BoardStore {
+    static final int CHUNK_SIDE = 64;
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_MASK = CHUNK_SIDE - 1;
+    private static final int CHUNK_CELLS = CHUNK_SIDE * CHUNK_SIDE;
+    private static final int MAX_NARROW_SYMBOL = 0xFFFF;
+    private static final int MAX_RETAINED_SYMBOLS = 1024;
+    /** Cleared full-size narrow chunks, shared by every board; not zeroed until reused. */
+    private static final ArrayBlockingQueue<short[]> POOL =
+            new ArrayBlockingQueue<>(Math.max(1, Integer.getInteger("rec10.board.pooledChunks", 64)));
+
+    private String[] symbols = new String[16];
+    private final Map<String, Integer> symbolIds = new HashMap<>();
+    private int symbolCount = 1;
+
+    /** Per-chunk cells, null until a square in the chunk is set; short[] while narrow, int[] once wide. */
+    private Object[] chunks = new Object[0];
+    private boolean wide;
+    private int chunksAcross;
+    /** The width of each chunk; rows of a chunk are this many cells apart. */
+    private int chunkWidth;
+    private int chunkCells;
+    private int width;
+    private int height;
+
+    BoardStore(int width, int height) {
+        resize(width, height);
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    /**
+     * Resizes the grid and clears it. The chunk table is reused if it is
+     * large enough.
+     */
+    void resize(int width, int height) {
+        Math.multiplyExact(width, height); // row-major square indices must still fit in an int
+        clear();
+        this.width = width;
+        this.height = height;
+        this.chunksAcross = chunksFor(width);
+        this.chunkWidth = Math.min(width, CHUNK_SIDE);
+        this.chunkCells = chunkWidth * Math.min(height, CHUNK_SIDE);
+        int count = Math.multiplyExact(chunksAcross, chunksFor(height));
+        if (chunks.length < count) {
+            chunks = new Object[count];
+        }
+    }
+
+    /**
+     * Sets every square back to null, returning the chunks to the pool. The
+     * interned strings are kept for the next game unless there are many of them.
+     */
+    void clear() {
+        for (int i = 0; i < chunks.length; i++) {
+            Object chunk = chunks[i];
+            if (chunk instanceof short[] && ((short[]) chunk).length == CHUNK_CELLS) {
+                POOL.offer((short[]) chunk); // dropped if the pool is full
+            }
+            chunks[i] = null;
+        }
+        if (symbolCount > MAX_RETAINED_SYMBOLS) {
+            Arrays.fill(symbols, 1, symbolCount, null);
+            symbolIds.clear();
+            symbolCount = 1;
+            wide = false;
+        }
+    }
+
+    /** Returns the number of chunks in the shared pool. */
+    static int pooledChunks() {
+        return POOL.size();
+    }
+
+    /** Returns the number of cells allocated across all chunks. */
+    int allocatedCells() {
+        int cells = 0;
+        for (Object chunk : chunks) {
+            if (chunk != null) {
+                cells += chunk instanceof short[] ? ((short[]) chunk).length : ((int[]) chunk).length;
+            }
+        }
+        return cells;
+    }
+
+    String get(int x, int y) {
+        return symbols[id(x, y)];
+    }
+
+    void set(int x, int y, String value) {
+        int chunk = chunkIndex(x, y);
+        int id = intern(value);
+        if (chunks[chunk] == null) {
+            if (id == 0) {
+                return;
+            }
+            chunks[chunk] = wide ? new int[chunkCells] : newNarrowChunk();
+        }
+        if (!wide && id > MAX_NARROW_SYMBOL) {
+            widen();
+        }
+        putId(chunk, cellIndex(x, y), id);
+    }
+
+    /**
+     * Writes the grid size, the symbol table and the cells' symbol ids in row-major order.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeInt(symbolCount);
+        for (int i = 1; i < symbolCount; i++) {
+            out.writeUTF(symbols[i]);
+        }
+        out.writeBoolean(wide);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (wide) {
+                    out.writeInt(id(x, y));
+                } else {
+                    out.writeShort(id(x, y));
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a board written by {@link #writeTo} into a new board. Nothing is
+     * allocated for the cells until the header has been validated.
+     *
+     * @throws IOException if the input is truncated or inconsistent.
+     */
+    static BoardStore readFrom(DataInput in) throws IOException {
+        int width = in.readInt();
+        int height = in.readInt();
+        int symbolCount = in.readInt();
+        if (width < 1 || height < 1 || symbolCount < 1 || (long) width * height > Integer.MAX_VALUE) {
+            throw new IOException(String.format("Corrupt board: %dx%d, %d symbols", width, height, symbolCount));
+        }
+        // Read the table before growing anything from it, so a corrupt count fails on the truncated input.
+        String[] table = new String[Math.min(symbolCount, 1024)];
+        for (int i = 1; i < symbolCount; i++) {
+            if (i == table.length) {
+                table = Arrays.copyOf(table, Math.min(symbolCount, table.length * 2));
+            }
+            table[i] = in.readUTF();
+        }
+        boolean wideCells = in.readBoolean();
+        BoardStore board = new BoardStore(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int id = wideCells ? in.readInt() : Short.toUnsignedInt(in.readShort());
+                if (id < 0 || id >= symbolCount) {
+                    throw new IOException("Corrupt board: symbol " + id);
+                }
+                if (id != 0) {
+                    board.set(x, y, table[id]);
+                }
+            }
+        }
+        return board;
+    }
+
+    private int id(int x, int y) {
+        Object chunk = chunks[chunkIndex(x, y)];
+        if (chunk == null) {
+            return 0;
+        }
+        int cell = cellIndex(x, y);
+        return wide ? ((int[]) chunk)[cell] : Short.toUnsignedInt(((short[]) chunk)[cell]);
+    }
+
+    private void putId(int chunk, int cell, int id) {
+        if (wide) {
+            ((int[]) chunks[chunk])[cell] = id;
+        } else {
+            ((short[]) chunks[chunk])[cell] = (short) id;
+        }
+    }
+
+    private int chunkIndex(int x, int y) {
+        Objects.checkIndex(x, width);
+        Objects.checkIndex(y, height);
+        return (y >> CHUNK_SHIFT) * chunksAcross + (x >> CHUNK_SHIFT);
+    }
+
+    private int cellIndex(int x, int y) {
+        return (y & CHUNK_MASK) * chunkWidth + (x & CHUNK_MASK);
+    }
+
+    private static int chunksFor(int squares) {
+        return (squares + CHUNK_MASK) >> CHUNK_SHIFT;
+    }
+
+    private int intern(String value) {
+        if (value == null) {
+            return 0;
+        }
+        Integer id = symbolIds.get(value);
+        if (id != null) {
+            return id;
+        }
+        if (symbolCount == symbols.length) {
+            symbols = Arrays.copyOf(symbols, symbols.length * 2);
+        }
+        symbols[symbolCount] = value;
+        symbolIds.put(value, symbolCount);
+        return symbolCount++;
+    }
+
+    /** Returns a zeroed narrow chunk, from the pool if it has one. */
+    private short[] newNarrowChunk() {
+        short[] chunk = chunkCells == CHUNK_CELLS ? POOL.poll() : null;
+        if (chunk == null) {
+            return new short[chunkCells];
+        }
+        Arrays.fill(chunk, (short) 0);
+        return chunk;
+    }
+
+    /** Switches from two-byte to four-byte cells once symbol ids no longer fit in a short. */
+    private void widen() {
+        for (int i = 0; i < chunks.length; i++) {
+            if (chunks[i] instanceof short[]) {
+                short[] narrow = (short[]) chunks[i];
+                int[] widened = new int[narrow.length];
+                for (int c = 0; c < narrow.length; c++) {
+                    widened[c] = Short.toUnsignedInt(narrow[c]);
+                }
+                chunks[i] = widened;
+            }
+        }
+        wide = true;
+    }
+}
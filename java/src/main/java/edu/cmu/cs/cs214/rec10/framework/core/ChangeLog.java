@@ -0,0 +1,65 @@
+package edu.cmu.cs.cs214.rec10.framework.core;
+
+import java.util.BitSet;
+
+/**
+ * A bounded ring buffer recording which grid squares changed at which state
+ * version. Once the buffer wraps, the oldest entries are dropped and clients
+ * asking for changes from before them must fall back to a full snapshot.
+ *
+ * This class is not thread-safe.
+ */
+final class ChangeLog {
+    private final long[] versions;
+    private final int[] xs;
+    private final int[] ys;
+    private int next;
+    private int size;
+    private long floor;
+
+    ChangeLog(int capacity) {
+        versions = new long[capacity];
+        xs = new int[capacity];
+        ys = new int[capacity];
+    }
+
+    /** Records that square (x, y) changed at the given version. */
+    void record(long version, int x, int y) {
+        if (size == versions.length) {
+            floor = versions[next]; // The entry being overwritten is no longer recoverable
+        } else {
+            size++;
+        }
+        versions[next] = version;
+        xs[next] = x;
+        ys[next] = y;
+        next = (next + 1) % versions.length;
+    }
+
+    /** Forgets all entries; clients from before {@code version} need a full snapshot. */
+    void truncate(long version) {
+        size = 0;
+        next = 0;
+        floor = version;
+    }
+
+    /**
+     * Adds the index ({@code y * width + x}) of every square changed after
+     * version {@code since} to {@code out}.
+     *
+     * @return false if changes after {@code since} are no longer all in the log.
+     */
+    boolean collectSince(long since, int width, BitSet out) {
+        if (since < floor) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            int slot = Math.floorMod(next - 1 - i, versions.length);
+            if (versions[slot] <= since) {
+                break;
+            }
+            out.set(ys[slot] * width + xs[slot]);
+        }
+        return true;
+    }
+}
@@ -1,8 +1,19 @@
 package edu.cmu.cs.cs214.rec10.framework.core;
 
+import edu.cmu.cs.cs214.rec10.metrics.Counter;
+import edu.cmu.cs.cs214.rec10.metrics.LatencyHistogram;
+import edu.cmu.cs.cs214.rec10.metrics.Metrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -13,15 +24,41 @@ public class GameFrameworkImpl implements GameFramework {
     private final String DEFAULT_FOOTER = "No ongoing game";
     private final int DEFAULT_HEIGHT = 1;
     private final int DEFAULT_WIDTH = 1;
-    private String[][] gameGrid;
-    private GamePlugin currentPlugin;
+    private static final int CHANGE_LOG_CAPACITY = 4096;
+    private static final int SNAPSHOT_MAGIC = 0x47534e50; // "GSNP"
+    private static final byte SNAPSHOT_FORMAT = 1;
+    private static final String CALLBACK_METRIC = "rec10_plugin_callback_seconds";
+    private static final String CALLBACK_HELP = "Time spent in plug-in callbacks.";
+    private static final LatencyHistogram IS_MOVE_VALID_TIME =
+            Metrics.histogram(CALLBACK_METRIC, CALLBACK_HELP, "callback", "isMoveValid");
+    private static final LatencyHistogram ON_MOVE_PLAYED_TIME =
+            Metrics.histogram(CALLBACK_METRIC, CALLBACK_HELP, "callback", "onMovePlayed");
+    private static final LatencyHistogram IS_GAME_OVER_TIME =
+            Metrics.histogram(CALLBACK_METRIC, CALLBACK_HELP, "callback", "isGameOver");
+    /** One sample per window of squares: the plug-in's own mask, or an isMoveValid probe of every square. */
+    private static final LatencyHistogram PLAYABLE_SQUARES_TIME =
+            Metrics.histogram(CALLBACK_METRIC, CALLBACK_HELP, "callback", "playableSquares");
+    private static final Counter MOVES_REJECTED =
+            Metrics.counter("rec10_moves_rejected_total", "Moves the plug-in rejected as invalid.");
+    private BoardStore board;
+    private GamePlugin<?> currentPlugin;
     private String footer;
-    private List<GamePlugin>  registeredPlugins;
+    private List<GamePlugin<?>>  registeredPlugins;
+    private final List<Supplier<? extends GamePlugin<?>>> pluginFactories;
+    private final List<Supplier<String>> pluginNames;
+    private final ChangeLog changeLog;
+    private long stateVersion;
+    private long footerVersion;
+    private MoveListener moveListener;
+    private final BitSet probedSquares = new BitSet();
 
     public GameFrameworkImpl() {
-        gameGrid = new String[DEFAULT_WIDTH][DEFAULT_HEIGHT];
+        board = new BoardStore(DEFAULT_WIDTH, DEFAULT_HEIGHT);
         footer = DEFAULT_FOOTER;
-        registeredPlugins = new ArrayList<GamePlugin>();
+        registeredPlugins = new ArrayList<GamePlugin<?>>();
+        pluginFactories = new ArrayList<>();
+        pluginNames = new ArrayList<>();
+        changeLog = new ChangeLog(CHANGE_LOG_CAPACITY);
     }
 
 
@@ -29,15 +66,37 @@ public class GameFrameworkImpl implements GameFramework {
     /**
      * Registers a new {@link GamePlugin} with the game framework
      */
-    public void registerPlugin(GamePlugin plugin) {
+    public void registerPlugin(GamePlugin<?> plugin) {
         plugin.onRegister(this);
         registeredPlugins.add(plugin);
+        pluginFactories.add(null);
+        pluginNames.add(plugin::getGameName);
+    }
+
+    /**
+     * Registers a plug-in that is only instantiated (and registered) the
+     * first time {@link #getRegisteredPlugin} asks for it.
+     *
+     * @param name    The name to list the plug-in under until it is instantiated.
+     * @param factory Creates the plug-in instance, or returns null if it cannot be loaded.
+     */
+    public void registerPlugin(Supplier<String> name, Supplier<? extends GamePlugin<?>> factory) {
+        registeredPlugins.add(null);
+        pluginFactories.add(factory);
+        pluginNames.add(name);
+    }
+
+    /**
+     * Sets the listener notified of every new game and valid move, or null for none.
+     */
+    public void setMoveListener(MoveListener listener) {
+        moveListener = listener;
     }
 
     /**
      * Starts a new game for the provided {@link GamePlugin}
      */
-    public void startNewGame(GamePlugin plugin) {
+    public void startNewGame(GamePlugin<?> plugin) {
         final int width = plugin.getGridWidth();
         final int height = plugin.getGridHeight();
 
@@ -48,17 +107,22 @@ public class GameFrameworkImpl implements GameFramework {
             if (currentPlugin != null)
                 currentPlugin.onGameClosed();
             currentPlugin = plugin;
-            gameGrid = new String[height][width];
         }
 
-        // Reset the game's internal state.
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                gameGrid[y][x] = null;
-            }
+        // Reset the game's internal state, reusing the board's storage where possible.
+        if (board.getWidth() != width || board.getHeight() != height) {
+            board.resize(width, height);
+        } else {
+            board.clear();
         }
+        // Nothing before the new game can be diffed against; clients need a full snapshot.
+        changeLog.truncate(++stateVersion);
         currentPlugin.onNewGame();
         currentPlugin.onNewMove();
+        if (moveListener != null) {
+            moveListener.gameStarted(registeredPlugins.indexOf(plugin),
+                    currentPlugin.supportsSnapshot() ? snapshot() : null);
+        }
 
     }
 
@@ -67,22 +131,60 @@ public class GameFrameworkImpl implements GameFramework {
      *
      * @param x The x coordinate of the grid square.
      * @param y The y coordinate of the grid square.
+     * @return true if the move was valid and has been played.
      */
-    public void playMove(int x, int y) {
-        if (!currentPlugin.isMoveValid(x, y)) {
-            return;
+    public boolean playMove(int x, int y) {
+        long start = System.nanoTime();
+        boolean valid = currentPlugin.isMoveValid(x, y);
+        long validated = System.nanoTime();
+        IS_MOVE_VALID_TIME.record(validated - start);
+        if (!valid) {
+            MOVES_REJECTED.increment();
+            return false;
         }
 
         currentPlugin.onMovePlayed(x, y);
+        ON_MOVE_PLAYED_TIME.recordSince(validated);
+        // The current player and playable squares may change even if no square did.
+        stateVersion++;
+        if (moveListener != null) {
+            moveListener.movePlayed(x, y);
+        }
 
-        if (currentPlugin.isGameOver()) {
+        start = System.nanoTime();
+        boolean over = currentPlugin.isGameOver();
+        IS_GAME_OVER_TIME.recordSince(start);
+        if (over) {
             //startNewGame(currentPlugin);
-            return;
+            return true;
         }
 
         if (currentPlugin.isMoveOver()) {
             currentPlugin.onNewMove();
         }
+        return true;
+    }
+
+    /**
+     * Performs a sequence of moves in order, stopping at the first invalid
+     * move or once the game is over.
+     *
+     * @param moves The moves as consecutive coordinate pairs: {x0, y0, x1, y1, ...}.
+     * @return The number of moves played.
+     * @throws IllegalArgumentException if moves has an odd length.
+     */
+    public int playMoves(int[] moves) {
+        if (moves.length % 2 != 0) {
+            throw new IllegalArgumentException("Moves must be (x, y) pairs: " + moves.length + " coordinates");
+        }
+        int played = 0;
+        for (int i = 0; i < moves.length && hasGame() && !currentPlugin.isGameOver(); i += 2) {
+            if (!playMove(moves[i], moves[i + 1])) {
+                break;
+            }
+            played++;
+        }
+        return played;
     }
 
     /* GameFramework methods. */
@@ -98,17 +200,155 @@ public class GameFrameworkImpl implements GameFramework {
 
     @Override
     public String getSquare(int x, int y) {
-        return gameGrid[y][x];
+        return board.get(x, y);
     }
 
     @Override
     public void setSquare(int x, int y, String obj) {
-        gameGrid[y][x] = obj;
+        board.set(x, y, obj);
+        changeLog.record(++stateVersion, x, y);
     }
 
     @Override
     public void setFooterText(String text) {
         footer = text;
+        footerVersion = ++stateVersion;
+    }
+
+    /* Change tracking: lets clients fetch only what changed since a version they have seen. */
+
+    /**
+     * Returns the current state version. The version increases whenever a
+     * square, the footer, or the game in progress changes.
+     */
+    public long getStateVersion() {
+        return stateVersion;
+    }
+
+    /** Returns the state version at which the footer text last changed. */
+    public long getFooterVersion() {
+        return footerVersion;
+    }
+
+    /**
+     * Adds the index ({@code y * getGridWidth() + x}) of every square set
+     * after version {@code since} to {@code out}.
+     *
+     * @return false if the change log no longer reaches back to {@code since},
+     *         in which case the caller needs a full snapshot.
+     */
+    public boolean changedSquaresSince(long since, BitSet out) {
+        return changeLog.collectSince(since, getGridWidth(), out);
+    }
+
+    /* Snapshots: cheap checkpoint and restore of the game in progress. */
+
+    /**
+     * Returns a compact binary snapshot of the game in progress: the grid,
+     * footer, state version, current plugin and the plugin's own state.
+     * The layout is a magic number and format version, followed by the
+     * versions, the footer, the plugin index, the grid (size, symbol table
+     * and cell symbol ids) and the length-prefixed plugin state.
+     *
+     * @throws IllegalStateException if no game is in progress or its plugin
+     *         does not support snapshots.
+     */
+    public byte[] snapshot() {
+        if (currentPlugin == null || !currentPlugin.supportsSnapshot()) {
+            throw new IllegalStateException("No game in progress that supports snapshots");
+        }
+        try {
+            byte[] pluginState = pluginSnapshot();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + pluginState.length);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeByte(SNAPSHOT_FORMAT);
+            out.writeLong(stateVersion);
+            out.writeLong(footerVersion);
+            out.writeBoolean(footer != null);
+            if (footer != null) {
+                out.writeUTF(footer);
+            }
+            out.writeInt(registeredPlugins.indexOf(currentPlugin));
+            board.writeTo(out);
+            out.writeInt(pluginState.length);
+            out.write(pluginState);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new AssertionError("In-memory streams do not throw", e);
+        }
+    }
+
+    /** Returns the current plugin's own state, as written by {@link GamePlugin#writeSnapshot}. */
+    private byte[] pluginSnapshot() throws IOException {
+        ByteArrayOutputStream pluginState = new ByteArrayOutputStream();
+        currentPlugin.writeSnapshot(new DataOutputStream(pluginState));
+        return pluginState.toByteArray();
+    }
+
+    /**
+     * Replaces the game in progress with one saved by {@link #snapshot()} from
+     * a framework with the same registered plugins. The whole snapshot is read
+     * before anything is replaced, so if it cannot be restored the game in
+     * progress is left as it was.
+     *
+     * @throws IOException if the snapshot is corrupt, from an unknown format,
+     *         or for a plugin that is not registered or cannot restore it.
+     */
+    public void restore(byte[] snapshot) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot));
+        if (in.readInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("Not a game snapshot");
+        }
+        byte format = in.readByte();
+        if (format != SNAPSHOT_FORMAT) {
+            throw new IOException("Unsupported snapshot format: " + format);
+        }
+        long version = in.readLong();
+        long restoredFooterVersion = in.readLong();
+        String restoredFooter = in.readBoolean() ? in.readUTF() : null;
+        int pluginIndex = in.readInt();
+        GamePlugin<?> plugin = pluginIndex < 0 || pluginIndex >= registeredPlugins.size()
+                ? null : getRegisteredPlugin(pluginIndex);
+        if (plugin == null || !plugin.supportsSnapshot()) {
+            throw new IOException("Snapshot plugin is not registered here: " + pluginIndex);
+        }
+        BoardStore restoredBoard = BoardStore.readFrom(in);
+        int pluginStateLength = in.readInt();
+        if (pluginStateLength < 0 || pluginStateLength > in.available()) {
+            throw new IOException("Corrupt plugin state length: " + pluginStateLength);
+        }
+        byte[] pluginState = new byte[pluginStateLength];
+        in.readFully(pluginState);
+
+        // The plugin may read the grid while restoring, so swap the board in first and back out on failure.
+        byte[] previousState = plugin == currentPlugin ? pluginSnapshot() : null;
+        BoardStore previousBoard = board;
+        board = restoredBoard;
+        try {
+            plugin.readSnapshot(new DataInputStream(new ByteArrayInputStream(pluginState)));
+        } catch (IOException | RuntimeException e) {
+            board = previousBoard;
+            if (previousState != null) {
+                try {
+                    plugin.readSnapshot(new DataInputStream(new ByteArrayInputStream(previousState)));
+                } catch (IOException | RuntimeException rollback) {
+                    e.addSuppressed(rollback);
+                }
+            }
+            throw e;
+        }
+        if (currentPlugin != plugin) {
+            if (currentPlugin != null)
+                currentPlugin.onGameClosed();
+            currentPlugin = plugin;
+        }
+
+        footer = restoredFooter;
+        footerVersion = restoredFooterVersion;
+        // Clients of this framework may have seen unrelated states; make them all take a full snapshot.
+        stateVersion = Math.max(stateVersion, version) + 1;
+        changeLog.truncate(stateVersion);
     }
 
     /* GameState methods: getter for Gui purposes*/
@@ -140,8 +380,28 @@ public class GameFrameworkImpl implements GameFramework {
         return footer;
     }
 
+    /**
+     * Returns the plug-in registered at the given index, instantiating and
+     * registering it first if it was registered lazily, or null if a lazily
+     * registered plug-in could not be loaded.
+     */
+    public GamePlugin<?> getRegisteredPlugin(int index){
+        GamePlugin<?> plugin = registeredPlugins.get(index);
+        if (plugin == null) {
+            plugin = pluginFactories.get(index).get();
+            if (plugin == null) {
+                return null;
+            }
+            plugin.onRegister(this);
+            registeredPlugins.set(index, plugin);
+            pluginFactories.set(index, null);
+            pluginNames.set(index, plugin::getGameName);
+        }
+        return plugin;
+    }
+
     public List<String> getRegisteredPluginName(){
-        return registeredPlugins.stream().map(GamePlugin::getGameName).collect(Collectors.toList());
+        return pluginNames.stream().map(Supplier::get).collect(Collectors.toList());
     }
 
     public String getGameOverMsg(){
@@ -156,16 +416,80 @@ public class GameFrameworkImpl implements GameFramework {
     }
 
     public String isSquarePlayable(int x, int y){
+        return isPlayable(x, y) ? "playable" : "";
+    }
+
+    /**
+     * Returns true if a move at (x, y) is currently allowed, reading the
+     * plug-in's own mask when it provides one instead of asking the plug-in.
+     * Cheaper than {@link #getPlayableSquares()} when only a few squares are needed.
+     */
+    public boolean isPlayable(int x, int y){
         if (currentPlugin == null){
-            return "";
-        } else if (currentPlugin.isMoveValid(x,y)){
-            return "playable";
-        } else {
-            return "";
+            return false;
+        }
+        BitSet playable = currentPlugin.playableSquares();
+        if (playable != null) {
+            return playable.get(y * getGridWidth() + x);
         }
+        long start = System.nanoTime();
+        boolean valid = currentPlugin.isMoveValid(x, y);
+        IS_MOVE_VALID_TIME.recordSince(start);
+        return valid;
+    }
+
+    /**
+     * Returns the squares at which a move is currently allowed, with bit
+     * {@code y * width + x} set for square (x, y). Uses the plug-in's own mask
+     * when it provides one and otherwise probes every square; either way the
+     * result is only valid until the next move and must not be modified.
+     */
+    public BitSet getPlayableSquares(){
+        return getPlayableSquares(0, 0, getGridWidth(), getGridHeight());
+    }
+
+    /**
+     * Like {@link #getPlayableSquares()}, but only guaranteed to be accurate
+     * within the given window, so a plug-in without its own mask is only
+     * probed there. Bits are still indexed by position in the whole grid.
+     */
+    public BitSet getPlayableSquares(int x0, int y0, int width, int height){
+        probedSquares.clear();
+        if (currentPlugin == null) {
+            return probedSquares;
+        }
+        // Timed as a whole: two clock reads per square would cost as much as many plug-ins' checks.
+        long start = System.nanoTime();
+        BitSet playable = currentPlugin.playableSquares();
+        if (playable != null) {
+            PLAYABLE_SQUARES_TIME.recordSince(start);
+            return playable;
+        }
+        int gridWidth = getGridWidth();
+        for (int y = y0; y < y0 + height; y++) {
+            for (int x = x0; x < x0 + width; x++) {
+                if (currentPlugin.isMoveValid(x, y)) {
+                    probedSquares.set(y * gridWidth + x);
+                }
+            }
+        }
+        PLAYABLE_SQUARES_TIME.recordSince(start);
+        return probedSquares;
+    }
+
+    /**
+     * Returns the plug-in of the game in progress, or null if no game has been started.
+     */
+    public GamePlugin<?> getCurrentPlugin(){
+        return currentPlugin;
     }
 
     public boolean hasGame(){
         return currentPlugin != null;
     }
+
+    /** Returns true if a game has been started and is not over yet. */
+    public boolean isGameInProgress() {
+        return currentPlugin != null && !currentPlugin.isGameOver();
+    }
 }
\ No newline at end of file
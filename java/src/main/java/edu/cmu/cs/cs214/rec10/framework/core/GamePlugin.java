@@ -1,5 +1,10 @@
 package edu.cmu.cs.cs214.rec10.framework.core;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.BitSet;
+
 /**
  * The game plug-in interface that plug-ins use to implement and register games
  * with the {@link GameFramework}.  The type parameter, {@code P}, allows an
@@ -51,6 +56,19 @@ public interface GamePlugin<P> {
      */
     boolean isMoveValid(int x, int y);
 
+    /**
+     * Returns every square at which a move is currently allowed, as a mask with
+     * bit {@code y * getGridWidth() + x} set if {@link #isMoveValid}{@code (x, y)}
+     * would return true. Plug-ins that track their valid moves incrementally
+     * can override this so the framework need not probe every square; the
+     * result may be a live view of the plug-in's own mask, and the framework
+     * never modifies it. Returns null by default, in which case the framework
+     * calls {@link #isMoveValid} for each square.
+     */
+    default BitSet playableSquares() {
+        return null;
+    }
+
     /**
      * Returns true if the current move is over (based on the game's current
      * state). Returns false otherwise.
@@ -86,4 +104,51 @@ public interface GamePlugin<P> {
      * Returns the player whose turn it is to play.
      */
     P currentPlayer();
+
+    /**
+     * Returns true if this plug-in can copy the game in progress with
+     * {@link #fork}, which lets search engines play out positions on copies.
+     * Plug-ins opt in by overriding both methods.
+     */
+    default boolean supportsFork() {
+        return false;
+    }
+
+    /**
+     * Returns a new instance of this plug-in holding an independent copy of
+     * the game in progress, attached to {@code framework} instead of this
+     * plug-in's framework. The framework's grid already holds a copy of this
+     * game's squares, and neither {@link #onRegister} nor {@link #onNewGame()}
+     * is called on the copy. Searches fork once per playout, so copies should
+     * be cheap.
+     */
+    default GamePlugin<P> fork(GameFramework framework) {
+        throw new UnsupportedOperationException(getGameName() + " does not support forking");
+    }
+
+    /**
+     * Returns true if this plug-in can save and restore its game state with
+     * {@link #writeSnapshot} and {@link #readSnapshot}, which lets the
+     * framework snapshot games of this plug-in. Plug-ins opt in by overriding
+     * all three methods.
+     */
+    default boolean supportsSnapshot() {
+        return false;
+    }
+
+    /**
+     * Writes the state of the game in progress (everything not already on the
+     * framework's grid and footer) in a compact binary form.
+     */
+    default void writeSnapshot(DataOutput out) throws IOException {
+        throw new UnsupportedOperationException(getGameName() + " does not support snapshots");
+    }
+
+    /**
+     * Replaces the state of the game in progress with one written by
+     * {@link #writeSnapshot}. Called instead of {@link #onNewGame()}.
+     */
+    default void readSnapshot(DataInput in) throws IOException {
+        throw new UnsupportedOperationException(getGameName() + " does not support snapshots");
+    }
 }
\ No newline at end of file
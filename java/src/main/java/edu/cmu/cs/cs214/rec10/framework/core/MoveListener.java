@@ -0,0 +1,28 @@
+package edu.cmu.cs.cs214.rec10.framework.core;
+
+/**
+ * Receives the inputs that drive a {@link GameFrameworkImpl}: which game was
+ * started and which moves were played. Replaying the same calls against a
+ * framework with the same plugins rebuilds the same game: restoring the
+ * snapshot taken at the start of the game brings back whatever the plugin
+ * chose at random when it began, and plugins without snapshots must be
+ * deterministic.
+ */
+public interface MoveListener {
+    /**
+     * Called after a new game has been started.
+     *
+     * @param pluginIndex The index of the game's plugin among the registered plugins.
+     * @param snapshot    The new game, as taken by {@link GameFrameworkImpl#snapshot()}, or null if its
+     *                    plugin does not support snapshots.
+     */
+    void gameStarted(int pluginIndex, byte[] snapshot);
+
+    /**
+     * Called after a valid move has been played.
+     *
+     * @param x The x coordinate of the grid square played.
+     * @param y The y coordinate of the grid square played.
+     */
+    void movePlayed(int x, int y);
+}
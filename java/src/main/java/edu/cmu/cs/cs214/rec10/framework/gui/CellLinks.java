@@ -0,0 +1,53 @@
+package edu.cmu.cs.cs214.rec10.framework.gui;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the "/play?x=..&y=.." link of every cell per grid size, so rendering
+ * a board does not build a fresh string for each square on every request.
+ * Only a few grid sizes are ever in use at once, so the cache is simply
+ * cleared if it grows past {@link #MAX_GRIDS} sizes.
+ */
+final class CellLinks {
+    private static final int MAX_GRIDS = 16;
+    private static final int MAX_CELLS = 1 << 16;
+    private static final ConcurrentMap<Long, String[]> LINKS = new ConcurrentHashMap<>();
+
+    private CellLinks() {
+    }
+
+    /**
+     * Returns the links of a width by height grid, indexed
+     * {@code y * width + x}, or null if the grid is too large to cache.
+     * Callers must not modify the returned array.
+     */
+    static String[] forGrid(int width, int height) {
+        if ((long) width * height > MAX_CELLS) {
+            return null;
+        }
+        Long key = ((long) width << 32) | height;
+        String[] links = LINKS.get(key);
+        if (links == null) {
+            if (LINKS.size() >= MAX_GRIDS) {
+                LINKS.clear();
+            }
+            links = LINKS.computeIfAbsent(key, k -> build(width, height));
+        }
+        return links;
+    }
+
+    static String link(int x, int y) {
+        return "/play?x=" + x + "&y=" + y;
+    }
+
+    private static String[] build(int width, int height) {
+        String[] links = new String[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                links[y * width + x] = link(x, y);
+            }
+        }
+        return links;
+    }
+}
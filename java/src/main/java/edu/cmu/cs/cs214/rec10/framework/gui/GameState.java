@@ -4,6 +4,7 @@ import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 public class GameState {
@@ -15,8 +16,13 @@ public class GameState {
     private final String numColStyle;
     private final String currentPlayer;
     private final String gameOverMsg;
+    private final Viewport viewport;
+    private final int gridWidth;
+    private final int gridHeight;
+    private final NavLink[] pans;
 
-    private GameState(String name, String footer, Cell[] cells, Plugin[] plugins, String numColStyle, String currentPlayer, String gameOverMsg) {
+    private GameState(String name, String footer, Cell[] cells, Plugin[] plugins, String numColStyle, String currentPlayer, String gameOverMsg,
+                      Viewport viewport, int gridWidth, int gridHeight, NavLink[] pans) {
         this.name = name;
         this.footer = footer;
         this.cells = cells;
@@ -24,21 +30,65 @@ public class GameState {
         this.numColStyle = numColStyle;
         this.currentPlayer = currentPlayer;
         this.gameOverMsg = gameOverMsg;
+        this.viewport = viewport;
+        this.gridWidth = gridWidth;
+        this.gridHeight = gridHeight;
+        this.pans = pans;
     }
 
     public static GameState forGame(GameFrameworkImpl game) {
+        return forGame(game, Viewport.all(game.getGridWidth(), game.getGridHeight()));
+    }
+
+    /**
+     * Builds the state of the page showing only the squares within the given
+     * window (clamped to the grid), with links to pan across the rest of it.
+     */
+    public static GameState forGame(GameFrameworkImpl game, Viewport requested) {
+        int gridWidth = game.getGridWidth();
+        int gridHeight = game.getGridHeight();
+        Viewport view = requested.clampTo(gridWidth, gridHeight);
         String name = game.getGameName();
         String footer = game.getFooter();
-        Cell[] cells = getCells(game);
+        Cell[] cells = getCells(game, view);
         Plugin[] plugins = getPlugins(game);
-        String numColStyle = getNumColStyle(game);
+        String numColStyle = getNumColStyle(view.getWidth());
         String currentPlayer = game.getCurrentPlayerName();
         String gameOverMsg = game.getGameOverMsg();
-        return new GameState(name,footer,cells,plugins,numColStyle, currentPlayer, gameOverMsg);
+        NavLink[] pans = getPans(view, gridWidth, gridHeight);
+        return new GameState(name,footer,cells,plugins,numColStyle, currentPlayer, gameOverMsg, view, gridWidth, gridHeight, pans);
+    }
+
+    /** Returns links moving the window by half its size in each direction it can still go. */
+    private static NavLink[] getPans(Viewport view, int gridWidth, int gridHeight) {
+        if (view.covers(gridWidth, gridHeight)) {
+            return new NavLink[0];
+        }
+        int stepX = Math.max(1, view.getWidth() / 2);
+        int stepY = Math.max(1, view.getHeight() / 2);
+        int maxX = gridWidth - view.getWidth();
+        int maxY = gridHeight - view.getHeight();
+        List<NavLink> pans = new ArrayList<>(4);
+        if (view.getX() > 0) {
+            pans.add(panTo("Left", Math.max(0, view.getX() - stepX), view.getY()));
+        }
+        if (view.getX() < maxX) {
+            pans.add(panTo("Right", Math.min(maxX, view.getX() + stepX), view.getY()));
+        }
+        if (view.getY() > 0) {
+            pans.add(panTo("Up", view.getX(), Math.max(0, view.getY() - stepY)));
+        }
+        if (view.getY() < maxY) {
+            pans.add(panTo("Down", view.getX(), Math.min(maxY, view.getY() + stepY)));
+        }
+        return pans.toArray(new NavLink[0]);
     }
 
-    private static String getNumColStyle(GameFrameworkImpl game) {
-        int numCols = game.getGridWidth();
+    private static NavLink panTo(String label, int x, int y) {
+        return new NavLink(label, "/?vx=" + x + "&vy=" + y);
+    }
+
+    private static String getNumColStyle(int numCols) {
         List<String> style = new ArrayList<String>();
         for (int i=0; i<numCols; i++){
             style.add("auto");
@@ -57,16 +107,22 @@ public class GameState {
         return plugins;
     }
 
-    private static Cell[] getCells(GameFrameworkImpl game) {
-        int height = game.getGridHeight();
+    private static Cell[] getCells(GameFrameworkImpl game, Viewport view) {
         int width = game.getGridWidth();
-        Cell[] cells = new Cell[height*width];
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
+        int x0 = view.getX();
+        int y0 = view.getY();
+        int cols = view.getWidth();
+        int rows = view.getHeight();
+        Cell[] cells = new Cell[rows * cols];
+        BitSet playable = game.getPlayableSquares(x0, y0, cols, rows);
+        String[] links = CellLinks.forGrid(width, game.getGridHeight());
+        for (int y = y0; y < y0 + rows; y++) {
+            for (int x = x0; x < x0 + cols; x++) {
+                int i = width * y + x;
                 String text = game.getSquare(x,y);
-                String link = "/play?x="+x+"&y="+y;
-                String clazz = game.isSquarePlayable(x,y);
-                cells[width * y + x] = new Cell(text, clazz, link);
+                String link = links != null ? links[i] : CellLinks.link(x, y);
+                String clazz = playable.get(i) ? "playable" : "";
+                cells[cols * (y - y0) + (x - x0)] = new Cell(text, clazz, link);
             }
         }
         return cells;
@@ -100,6 +156,22 @@ public class GameState {
         return gameOverMsg;
     }
 
+    public Viewport getViewport() {
+        return viewport;
+    }
+
+    public int getGridWidth() {
+        return gridWidth;
+    }
+
+    public int getGridHeight() {
+        return gridHeight;
+    }
+
+    public NavLink[] getPans() {
+        return pans;
+    }
+
     @Override
     public String toString() {
         return "GameState{" +
@@ -110,6 +182,8 @@ public class GameState {
                 ", numColStyle='" + numColStyle + '\'' +
                 ", currentPlayer='" + currentPlayer + '\'' +
                 ", gameOverMsg='" + gameOverMsg + '\'' +
+                ", viewport=" + viewport +
+                ", grid=" + gridWidth + "x" + gridHeight +
                 '}';
     }
 }
@@ -0,0 +1,148 @@
+package edu.cmu.cs.cs214.rec10.framework.gui;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+
+import java.util.BitSet;
+
+/**
+ * The changes to a game since a state version the client has already seen,
+ * rendered as JSON. Falls back to a full snapshot of every square when the
+ * framework's change log no longer reaches back to that version.
+ *
+ * Only squares within the client's {@link Viewport} are sent, so a full
+ * snapshot of a very large board stays the size of the window; every diff
+ * says which window it covers.
+ *
+ * Squares carry their current text. A move can change which squares are
+ * playable without changing their text (e.g. when it ends the game), so
+ * every diff also carries the playable squares of the whole window as
+ * {@code playable}: a hex string with one bit per square, in row-major order
+ * within the window, most significant bit of each digit first.
+ */
+public class GameStateDiff {
+    private final String json;
+
+    private GameStateDiff(String json) {
+        this.json = json;
+    }
+
+    public static GameStateDiff forGame(GameFrameworkImpl game, long since) {
+        return forGame(game, since, Viewport.all(game.getGridWidth(), game.getGridHeight()));
+    }
+
+    /**
+     * Returns the changes since the given version to the squares within the
+     * given window (clamped to the grid).
+     */
+    public static GameStateDiff forGame(GameFrameworkImpl game, long since, Viewport requested) {
+        int width = game.getGridWidth();
+        int height = game.getGridHeight();
+        Viewport view = requested.clampTo(width, height);
+        int x0 = view.getX();
+        int y0 = view.getY();
+        int x1 = x0 + view.getWidth();
+        int y1 = y0 + view.getHeight();
+        BitSet changed = new BitSet();
+        boolean full = since < 0 || since > game.getStateVersion() || !game.changedSquaresSince(since, changed);
+        if (full) {
+            changed.clear();
+            for (int y = y0; y < y1; y++) {
+                changed.set(y * width + x0, y * width + x1);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(64 + changed.cardinality() * 40);
+        sb.append("{\"version\":").append(game.getStateVersion());
+        sb.append(",\"full\":").append(full);
+        if (full) {
+            sb.append(",\"name\":");
+            appendString(sb, game.getGameName());
+            sb.append(",\"width\":").append(width);
+            sb.append(",\"height\":").append(height);
+        }
+        sb.append(",\"viewport\":{\"x\":").append(x0).append(",\"y\":").append(y0)
+                .append(",\"width\":").append(x1 - x0).append(",\"height\":").append(y1 - y0).append('}');
+        if (full || game.getFooterVersion() > since) {
+            sb.append(",\"footer\":");
+            appendString(sb, game.getFooter());
+        }
+        sb.append(",\"currentPlayer\":");
+        appendString(sb, game.getCurrentPlayerName());
+        sb.append(",\"gameOverMsg\":");
+        appendString(sb, game.getGameOverMsg());
+        sb.append(",\"playable\":\"");
+        appendMask(sb, game.getPlayableSquares(x0, y0, x1 - x0, y1 - y0), width, view);
+        sb.append("\",\"squares\":[");
+        boolean first = true;
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            int x = i % width;
+            int y = i / width;
+            if (x < x0 || x >= x1 || y < y0 || y >= y1) {
+                continue;
+            }
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append("{\"x\":").append(x).append(",\"y\":").append(y).append(",\"text\":");
+            appendString(sb, game.getSquare(x, y));
+            sb.append('}');
+        }
+        sb.append("]}");
+        return new GameStateDiff(sb.toString());
+    }
+
+    public String toJson() {
+        return json;
+    }
+
+    /** Appends the bits of the window's squares (indexed by position in the grid) as hex digits. */
+    private static void appendMask(StringBuilder sb, BitSet playable, int gridWidth, Viewport view) {
+        int digit = 0;
+        int bits = 0;
+        for (int y = view.getY(); y < view.getY() + view.getHeight(); y++) {
+            int row = y * gridWidth;
+            for (int x = view.getX(); x < view.getX() + view.getWidth(); x++) {
+                digit = digit << 1 | (playable.get(row + x) ? 1 : 0);
+                if (++bits == 4) {
+                    sb.append(Character.forDigit(digit, 16));
+                    digit = 0;
+                    bits = 0;
+                }
+            }
+        }
+        if (bits > 0) {
+            sb.append(Character.forDigit(digit << (4 - bits), 16));
+        }
+    }
+
+    private static void appendString(StringBuilder sb, String s) {
+        if (s == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20 || c == '<' || c == '>' || c == '&') {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    @Override
+    public String toString() {
+        return "GameStateDiff{" + json + '}';
+    }
+}
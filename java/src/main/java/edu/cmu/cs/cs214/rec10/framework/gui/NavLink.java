@@ -0,0 +1,24 @@
+package edu.cmu.cs.cs214.rec10.framework.gui;
+
+class NavLink {
+    private final String label;
+    private final String link;
+
+    NavLink(String label, String link) {
+        this.label = label;
+        this.link = link;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getLink() {
+        return link;
+    }
+
+    @Override
+    public String toString() {
+        return "NavLink[label=" + label + ", link=" + link + ']';
+    }
+}
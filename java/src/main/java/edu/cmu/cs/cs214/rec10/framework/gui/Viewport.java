@@ -0,0 +1,90 @@
+package edu.cmu.cs.cs214.rec10.framework.gui;
+
+/**
+ * A rectangular window onto a game grid, so that pages for very large boards
+ * only build and render the squares the player is looking at.
+ */
+public final class Viewport {
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+
+    /**
+     * @throws IllegalArgumentException if the origin is negative or the window is empty.
+     */
+    public Viewport(int x, int y, int width, int height) {
+        if (x < 0 || y < 0 || width < 1 || height < 1) {
+            throw new IllegalArgumentException(String.format("Invalid viewport: %d,%d %dx%d", x, y, width, height));
+        }
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    /** Returns a viewport showing the whole of a width by height grid. */
+    public static Viewport all(int width, int height) {
+        return new Viewport(0, 0, width, height);
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns this window shrunk to fit a width by height grid and moved
+     * back onto it if it starts past the grid's edge.
+     */
+    public Viewport clampTo(int gridWidth, int gridHeight) {
+        int w = Math.min(width, gridWidth);
+        int h = Math.min(height, gridHeight);
+        int cx = Math.min(x, gridWidth - w);
+        int cy = Math.min(y, gridHeight - h);
+        if (cx == x && cy == y && w == width && h == height) {
+            return this;
+        }
+        return new Viewport(cx, cy, w, h);
+    }
+
+    /** Returns true if the window covers every square of a width by height grid. */
+    public boolean covers(int gridWidth, int gridHeight) {
+        return x == 0 && y == 0 && width >= gridWidth && height >= gridHeight;
+    }
+
+    /** Returns a viewport of the same size with its origin moved to (x, y). */
+    public Viewport moveTo(int x, int y) {
+        return new Viewport(Math.max(0, x), Math.max(0, y), width, height);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Viewport)) {
+            return false;
+        }
+        Viewport other = (Viewport) o;
+        return x == other.x && y == other.y && width == other.width && height == other.height;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((x * 31 + y) * 31 + width) * 31 + height;
+    }
+
+    @Override
+    public String toString() {
+        return x + "," + y + "," + width + "x" + height;
+    }
+}
@@ -0,0 +1,194 @@
+package edu.cmu.cs.cs214.rec10.framework.headless;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFramework;
+import edu.cmu.cs.cs214.rec10.framework.core.GamePlugin;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A minimal in-memory {@link GameFramework} that runs a single plug-in with
+ * no rendering, change tracking or listeners, for driving games from code.
+ * Moves follow the same protocol as the web framework's
+ * {@code GameFrameworkImpl}.
+ *
+ * This class is not thread-safe.
+ */
+public final class HeadlessFramework implements GameFramework {
+    private final GamePlugin<?> plugin;
+    private String[] squares = new String[0];
+    private int width;
+    private int height;
+    private String footer;
+    private final BitSet probedSquares = new BitSet();
+
+    /**
+     * Creates a framework for the given plug-in and registers the plug-in with it.
+     */
+    public HeadlessFramework(GamePlugin<?> plugin) {
+        this.plugin = plugin;
+        plugin.onRegister(this);
+    }
+
+    /** Creates a framework holding the given grid, running a fork of {@code source} on it. */
+    private HeadlessFramework(GamePlugin<?> source, String[] squares, int width, int height, String footer) {
+        this.squares = squares;
+        this.width = width;
+        this.height = height;
+        this.footer = footer;
+        this.plugin = source.fork(this);
+    }
+
+    /**
+     * Returns an independent copy of the game in progress, which can be
+     * played on without affecting this one.
+     *
+     * @throws UnsupportedOperationException if the plug-in does not support forking.
+     */
+    public HeadlessFramework fork() {
+        requireForkable(plugin);
+        return new HeadlessFramework(plugin, squares.clone(), width, height, footer);
+    }
+
+    /**
+     * Returns a headless copy of a game in progress on another framework,
+     * such as the web framework, for searching without disturbing it. The
+     * copy's grid holds the same squares; its footer starts out empty.
+     *
+     * @param plugin    The plug-in of the game in progress.
+     * @param framework The framework the plug-in is attached to.
+     * @throws UnsupportedOperationException if the plug-in does not support forking.
+     */
+    public static HeadlessFramework fork(GamePlugin<?> plugin, GameFramework framework) {
+        requireForkable(plugin);
+        int width = plugin.getGridWidth();
+        int height = plugin.getGridHeight();
+        String[] squares = new String[Math.multiplyExact(width, height)];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                squares[y * width + x] = framework.getSquare(x, y);
+            }
+        }
+        return new HeadlessFramework(plugin, squares, width, height, null);
+    }
+
+    private static void requireForkable(GamePlugin<?> plugin) {
+        if (!plugin.supportsFork()) {
+            throw new UnsupportedOperationException(plugin.getGameName() + " does not support forking");
+        }
+    }
+
+    /** Returns the plug-in this framework runs. */
+    public GamePlugin<?> getPlugin() {
+        return plugin;
+    }
+
+    /** Returns the width of the current game's grid. */
+    public int getWidth() {
+        return width;
+    }
+
+    /** Returns the height of the current game's grid. */
+    public int getHeight() {
+        return height;
+    }
+
+    /** Returns the footer text last set by the plug-in. */
+    public String getFooterText() {
+        return footer;
+    }
+
+    /**
+     * Starts a new game, clearing the grid and reusing its storage where possible.
+     */
+    public void startNewGame() {
+        width = plugin.getGridWidth();
+        height = plugin.getGridHeight();
+        int cells = Math.multiplyExact(width, height);
+        if (squares.length != cells) {
+            squares = new String[cells];
+        } else {
+            Arrays.fill(squares, null);
+        }
+        footer = null;
+        plugin.onNewGame();
+        plugin.onNewMove();
+    }
+
+    /**
+     * Returns true if the plug-in accepts a move at (x, y).
+     */
+    public boolean isMoveValid(int x, int y) {
+        return plugin.isMoveValid(x, y);
+    }
+
+    /**
+     * Returns true if the game in progress is over.
+     */
+    public boolean isGameOver() {
+        return plugin.isGameOver();
+    }
+
+    /**
+     * Returns the squares at which a move is currently allowed, with bit
+     * {@code y * getWidth() + x} set for square (x, y). Uses the plug-in's
+     * own mask when it provides one and otherwise probes every square; either
+     * way the result is only valid until the next move and must not be modified.
+     */
+    public BitSet getPlayableSquares() {
+        BitSet playable = plugin.playableSquares();
+        if (playable != null) {
+            return playable;
+        }
+        probedSquares.clear();
+        for (int i = 0; i < squares.length; i++) {
+            if (plugin.isMoveValid(i % width, i / width)) {
+                probedSquares.set(i);
+            }
+        }
+        return probedSquares;
+    }
+
+    /**
+     * Performs a move at the specified location.
+     *
+     * @return true if the move was valid and has been played.
+     */
+    public boolean playMove(int x, int y) {
+        if (!plugin.isMoveValid(x, y)) {
+            return false;
+        }
+        plugin.onMovePlayed(x, y);
+        if (!plugin.isGameOver() && plugin.isMoveOver()) {
+            plugin.onNewMove();
+        }
+        return true;
+    }
+
+    @Override
+    public String getCurrentPlayerName() {
+        return plugin.currentPlayer().toString();
+    }
+
+    @Override
+    public String getSquare(int x, int y) {
+        return squares[index(x, y)];
+    }
+
+    @Override
+    public void setSquare(int x, int y, String t) {
+        squares[index(x, y)] = t;
+    }
+
+    @Override
+    public void setFooterText(String text) {
+        footer = text;
+    }
+
+    private int index(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException(String.format("(%d, %d) is outside the %dx%d grid", x, y, width, height));
+        }
+        return y * width + x;
+    }
+}
@@ -0,0 +1,339 @@
+package edu.cmu.cs.cs214.rec10.framework.headless;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GamePlugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleBiFunction;
+
+/**
+ * Suggests moves for any plug-in that supports {@link GamePlugin#fork} with
+ * Monte-Carlo tree search: from the position to search, it repeatedly picks a
+ * line of play with UCT, plays it out to the end on a fork of the game with a
+ * rollout {@link MoveAgent}, and credits the result to every move on the line.
+ *
+ * Each of the pool's workers grows its own tree from its own fork of the
+ * position until the time budget runs out (root parallelization), so workers
+ * share nothing while searching; their statistics for the first move are
+ * summed at the end and the most visited move is suggested.
+ *
+ * A move here is a single square, as in {@link MoveAgent}: in games where a
+ * turn takes several clicks, each click is a level of the tree. The player to
+ * credit at each level is the framework's current player name before the click.
+ *
+ * Searches are thread-safe; each worker gets its own rollout agent.
+ */
+public final class MonteCarloTreeSearch {
+    private static final double EXPLORATION = Math.sqrt(2);
+
+    private final Supplier<? extends MoveAgent> rollouts;
+    private final ToDoubleBiFunction<? super HeadlessFramework, String> score;
+    private final int maxPlayoutMoves;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a search engine.
+     *
+     * @param rollouts        Creates the agent each worker plays out positions with.
+     * @param score           Scores a played-out game for the named player, from 0 (loss) to 1 (win).
+     *                        Games still running after maxPlayoutMoves are scored too.
+     * @param maxPlayoutMoves Playouts still running after this many moves are stopped.
+     * @param pool            The pool whose workers search in parallel.
+     * @throws IllegalArgumentException if maxPlayoutMoves is not positive.
+     */
+    public MonteCarloTreeSearch(Supplier<? extends MoveAgent> rollouts,
+                                ToDoubleBiFunction<? super HeadlessFramework, String> score,
+                                int maxPlayoutMoves, ForkJoinPool pool) {
+        if (maxPlayoutMoves <= 0) {
+            throw new IllegalArgumentException(String.format("Move limit must be positive: %d", maxPlayoutMoves));
+        }
+        this.rollouts = rollouts;
+        this.score = score;
+        this.maxPlayoutMoves = maxPlayoutMoves;
+        this.pool = pool;
+    }
+
+    /**
+     * Creates an engine on the common pool that plays out uniformly random
+     * moves and scores games by their game over messages.
+     */
+    public static MonteCarloTreeSearch withRandomPlayouts(int maxPlayoutMoves) {
+        return new MonteCarloTreeSearch(MoveAgent::random, byGameOverMessage(), maxPlayoutMoves,
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns a scorer for plug-ins whose game over message names the winner:
+     * 1 if the message contains the player's name, 0.5 if it mentions a tie or
+     * draw or the game is not over, and 0 otherwise.
+     */
+    public static ToDoubleBiFunction<HeadlessFramework, String> byGameOverMessage() {
+        return (game, player) -> {
+            if (!game.isGameOver()) {
+                return 0.5;
+            }
+            String message = game.getPlugin().getGameOverMessage();
+            if (message == null) {
+                return 0.5;
+            }
+            if (message.contains(player)) {
+                return 1;
+            }
+            String lower = message.toLowerCase(Locale.ROOT);
+            return lower.contains("tie") || lower.contains("draw") ? 0.5 : 0;
+        };
+    }
+
+    /**
+     * Searches the game in progress for at most the given time and returns
+     * the suggested move, or null if the game is over or has no valid move.
+     * The game itself is only forked, never played on.
+     *
+     * @throws UnsupportedOperationException if the plug-in does not support forking.
+     * @throws IllegalArgumentException if budgetMillis is negative.
+     */
+    public Result search(HeadlessFramework game, long budgetMillis, long seed) {
+        if (budgetMillis < 0) {
+            throw new IllegalArgumentException(String.format("Time budget must not be negative: %d", budgetMillis));
+        }
+        long start = System.nanoTime();
+        if (game.isGameOver()) {
+            return null;
+        }
+        int[] moves = game.getPlayableSquares().stream().toArray();
+        if (moves.length == 0) {
+            return null;
+        }
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        List<Worker> workers = new ArrayList<>(pool.getParallelism());
+        for (int i = 0; i < pool.getParallelism(); i++) {
+            // Fork on the calling thread, so workers never read the caller's game concurrently.
+            workers.add(new Worker(game.fork(), moves, deadline, seed ^ (i * 0x9E3779B97F4A7C15L)));
+        }
+        long[] visits = new long[moves.length];
+        double[] wins = new double[moves.length];
+        long playouts = 0;
+        for (Worker worker : pool.invoke(new Search(workers))) {
+            for (int i = 0; i < moves.length; i++) {
+                visits[i] += worker.visits[i];
+                wins[i] += worker.wins[i];
+            }
+            playouts += worker.playouts;
+        }
+        int best = 0;
+        for (int i = 1; i < moves.length; i++) {
+            if (visits[i] > visits[best]) {
+                best = i;
+            }
+        }
+        int width = game.getWidth();
+        double winRate = visits[best] == 0 ? 0.5 : wins[best] / visits[best];
+        return new Result(moves[best] % width, moves[best] / width, visits[best], winRate, playouts,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Returns an agent that plays the move this engine suggests after
+     * searching for the given time, e.g. as a bot opponent in {@link SelfPlay}.
+     */
+    public MoveAgent asAgent(long budgetMillis) {
+        return (game, random) -> {
+            Result result = search(game, budgetMillis, random.nextLong());
+            return result == null ? -1 : result.y() * game.getWidth() + result.x();
+        };
+    }
+
+    /** Runs every worker on the pool and waits for them all. */
+    private static final class Search extends RecursiveTask<List<Worker>> {
+        private static final long serialVersionUID = 1L;
+        private final List<Worker> workers;
+
+        Search(List<Worker> workers) {
+            this.workers = workers;
+        }
+
+        @Override
+        protected List<Worker> compute() {
+            ForkJoinTask.invokeAll(workers);
+            return workers;
+        }
+    }
+
+    /** Grows one tree from its own fork of the position until the deadline. */
+    private final class Worker extends RecursiveTask<Void> {
+        private static final long serialVersionUID = 1L;
+        private final HeadlessFramework root;
+        private final int[] rootMoves;
+        private final long deadline;
+        private final long seed;
+        final long[] visits;
+        final double[] wins;
+        long playouts;
+
+        Worker(HeadlessFramework root, int[] rootMoves, long deadline, long seed) {
+            this.root = root;
+            this.rootMoves = rootMoves;
+            this.deadline = deadline;
+            this.seed = seed;
+            this.visits = new long[rootMoves.length];
+            this.wins = new double[rootMoves.length];
+        }
+
+        @Override
+        protected Void compute() {
+            SplittableRandom random = new SplittableRandom(seed);
+            MoveAgent rollout = rollouts.get();
+            Node tree = new Node(null, -1, null);
+            tree.untried = rootMoves.clone();
+            tree.untriedCount = rootMoves.length;
+            // Always complete at least one playout, so even a zero budget suggests a valid move.
+            do {
+                playOut(tree, rollout, random);
+                playouts++;
+            } while (System.nanoTime() - deadline < 0);
+            for (int i = 0; i < tree.childCount; i++) {
+                Node child = tree.children[i];
+                int index = Arrays.binarySearch(rootMoves, child.move);
+                visits[index] = child.visits;
+                wins[index] = child.wins;
+            }
+            return null;
+        }
+
+        private void playOut(Node tree, MoveAgent rollout, SplittableRandom random) {
+            HeadlessFramework game = root.fork();
+            int width = game.getWidth();
+            Node node = tree;
+            // Selection: descend through fully expanded nodes by UCT.
+            while (node.untriedCount == 0 && node.childCount > 0) {
+                node = node.select();
+                game.playMove(node.move % width, node.move / width);
+            }
+            // Expansion: add one untried move, unless the game ended here.
+            if (node.untried == null) {
+                node.untried = game.isGameOver() ? new int[0] : game.getPlayableSquares().stream().toArray();
+                node.untriedCount = node.untried.length;
+            }
+            if (node.untriedCount > 0) {
+                int pick = random.nextInt(node.untriedCount);
+                int move = node.untried[pick];
+                node.untried[pick] = node.untried[--node.untriedCount];
+                String mover = game.getCurrentPlayerName();
+                game.playMove(move % width, move / width);
+                node = node.addChild(move, mover);
+            }
+            // Simulation: play the rest of the game out with the rollout agent.
+            for (int moves = 0; !game.isGameOver() && moves < maxPlayoutMoves; moves++) {
+                int move = rollout.selectMove(game, random);
+                if (move < 0 || !game.playMove(move % width, move / width)) {
+                    break;
+                }
+            }
+            // Backpropagation: credit each move to the player who made it.
+            for (Node n = node; n.parent != null; n = n.parent) {
+                n.visits++;
+                n.wins += score.applyAsDouble(game, n.mover);
+            }
+            tree.visits++;
+        }
+    }
+
+    private static final class Node {
+        final Node parent;
+        final int move;
+        final String mover;
+        int[] untried;
+        int untriedCount;
+        Node[] children = new Node[0];
+        int childCount;
+        long visits;
+        double wins;
+
+        Node(Node parent, int move, String mover) {
+            this.parent = parent;
+            this.move = move;
+            this.mover = mover;
+        }
+
+        Node addChild(int move, String mover) {
+            if (childCount == children.length) {
+                children = Arrays.copyOf(children, Math.max(4, childCount * 2));
+            }
+            Node child = new Node(this, move, mover);
+            children[childCount++] = child;
+            return child;
+        }
+
+        /** Returns the child with the highest upper confidence bound on its win rate. */
+        Node select() {
+            double logVisits = Math.log(visits);
+            Node best = null;
+            double bestBound = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < childCount; i++) {
+                Node child = children[i];
+                double bound = child.wins / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+                if (bound > bestBound) {
+                    best = child;
+                    bestBound = bound;
+                }
+            }
+            return best;
+        }
+    }
+
+    /** The move a search suggests, with the statistics behind it. */
+    public static final class Result {
+        private final int x;
+        private final int y;
+        private final long visits;
+        private final double winRate;
+        private final long playouts;
+        private final long elapsedNanos;
+
+        private Result(int x, int y, long visits, double winRate, long playouts, long elapsedNanos) {
+            this.x = x;
+            this.y = y;
+            this.visits = visits;
+            this.winRate = winRate;
+            this.playouts = playouts;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /** The x-coordinate of the suggested move. */
+        public int x() { return x; }
+
+        /** The y-coordinate of the suggested move. */
+        public int y() { return y; }
+
+        /** The number of playouts that started with the suggested move. */
+        public long visits() { return visits; }
+
+        /** The average score of those playouts for the player to move, from 0 to 1. */
+        public double winRate() { return winRate; }
+
+        /** The total number of playouts, over all workers. */
+        public long playouts() { return playouts; }
+
+        /** The wall-clock time spent searching. */
+        public long elapsedNanos() { return elapsedNanos; }
+
+        /** The search throughput, in playouts per second. */
+        public double playoutsPerSecond() {
+            return elapsedNanos == 0 ? 0 : playouts * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Result[(%d, %d), visits=%d, winRate=%.3f, playouts=%d, %.0f playouts/s]",
+                    x, y, visits, winRate, playouts, playoutsPerSecond());
+        }
+    }
+}
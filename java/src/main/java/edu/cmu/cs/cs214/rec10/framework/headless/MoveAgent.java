@@ -0,0 +1,41 @@
+package edu.cmu.cs.cs214.rec10.framework.headless;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses moves for headless games. {@link SelfPlay} creates one agent per
+ * worker, so an agent may keep state between calls, but it is only ever
+ * used by one thread at a time.  An agent plays every side; agents that
+ * should play differently per side can check
+ * {@link HeadlessFramework#getCurrentPlayerName()}.
+ */
+public interface MoveAgent {
+    /**
+     * Chooses the next move of the game in progress.
+     *
+     * @param game   The game, positioned before the move.
+     * @param random The game's random source, for agents that need one.
+     * @return The index ({@code y * game.getWidth() + x}) of the chosen
+     *         square, or -1 to abandon the game.
+     */
+    int selectMove(HeadlessFramework game, SplittableRandom random);
+
+    /**
+     * Returns an agent that plays a uniformly random valid move, found in a
+     * single pass over the grid, or abandons the game if there is none.
+     */
+    static MoveAgent random() {
+        return (game, random) -> {
+            int width = game.getWidth();
+            int cells = width * game.getHeight();
+            int chosen = -1;
+            int seen = 0;
+            for (int i = 0; i < cells; i++) {
+                if (game.isMoveValid(i % width, i / width) && random.nextInt(++seen) == 0) {
+                    chosen = i;
+                }
+            }
+            return chosen;
+        };
+    }
+}
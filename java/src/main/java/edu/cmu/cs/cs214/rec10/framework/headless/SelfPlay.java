@@ -0,0 +1,200 @@
+package edu.cmu.cs.cs214.rec10.framework.headless;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GamePlugin;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs many games of a {@link GamePlugin} against itself on a
+ * {@link HeadlessFramework}, spreading them over the cores of a
+ * {@link ForkJoinPool}, and tallies their outcomes.
+ *
+ * The games are split into ranges that idle workers steal. Each range gets
+ * its own plug-in instance and agent, reused for every game in the range, so
+ * plug-ins need not be thread-safe. Each game's random source is derived
+ * from the seed and the game's number alone, so runs with the same seed,
+ * game count and (stateless) agents play the same games on any pool.
+ *
+ * @param <G> The plug-in type.
+ * @param <R> The outcome type, e.g. the winner or the list of leaders.
+ */
+public final class SelfPlay<G extends GamePlugin<?>, R> {
+    private static final int MAX_GAMES_PER_TASK = 4096;
+
+    private final Supplier<? extends G> plugins;
+    private final Supplier<? extends MoveAgent> agents;
+    private final Function<? super G, ? extends R> outcome;
+    private final int maxMovesPerGame;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a driver.
+     *
+     * @param plugins         Creates a fresh plug-in instance.
+     * @param agents          Creates a fresh agent.
+     * @param outcome         Reads the outcome of a finished game from its plug-in.
+     * @param maxMovesPerGame Games still running after this many moves are abandoned.
+     * @param pool            The pool to run on.
+     * @throws IllegalArgumentException if maxMovesPerGame is not positive.
+     */
+    public SelfPlay(Supplier<? extends G> plugins, Supplier<? extends MoveAgent> agents,
+                    Function<? super G, ? extends R> outcome, int maxMovesPerGame, ForkJoinPool pool) {
+        if (maxMovesPerGame <= 0) {
+            throw new IllegalArgumentException(String.format("Move limit must be positive: %d", maxMovesPerGame));
+        }
+        this.plugins = plugins;
+        this.agents = agents;
+        this.outcome = outcome;
+        this.maxMovesPerGame = maxMovesPerGame;
+        this.pool = pool;
+    }
+
+    /**
+     * Creates a driver on the common pool that tallies the plug-in's game
+     * over messages.
+     */
+    public static <G extends GamePlugin<?>> SelfPlay<G, String> byGameOverMessage(
+            Supplier<? extends G> plugins, Supplier<? extends MoveAgent> agents, int maxMovesPerGame) {
+        return new SelfPlay<>(plugins, agents, GamePlugin::getGameOverMessage, maxMovesPerGame,
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Plays {@code games} games and returns their statistics.
+     *
+     * @throws IllegalArgumentException if games is negative.
+     */
+    public Report<R> run(long games, long seed) {
+        if (games < 0) {
+            throw new IllegalArgumentException(String.format("Number of games must not be negative: %d", games));
+        }
+        long grain = Math.max(1, Math.min(MAX_GAMES_PER_TASK, games / (8L * pool.getParallelism())));
+        long start = System.nanoTime();
+        Tally<R> tally = pool.invoke(new Games(0, games, grain, seed));
+        return new Report<>(games, tally.unfinished, tally.moves, System.nanoTime() - start, tally.outcomes);
+    }
+
+    /** Plays the games numbered [from, to), splitting the range while it is larger than the grain. */
+    private final class Games extends RecursiveTask<Tally<R>> {
+        private static final long serialVersionUID = 1L;
+        private final long from;
+        private final long to;
+        private final long grain;
+        private final long seed;
+
+        Games(long from, long to, long grain, long seed) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.seed = seed;
+        }
+
+        @Override
+        protected Tally<R> compute() {
+            if (to - from > grain) {
+                long mid = (from + to) >>> 1;
+                Games right = new Games(mid, to, grain, seed);
+                right.fork();
+                Tally<R> left = new Games(from, mid, grain, seed).compute();
+                return left.add(right.join());
+            }
+            return play();
+        }
+
+        private Tally<R> play() {
+            G plugin = plugins.get();
+            HeadlessFramework game = new HeadlessFramework(plugin);
+            MoveAgent agent = agents.get();
+            Tally<R> tally = new Tally<>();
+            for (long i = from; i < to; i++) {
+                SplittableRandom random = new SplittableRandom(seed ^ (i * 0x9E3779B97F4A7C15L));
+                game.startNewGame();
+                int moves = 0;
+                while (!plugin.isGameOver() && moves < maxMovesPerGame) {
+                    int move = agent.selectMove(game, random);
+                    if (move < 0 || !game.playMove(move % game.getWidth(), move / game.getWidth())) {
+                        break;
+                    }
+                    moves++;
+                }
+                tally.moves += moves;
+                if (plugin.isGameOver()) {
+                    tally.outcomes.computeIfAbsent(outcome.apply(plugin), k -> new long[1])[0]++;
+                } else {
+                    tally.unfinished++;
+                }
+            }
+            return tally;
+        }
+    }
+
+    private static final class Tally<R> {
+        final Map<R, long[]> outcomes = new HashMap<>();
+        long unfinished;
+        long moves;
+
+        Tally<R> add(Tally<R> other) {
+            other.outcomes.forEach((k, v) -> outcomes.computeIfAbsent(k, x -> new long[1])[0] += v[0]);
+            unfinished += other.unfinished;
+            moves += other.moves;
+            return this;
+        }
+    }
+
+    /** The statistics of a self-play run. */
+    public static final class Report<R> {
+        private final long games;
+        private final long unfinished;
+        private final long moves;
+        private final long elapsedNanos;
+        private final Map<R, Long> outcomes;
+
+        private Report(long games, long unfinished, long moves, long elapsedNanos, Map<R, long[]> counts) {
+            this.games = games;
+            this.unfinished = unfinished;
+            this.moves = moves;
+            this.elapsedNanos = elapsedNanos;
+            Map<R, Long> outcomes = new HashMap<>();
+            counts.forEach((k, v) -> outcomes.put(k, v[0]));
+            this.outcomes = Collections.unmodifiableMap(outcomes);
+        }
+
+        /** Returns the number of games played, finished or not. */
+        public long games() { return games; }
+
+        /** Returns the number of games abandoned by their agent or at the move limit. */
+        public long unfinished() { return unfinished; }
+
+        /** Returns the total number of moves played. */
+        public long moves() { return moves; }
+
+        /** Returns the wall-clock time of the run. */
+        public long elapsedNanos() { return elapsedNanos; }
+
+        /** Returns the number of games played per second. */
+        public double gamesPerSecond() {
+            return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+        }
+
+        /** Returns the number of finished games with each outcome. */
+        public Map<R, Long> outcomes() { return outcomes; }
+
+        /** Returns the fraction of all games that finished with the given outcome. */
+        public double rate(R outcome) {
+            return games == 0 ? 0 : outcomes.getOrDefault(outcome, 0L) / (double) games;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Report[games=%d, unfinished=%d, moves=%d, %.0f games/s, outcomes=%s]",
+                    games, unfinished, moves, gamesPerSecond(), outcomes);
+        }
+    }
+}
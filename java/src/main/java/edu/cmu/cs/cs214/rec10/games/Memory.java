@@ -1,6 +1,10 @@
 package edu.cmu.cs.cs214.rec10.games;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * An instance of this class represents a memory game, where multiple players attempt to match items
@@ -11,15 +15,19 @@ import java.util.*;
  * The implementation of this game allows the board items to be an arbitrary Java object, specified by
  * the type parameter {@code T}.
  *
+ * The board itself is kept by a {@link MemoryEngine} as primitive item ids, so the game stays compact and
+ * {@code isOver} and {@code hasItemAt} are constant-time even for very large boards.
+ *
  * This class is not thread-safe.
  *
  * @param <T> The type of object on the memory game board; this can be any Java object
  */
 public final class Memory<T> {
-    private final List<T> board;
-    private final int numberOfPlayers;
-    private final int[] scores;
-    private int currentPlayer;
+    private final MemoryEngine engine;
+    private final List<T> itemsById;
+    private final SplittableRandom random;
+    /** Seeds copies, so that copying never advances {@code random} and changes the next deal. */
+    private final SplittableRandom copies;
 
     /**
      * Constructs a new memory game with the given number of players and list of board items.  The game board
@@ -30,18 +38,104 @@ public final class Memory<T> {
      * @throws NullPointerException if the given list of board items is null.
      */
     public Memory(int numberOfPlayers, List<T> items) {
-        if (numberOfPlayers < 1) {
-            throw new IllegalArgumentException(String.format("Number of players must be positive: %d", numberOfPlayers));
-        }
+        this(numberOfPlayers, items, new SplittableRandom(), new SplittableRandom());
+    }
+
+    /**
+     * Constructs a new memory game as above, with the board shuffled reproducibly from the given seed.
+     *
+     * @throws IllegalArgumentException if numberOfPlayers < 1.
+     * @throws NullPointerException if the given list of board items is null.
+     */
+    public Memory(int numberOfPlayers, List<T> items, long seed) {
+        this(numberOfPlayers, items, new SplittableRandom(seed), new SplittableRandom(~seed));
+    }
+
+    private Memory(int numberOfPlayers, List<T> items, SplittableRandom random, SplittableRandom copies) {
         Objects.requireNonNull(items);
 
-        int size = items.size();
-        this.board = new ArrayList<>(items);
-        this.board.addAll(items);
-        Collections.shuffle(board);
-        this.numberOfPlayers = numberOfPlayers;
-        this.scores = new int[numberOfPlayers];
-        currentPlayer = 0;
+        // Equal items share an id, so the engine can match cards by comparing ints.
+        Map<T, Integer> ids = new HashMap<>();
+        this.itemsById = new ArrayList<>();
+        int[] pairIds = new int[items.size()];
+        int i = 0;
+        for (T item : items) {
+            if (item == null) {
+                pairIds[i++] = MemoryEngine.EMPTY;
+                continue;
+            }
+            Integer id = ids.get(item);
+            if (id == null) {
+                id = itemsById.size();
+                ids.put(item, id);
+                itemsById.add(item);
+            }
+            pairIds[i++] = id;
+        }
+        this.engine = new MemoryEngine(numberOfPlayers, pairIds, random);
+        this.random = random;
+        this.copies = copies;
+    }
+
+    private Memory(MemoryEngine engine, List<T> itemsById, SplittableRandom random, SplittableRandom copies) {
+        this.engine = engine;
+        this.itemsById = itemsById;
+        this.random = random;
+        this.copies = copies;
+    }
+
+    /**
+     * Starts a new game in place with the same players and items, reshuffled with this game's own random
+     * source (so a game constructed with a seed deals the same sequence of boards).  Does not allocate.
+     */
+    public void reset() {
+        engine.reset(random);
+    }
+
+    /**
+     * Returns an independent copy of this game, e.g. for a search to play moves on without disturbing the
+     * original.  The copy shares the (immutable) items but not the board.  Its random source is drawn from
+     * one kept for copies, so copying does not change the original's next deal.
+     */
+    public Memory<T> copy() {
+        SplittableRandom copyRandom = copies.split();
+        return new Memory<>(engine.copy(), itemsById, copyRandom, copyRandom.split());
+    }
+
+    /**
+     * Writes this game's state in a compact binary form, using {@code encoder} to turn each distinct item
+     * into a string.
+     */
+    public void writeTo(DataOutput out, Function<? super T, String> encoder) throws IOException {
+        out.writeInt(itemsById.size());
+        for (T item : itemsById) {
+            out.writeUTF(encoder.apply(item));
+        }
+        engine.writeTo(out);
+    }
+
+    /**
+     * Reads a game written by {@link #writeTo}, using {@code decoder} to turn strings back into items.
+     *
+     * @throws IOException if the input is truncated or corrupt.
+     */
+    public static <T> Memory<T> readFrom(DataInput in, Function<String, ? extends T> decoder) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Corrupt memory state: " + count + " items");
+        }
+        List<T> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(decoder.apply(in.readUTF()));
+        }
+        MemoryEngine engine = MemoryEngine.readFrom(in);
+        for (int i = 0; i < engine.size(); i++) {
+            int id = engine.dealtIdAt(i);
+            if (id != MemoryEngine.EMPTY && (id < 0 || id >= count)) {
+                throw new IOException("Corrupt memory state: item id " + id);
+            }
+        }
+        return new Memory<>(engine, items, new SplittableRandom(), new SplittableRandom());
     }
 
     /**
@@ -54,10 +148,10 @@ public final class Memory<T> {
     }
 
     /** Returns the number of players in the game. */
-    public int numberOfPlayers() { return numberOfPlayers; }
+    public int numberOfPlayers() { return engine.numberOfPlayers(); }
 
     /** Returns the 0-indexed number of the player whose turn it is to play. */
-    public int currentPlayer() { return currentPlayer; }
+    public int currentPlayer() { return engine.currentPlayer(); }
 
     /**
      * Returns the item at the given position, or null if the item at that position has already been matched.
@@ -65,14 +159,23 @@ public final class Memory<T> {
      * @throws IndexOutOfBoundsException if index < 0 or index >= the initial board size.
      */
 
-    public T itemAt(int index) { return board.get(index); }
+    public T itemAt(int index) {
+        int id = engine.idAt(index);
+        return id == MemoryEngine.EMPTY ? null : itemsById.get(id);
+    }
 
     /**
      * Returns true if the board has an item at the given position, and false otherwise.
      *
      * @throws IndexOutOfBoundsException if index < 0 or index >= the initial board size.
      */
-    public boolean hasItemAt(int index) { return itemAt(index) != null; }
+    public boolean hasItemAt(int index) { return engine.hasItemAt(index); }
+
+    /**
+     * Returns the positions that still hold an item, as a mask maintained incrementally as items are matched.
+     * Callers see later moves through it and must not modify it.
+     */
+    public BitSet itemPositions() { return engine.itemPositions(); }
 
     /**
      * Returns the current score for a given player number.
@@ -80,7 +183,7 @@ public final class Memory<T> {
      * @throws IndexOutOfBoundsException if playerNumber < 0 or >= numberOfPlayers()
      */
     public int scoreForPlayer(int playerNumber) {
-        return scores[playerNumber];
+        return engine.scoreForPlayer(playerNumber);
     }
 
     /**
@@ -88,7 +191,7 @@ public final class Memory<T> {
      * from the board.
      */
     public boolean isOver() {
-        return board.stream().allMatch(Objects::isNull);
+        return engine.isOver();
     }
 
     /**
@@ -96,10 +199,10 @@ public final class Memory<T> {
      * returned leaders are the game winners (possibly a tie).
      */
     public List<Integer> leaders() {
-        int maxScore = Arrays.stream(scores).max().getAsInt();
+        int maxScore = engine.maxScore();
         List<Integer> result = new ArrayList<>();
-        for (int i = 0; i < numberOfPlayers; i++) {
-            if (scores[i] == maxScore) {
+        for (int i = 0; i < engine.numberOfPlayers(); i++) {
+            if (engine.scoreForPlayer(i) == maxScore) {
                 result.add(i);
             }
         }
@@ -119,26 +222,6 @@ public final class Memory<T> {
      * @return true if the selected positions are a match, and false otherwise
      */
     public boolean selectMatch(int first, int second) {
-        T firstItem = validateItemAt(first);
-        T secondItem = validateItemAt(second);
-        if (!firstItem.equals(secondItem)) { // Player selected mis-matched items; advance to next player
-            currentPlayer = (currentPlayer + 1) % numberOfPlayers;
-            return false;
-        }
-
-        board.set(first, null);   // Player selected matched items; remove items from board,
-        board.set(second, null);  // increment score, and same player continues their turn
-        scores[currentPlayer]++;
-        return true;
+        return engine.selectMatch(first, second);
     }
-
-    private T validateItemAt(int index) {
-        T result = itemAt(index);
-        if (result == null) {
-            throw new IllegalArgumentException(String.format("Player selected empty position: %d", index));
-        }
-        return result;
-    }
-
-
 }
@@ -0,0 +1,289 @@
+package edu.cmu.cs.cs214.rec10.games;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+/**
+ * The primitive core of a memory game: the board is an {@code int[]} of item ids, so boards with millions
+ * of cards cost four bytes per card, and a count of the cards still on the board makes {@link #isOver} and
+ * {@link #hasItemAt} constant-time.  {@link Memory} wraps this class to play with arbitrary Java objects.
+ *
+ * Matched cards keep their ids on the board and are only marked as gone, so {@link #reset} can deal the
+ * same cards again in place without allocating.
+ *
+ * This class is not thread-safe.
+ */
+public final class MemoryEngine {
+    /** The id stored at positions whose item has already been matched. */
+    public static final int EMPTY = -1;
+    /** How many ints {@link #readFrom} allocates room for before any have been read. */
+    private static final int READ_CHUNK = 4096;
+
+    /** The id of every card dealt, including matched ones; positions dealt no card hold EMPTY. */
+    private final int[] board;
+    private final int numberOfPlayers;
+    private final int[] scores;
+    private int currentPlayer;
+    private int remainingCards;
+    /** The positions whose card has not been matched yet. */
+    private final BitSet occupied;
+
+    /**
+     * Constructs a new game with two cards for each entry of {@code pairIds}, shuffled in place with the given
+     * random source.  Entries equal to {@link #EMPTY} leave their two positions empty.
+     *
+     * @throws IllegalArgumentException if numberOfPlayers < 1 or the board would exceed the maximum array size.
+     * @throws NullPointerException if pairIds or random is null.
+     */
+    public MemoryEngine(int numberOfPlayers, int[] pairIds, SplittableRandom random) {
+        if (numberOfPlayers < 1) {
+            throw new IllegalArgumentException(String.format("Number of players must be positive: %d", numberOfPlayers));
+        }
+        if (pairIds.length > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException(String.format("Too many pairs: %d", pairIds.length));
+        }
+        this.board = new int[pairIds.length * 2];
+        for (int i = 0; i < pairIds.length; i++) {
+            board[2 * i] = pairIds[i];
+            board[2 * i + 1] = pairIds[i];
+            if (pairIds[i] != EMPTY) {
+                remainingCards += 2;
+            }
+        }
+        shuffle(board, random);
+        this.numberOfPlayers = numberOfPlayers;
+        this.scores = new int[numberOfPlayers];
+        currentPlayer = 0;
+        this.occupied = occupiedPositions(board);
+    }
+
+    /**
+     * Constructs a new game with {@code numberOfPairs} distinct items (ids 0 to numberOfPairs - 1), shuffled
+     * reproducibly from the given seed.
+     */
+    public MemoryEngine(int numberOfPlayers, int numberOfPairs, long seed) {
+        this(numberOfPlayers, identity(numberOfPairs), new SplittableRandom(seed));
+    }
+
+    /**
+     * Returns an independent copy of this game, e.g. for a search to play moves on without disturbing the
+     * original.  Costs one copy of the board.
+     */
+    public MemoryEngine copy() {
+        return new MemoryEngine(numberOfPlayers, currentPlayer, scores.clone(), board.clone(), remainingCards,
+                (BitSet) occupied.clone());
+    }
+
+    /** Returns the number of positions on the board. */
+    public int size() { return board.length; }
+
+    /** Returns the number of players in the game. */
+    public int numberOfPlayers() { return numberOfPlayers; }
+
+    /** Returns the 0-indexed number of the player whose turn it is to play. */
+    public int currentPlayer() { return currentPlayer; }
+
+    /** Returns the number of cards not yet matched. */
+    public int remainingCards() { return remainingCards; }
+
+    /**
+     * Returns the item id at the given position, or {@link #EMPTY} if it has already been matched.
+     *
+     * @throws IndexOutOfBoundsException if index < 0 or index >= size().
+     */
+    public int idAt(int index) {
+        int id = board[index];
+        return occupied.get(index) ? id : EMPTY;
+    }
+
+    /**
+     * Returns true if the board has an item at the given position, and false otherwise.
+     *
+     * @throws IndexOutOfBoundsException if index < 0 or index >= size().
+     */
+    public boolean hasItemAt(int index) {
+        Objects.checkIndex(index, board.length);
+        return occupied.get(index);
+    }
+
+    /** Returns the id of the card dealt at the given position, whether or not it has been matched. */
+    int dealtIdAt(int index) { return board[index]; }
+
+    /**
+     * Returns the positions that still hold an item, as a mask maintained incrementally as items are matched.
+     * Callers see later moves through it and must not modify it.
+     */
+    public BitSet itemPositions() { return occupied; }
+
+    /**
+     * Returns the current score for a given player number.
+     *
+     * @throws IndexOutOfBoundsException if playerNumber < 0 or >= numberOfPlayers()
+     */
+    public int scoreForPlayer(int playerNumber) { return scores[playerNumber]; }
+
+    /** Returns true if all items have been matched from the board. */
+    public boolean isOver() { return remainingCards == 0; }
+
+    /** Returns the highest score of any player. */
+    public int maxScore() {
+        int max = scores[0];
+        for (int score : scores) {
+            max = Math.max(max, score);
+        }
+        return max;
+    }
+
+    /**
+     * Implements a move, with the current player selecting two positions as a proposed match.  On a match the
+     * items are removed, the player scores and continues; otherwise play advances to the next player.
+     *
+     * @return true if the selected positions are a match, and false otherwise
+     * @throws IllegalArgumentException if either position is empty.
+     * @throws IndexOutOfBoundsException if either position is out of range.
+     */
+    public boolean selectMatch(int first, int second) {
+        int firstId = validateIdAt(first);
+        int secondId = validateIdAt(second);
+        if (firstId != secondId) { // Player selected mis-matched items; advance to next player
+            currentPlayer = (currentPlayer + 1) % numberOfPlayers;
+            return false;
+        }
+
+        occupied.clear(first);  // Player selected matched items; remove items from board,
+        remainingCards--;
+        if (second != first) {  // increment score, and same player continues their turn
+            occupied.clear(second);
+            remainingCards--;
+        }
+        scores[currentPlayer]++;
+        return true;
+    }
+
+    /**
+     * Starts a new game with the same cards, reshuffled in place with the given random source, all scores
+     * zero and the first player to move.  Does not allocate.
+     */
+    public void reset(SplittableRandom random) {
+        shuffle(board, random);
+        occupied.clear();
+        remainingCards = 0;
+        for (int i = 0; i < board.length; i++) {
+            if (board[i] != EMPTY) {
+                occupied.set(i);
+                remainingCards++;
+            }
+        }
+        Arrays.fill(scores, 0);
+        currentPlayer = 0;
+    }
+
+    /**
+     * Writes this game's state in a compact binary form: the players, current player, scores and board ids,
+     * with a matched card's id {@code id} written as {@code -2 - id}.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(numberOfPlayers);
+        out.writeInt(currentPlayer);
+        for (int score : scores) {
+            out.writeInt(score);
+        }
+        out.writeInt(board.length);
+        for (int i = 0; i < board.length; i++) {
+            int id = board[i];
+            out.writeInt(id == EMPTY || occupied.get(i) ? id : -2 - id);
+        }
+    }
+
+    /**
+     * Reads a game written by {@link #writeTo}.
+     *
+     * @throws IOException if the input is truncated or corrupt.
+     */
+    public static MemoryEngine readFrom(DataInput in) throws IOException {
+        int players = in.readInt();
+        int current = in.readInt();
+        if (players < 1 || current < 0 || current >= players) {
+            throw new IOException(String.format("Corrupt memory state: %d players, current %d", players, current));
+        }
+        int[] scores = readInts(in, players);
+        int size = in.readInt();
+        if (size < 0 || size % 2 != 0) {
+            throw new IOException("Corrupt memory state: board size " + size);
+        }
+        int[] board = readInts(in, size);
+        BitSet occupied = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            int id = board[i];
+            if (id >= 0) {
+                occupied.set(i);
+            }
+            board[i] = id >= EMPTY ? id : -2 - id;
+        }
+        return new MemoryEngine(players, current, scores, board, occupied.cardinality(), occupied);
+    }
+
+    /**
+     * Reads {@code count} ints, growing the array only as they arrive, so a corrupt count runs into the end of
+     * the input instead of allocating an array the input could never fill.
+     */
+    private static int[] readInts(DataInput in, int count) throws IOException {
+        int[] values = new int[Math.min(count, READ_CHUNK)];
+        for (int i = 0; i < count; i++) {
+            if (i == values.length) {
+                values = Arrays.copyOf(values, (int) Math.min(count, 2L * values.length));
+            }
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    private MemoryEngine(int numberOfPlayers, int currentPlayer, int[] scores, int[] board, int remainingCards,
+                         BitSet occupied) {
+        this.numberOfPlayers = numberOfPlayers;
+        this.currentPlayer = currentPlayer;
+        this.scores = scores;
+        this.board = board;
+        this.remainingCards = remainingCards;
+        this.occupied = occupied;
+    }
+
+    private int validateIdAt(int index) {
+        int id = idAt(index);
+        if (id == EMPTY) {
+            throw new IllegalArgumentException(String.format("Player selected empty position: %d", index));
+        }
+        return id;
+    }
+
+    private static BitSet occupiedPositions(int[] board) {
+        BitSet occupied = new BitSet(board.length);
+        for (int i = 0; i < board.length; i++) {
+            if (board[i] != EMPTY) {
+                occupied.set(i);
+            }
+        }
+        return occupied;
+    }
+
+    /** Fisher-Yates shuffle, in place. */
+    private static void shuffle(int[] a, SplittableRandom random) {
+        for (int i = a.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = a[i];
+            a[i] = a[j];
+            a[j] = tmp;
+        }
+    }
+
+    private static int[] identity(int n) {
+        int[] ids = new int[n];
+        Arrays.setAll(ids, i -> i);
+        return ids;
+    }
+}
@@ -1,5 +1,6 @@
 package edu.cmu.cs.cs214.rec10.games;
 
+import java.util.Objects;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -22,9 +23,17 @@ public enum RockPaperScissors {
      * @throws NullPointerException if {@code opponent} is null.
      */
     public Result vs(RockPaperScissors opponent) {
-        if (this == opponent) return Result.TIE;
-        if (((this.ordinal() + 1) % values.length) == opponent.ordinal()) return Result.LOSE;
-        return Result.WIN;
+        return RESULTS[ordinal() * 3 + opponent.ordinal()];
+    }
+
+    /**
+     * Returns the result of the move with ordinal {@code move} played against the move with ordinal
+     * {@code opponent}, for callers that keep moves as primitive ordinals.
+     *
+     * @throws IndexOutOfBoundsException if either ordinal is not 0, 1 or 2.
+     */
+    public static Result vs(int move, int opponent) {
+        return RESULTS[Objects.checkIndex(move, 3) * 3 + Objects.checkIndex(opponent, 3)];
     }
 
     /**
@@ -45,6 +54,13 @@ public enum RockPaperScissors {
 
     private final static RockPaperScissors[] values = values();
 
+    /** The result of every pair of moves, indexed by {@code move * 3 + opponent}. */
+    private final static Result[] RESULTS = {
+            Result.TIE, Result.LOSE, Result.WIN,    // ROCK vs ROCK, PAPER, SCISSORS
+            Result.WIN, Result.TIE, Result.LOSE,    // PAPER
+            Result.LOSE, Result.WIN, Result.TIE     // SCISSORS
+    };
+
     /**
      * Returns the RockPaperScissors instance corresponding to the given ordinal index.
      *
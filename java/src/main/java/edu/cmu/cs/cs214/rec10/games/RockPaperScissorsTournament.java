@@ -0,0 +1,215 @@
+package edu.cmu.cs.cs214.rec10.games;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A round-robin {@link RockPaperScissors} league: every pair of strategies plays a long match, and the
+ * matches run in parallel on a {@link ForkJoinPool}.
+ *
+ * Moves are kept as primitive ordinals and played in blocks: each strategy fills a {@code byte[]} with
+ * its next block of moves, and the block is resolved through a 3x3 result table.  Strategies that react
+ * to their opponent see its moves a block at a time.  Each match gets its own split of the league's
+ * {@link SplittableRandom}, so a league with the same seed plays the same rounds however its matches are
+ * scheduled.  Match results are handed to a callback as each match finishes, and memory does not grow with
+ * the number of rounds.
+ *
+ * This class is thread-safe if its strategy suppliers are.
+ */
+public final class RockPaperScissorsTournament {
+    /** A tournament strategy.  A fresh instance plays each match, from one thread at a time. */
+    public interface Strategy {
+        /**
+         * Writes the ordinals of the next {@code count} moves to {@code moves[0, count)}.
+         */
+        void nextMoves(byte[] moves, int count, SplittableRandom random);
+
+        /**
+         * Called after each block with the opponent's moves in that block, {@code opponentMoves[0, count)}.
+         */
+        default void observe(byte[] opponentMoves, int count) {
+        }
+
+        /** Returns a strategy that plays uniformly random moves. */
+        static Strategy uniform() {
+            return (moves, count, random) -> {
+                for (int i = 0; i < count; i++) {
+                    moves[i] = (byte) random.nextInt(3);
+                }
+            };
+        }
+
+        /** Returns a strategy that always plays the same move. */
+        static Strategy constant(RockPaperScissors move) {
+            byte ordinal = (byte) move.ordinal();
+            return (moves, count, random) -> Arrays.fill(moves, 0, count, ordinal);
+        }
+
+        /**
+         * Returns a strategy that plays whatever beats the opponent's most frequent move so far, and
+         * random moves until it has seen any.
+         */
+        static Strategy counterMostFrequent() {
+            return new Strategy() {
+                private final long[] seen = new long[3];
+
+                @Override
+                public void nextMoves(byte[] moves, int count, SplittableRandom random) {
+                    if (seen[0] + seen[1] + seen[2] == 0) {
+                        uniform().nextMoves(moves, count, random);
+                        return;
+                    }
+                    int favourite = seen[0] >= seen[1] ? (seen[0] >= seen[2] ? 0 : 2) : (seen[1] >= seen[2] ? 1 : 2);
+                    Arrays.fill(moves, 0, count, (byte) ((favourite + 1) % 3));
+                }
+
+                @Override
+                public void observe(byte[] opponentMoves, int count) {
+                    for (int i = 0; i < count; i++) {
+                        seen[opponentMoves[i]]++;
+                    }
+                }
+            };
+        }
+    }
+
+    /** The result of one match, from the point of view of the first strategy. */
+    public static final class MatchResult {
+        private final int first;
+        private final int second;
+        private final long wins;
+        private final long losses;
+        private final long ties;
+
+        private MatchResult(int first, int second, long wins, long losses, long ties) {
+            this.first = first;
+            this.second = second;
+            this.wins = wins;
+            this.losses = losses;
+            this.ties = ties;
+        }
+
+        /** Returns the index of the first strategy. */
+        public int first() { return first; }
+
+        /** Returns the index of the second strategy. */
+        public int second() { return second; }
+
+        /** Returns the number of rounds the first strategy won. */
+        public long wins() { return wins; }
+
+        /** Returns the number of rounds the first strategy lost. */
+        public long losses() { return losses; }
+
+        /** Returns the number of tied rounds. */
+        public long ties() { return ties; }
+
+        @Override
+        public String toString() {
+            return String.format("MatchResult[%d vs %d: %d-%d-%d]", first, second, wins, losses, ties);
+        }
+    }
+
+    /** The outcome of each round, indexed by {@code move * 3 + opponent}: a {@link RockPaperScissors.Result} ordinal. */
+    private static final byte[] OUTCOMES = new byte[9];
+
+    static {
+        for (int i = 0; i < 9; i++) {
+            OUTCOMES[i] = (byte) RockPaperScissors.vs(i / 3, i % 3).ordinal();
+        }
+    }
+
+    private final List<Supplier<? extends Strategy>> strategies;
+    private final long roundsPerMatch;
+    private final int blockSize;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a league.
+     *
+     * @param strategies     Creates each entrant's strategy; entrants are numbered by their index.
+     * @param roundsPerMatch The number of rounds in every match.
+     * @param blockSize      The number of rounds generated and resolved at once.
+     * @param pool           The pool to run the matches on.
+     * @throws IllegalArgumentException if there are fewer than two strategies, roundsPerMatch is negative or
+     *                                  blockSize is not positive.
+     */
+    public RockPaperScissorsTournament(List<? extends Supplier<? extends Strategy>> strategies, long roundsPerMatch,
+                                       int blockSize, ForkJoinPool pool) {
+        if (strategies.size() < 2 || roundsPerMatch < 0 || blockSize <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid league: %d strategies, %d rounds, blocks of %d",
+                    strategies.size(), roundsPerMatch, blockSize));
+        }
+        this.strategies = List.copyOf(strategies);
+        this.roundsPerMatch = roundsPerMatch;
+        this.blockSize = blockSize;
+        this.pool = pool;
+    }
+
+    /**
+     * Plays every pair of strategies once and passes each match result to {@code results} as soon as the
+     * match finishes.  Results arrive in completion order, possibly from several threads at once.
+     */
+    public void run(long seed, Consumer<? super MatchResult> results) {
+        SplittableRandom league = new SplittableRandom(seed);
+        List<Match> matches = new ArrayList<>();
+        for (int i = 0; i < strategies.size(); i++) {
+            for (int j = i + 1; j < strategies.size(); j++) {
+                matches.add(new Match(i, j, league.split(), league.split(), results));
+            }
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(matches);
+            }
+        });
+    }
+
+    private final class Match extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int first;
+        private final int second;
+        private final SplittableRandom firstRandom;
+        private final SplittableRandom secondRandom;
+        private final Consumer<? super MatchResult> results;
+
+        Match(int first, int second, SplittableRandom firstRandom, SplittableRandom secondRandom,
+              Consumer<? super MatchResult> results) {
+            this.first = first;
+            this.second = second;
+            this.firstRandom = firstRandom;
+            this.secondRandom = secondRandom;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            Strategy a = strategies.get(first).get();
+            Strategy b = strategies.get(second).get();
+            byte[] movesA = new byte[blockSize];
+            byte[] movesB = new byte[blockSize];
+            long[] counts = new long[3];
+            for (long played = 0; played < roundsPerMatch; ) {
+                int count = (int) Math.min(blockSize, roundsPerMatch - played);
+                a.nextMoves(movesA, count, firstRandom);
+                b.nextMoves(movesB, count, secondRandom);
+                for (int k = 0; k < count; k++) {
+                    counts[OUTCOMES[movesA[k] * 3 + movesB[k]]]++;
+                }
+                a.observe(movesB, count);
+                b.observe(movesA, count);
+                played += count;
+            }
+            results.accept(new MatchResult(first, second, counts[RockPaperScissors.Result.WIN.ordinal()],
+                    counts[RockPaperScissors.Result.LOSE.ordinal()], counts[RockPaperScissors.Result.TIE.ordinal()]));
+        }
+    }
+}
@@ -1,9 +1,19 @@
 package edu.cmu.cs.cs214.rec10.games;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+
 /**
  * Lets two humans play a single game of tic-tac-toe.  A typical client will construct a new TicTacToe game,
  * then call {@link #play} repeatedly (with players alternating) until the game is over.
  *
+ * Besides the standard 3x3 game, boards of any size with any win length up to the board size are supported.
+ * The winner is worked out incrementally as moves are played, so {@link #isOver} and {@link #winner} are
+ * constant-time.
+ *
  * This class is not thread-safe.
  */
 public final class TicTacToe {
@@ -20,22 +30,88 @@ public final class TicTacToe {
         }
     };
 
+    private final int size;
+    private final int winLength;
     private Player currentPlayer;
-    private Player[][] grid;
+    private final Player[][] grid;
+    private int moveCount;
+    private Player winner;
+    private final BitSet playable;
 
     /** Creates a new tic-tac-toe game with the board initially empty and player X starting the game. */
     public TicTacToe() {
-        grid = new Player[SIZE][SIZE];
+        this(SIZE, SIZE);
+    }
+
+    /**
+     * Creates a new game on a {@code size} by {@code size} board, won by the first player to get
+     * {@code winLength} marks in a row horizontally, vertically or diagonally (e.g. 15 and 5 for gomoku).
+     * The board is initially empty and player X starts the game.
+     *
+     * @throws IllegalArgumentException if {@code size < 1} or {@code winLength} is not between 1 and {@code size}.
+     */
+    public TicTacToe(int size, int winLength) {
+        if (size < 1 || winLength < 1 || winLength > size) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid board size and win length: %d, %d", size, winLength));
+        }
+        this.size = size;
+        this.winLength = winLength;
+        grid = new Player[size][size];
+        currentPlayer = Player.X;
+        playable = new BitSet(size * size);
+        playable.set(0, size * size);
+    }
+
+    /** Creates an independent copy of {@code other}, sharing no mutable state with it. */
+    private TicTacToe(TicTacToe other) {
+        this.size = other.size;
+        this.winLength = other.winLength;
+        this.currentPlayer = other.currentPlayer;
+        this.grid = new Player[size][];
+        for (int x = 0; x < size; x++) {
+            grid[x] = other.grid[x].clone();
+        }
+        this.moveCount = other.moveCount;
+        this.winner = other.winner;
+        this.playable = (BitSet) other.playable.clone();
+    }
+
+    /**
+     * Returns an independent copy of this game, e.g. for a search to play moves on without disturbing the
+     * original.  Costs one copy of the board.
+     */
+    public TicTacToe copy() {
+        return new TicTacToe(this);
+    }
+
+    /**
+     * Starts a new game in place on the same board, with the board empty and player X to move.  Does not
+     * allocate.
+     */
+    public void reset() {
+        for (Player[] column : grid) {
+            Arrays.fill(column, null);
+        }
         currentPlayer = Player.X;
+        moveCount = 0;
+        winner = null;
+        playable.set(0, size * size);
     }
 
+    /** Returns the width and height of the board. */
+    public int size() { return size; }
+
+    /** Returns the number of marks in a row needed to win. */
+    public int winLength() { return winLength; }
+
     /** Implements a move in a tic-tac-toe game, with the current player playing at the given {@code (x, y)}
      * position on the game board and advancing to the next player's turn.
      *
      * @param x The x-coordinate of the played position
      * @param y The y-coordinate of the played position
      *
-     * @throws NullPointerException if {@code x} or {@code y} is negative or >= {@code SIZE}.
+     * @throws ArrayIndexOutOfBoundsException if {@code x} or {@code y} is negative or >= {@code size()}.
      * @throws IllegalArgumentException if the given position has previously been played.
      * @throws IllegalStateException if the game is already over.
      */
@@ -49,6 +125,15 @@ public final class TicTacToe {
         }
 
         grid[x][y] = currentPlayer;
+        moveCount++;
+        playable.clear(y * size + x);
+        // Only lines through the new mark can have become winning, so checking them here keeps
+        // isOver() and winner() constant-time.
+        if (completesLine(x, y, 1, 0) || completesLine(x, y, 0, 1)
+                || completesLine(x, y, 1, 1) || completesLine(x, y, 1, -1)) {
+            winner = currentPlayer;
+            playable.clear();
+        }
         currentPlayer = currentPlayer.opponent();
     }
 
@@ -57,65 +142,100 @@ public final class TicTacToe {
         return grid[x][y] == null && !isOver();
     }
 
+    /**
+     * Returns the valid plays as a mask with bit {@code y * size() + x} set if {@code (x, y)} is a valid play.
+     * The mask is maintained incrementally as moves are played; callers see later moves through it and must
+     * not modify it.
+     */
+    public BitSet playableSquares() { return playable; }
+
     /** Returns the current player (next to play) in the game. */
     public Player currentPlayer() { return currentPlayer; }
 
     /** Returns the Player who previously played the given {@code (x, y)} position, or {@code null} if the position
      * has not been previously played.
      *
-     * @throws NullPointerException if {@code x} or {@code y} is negative or >= {@code SIZE}.
+     * @throws ArrayIndexOutOfBoundsException if {@code x} or {@code y} is negative or >= {@code size()}.
      */
     public Player getSquare(int x, int y) { return grid[x][y]; }
 
+    /** Returns the number of moves played so far. */
+    public int moveCount() { return moveCount; }
+
     /** Returns whether the game is over. */
     public boolean isOver() {
-        return winner() != null || allCellsAreFull();
+        return winner != null || moveCount == size * size;
     }
 
     /** Returns the winner of the game, or {@code null} if the game is tied or not over. */
     public Player winner() {
-        for (int i = 0; i < SIZE; i++) { // Checks for horizontal wins
-            Player possibleWinner = checkWin(0, i, 1, 0);
-            if (possibleWinner != null)
-                return possibleWinner;
-        }
-        for (int i = 0; i < SIZE; i++) { // Checks for vertical wins
-            Player possibleWinner = checkWin(i, 0, 0, 1);
-            if (possibleWinner != null)
-                return possibleWinner;
-        }
-        { // Checks for diagonal-downward wins
-            Player possibleWinner = checkWin(0, 0, 1, 1);
-            if (possibleWinner != null)
-                return possibleWinner;
-        }
-        { // Checks for diagonal-upward wins
-            Player possibleWinner = checkWin(0, SIZE-1, 1, -1);
-            if (possibleWinner != null)
-                return possibleWinner;
-        }
-        return null; // No winner was found
+        return winner;
     }
 
-    private Player checkWin(int x, int y, int dx, int dy) {
-        Player p = grid[x][y];
-        for (int i = 0; i < SIZE; i++) {
-            if (grid[x][y] != p) {
-                return null;
+    /**
+     * Writes this game's state in a compact binary form: the size, win length, current player, winner,
+     * move count and one byte per square.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        out.writeInt(winLength);
+        out.writeByte(currentPlayer.ordinal());
+        out.writeByte(winner == null ? -1 : winner.ordinal());
+        out.writeInt(moveCount);
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                out.writeByte(grid[x][y] == null ? -1 : grid[x][y].ordinal());
             }
-            x += dx;
-            y += dy;
         }
-        return p;
     }
 
-    private boolean allCellsAreFull() {
-        for (int i = 0; i < SIZE; i++) {
-            for (int j = 0; j < SIZE; j++) {
-                if (grid[i][j] == null)
-                    return false;
+    /**
+     * Reads a game written by {@link #writeTo}.
+     *
+     * @throws IOException if the input is truncated or corrupt.
+     */
+    public static TicTacToe readFrom(DataInput in) throws IOException {
+        TicTacToe game;
+        try {
+            game = new TicTacToe(in.readInt(), in.readInt());
+            game.currentPlayer = Player.values()[in.readByte()];
+            int winner = in.readByte();
+            game.winner = winner < 0 ? null : Player.values()[winner];
+            game.moveCount = in.readInt();
+            for (int x = 0; x < game.size; x++) {
+                for (int y = 0; y < game.size; y++) {
+                    int p = in.readByte();
+                    game.grid[x][y] = p < 0 ? null : Player.values()[p];
+                    if (p >= 0) {
+                        game.playable.clear(y * game.size + x);
+                    }
+                }
+            }
+            if (game.winner != null) {
+                game.playable.clear();
             }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Corrupt TicTacToe state", e);
+        }
+        return game;
+    }
+
+    /** Returns whether the mark at (x, y) is part of a run of at least winLength along direction (dx, dy). */
+    private boolean completesLine(int x, int y, int dx, int dy) {
+        Player p = grid[x][y];
+        int run = 1 + countFrom(x, y, dx, dy, p) + countFrom(x, y, -dx, -dy, p);
+        return run >= winLength;
+    }
+
+    private int countFrom(int x, int y, int dx, int dy, Player p) {
+        int count = 0;
+        x += dx;
+        y += dy;
+        while (count < winLength - 1 && x >= 0 && x < size && y >= 0 && y < size && grid[x][y] == p) {
+            count++;
+            x += dx;
+            y += dy;
         }
-        return true;
+        return count;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+package edu.cmu.cs.cs214.rec10.games;
+
+/**
+ * A computer opponent for single-player {@link TicTacToe}.  After each human move, a client calls
+ * {@link #respond} and the bot plays its reply, searching with a {@link TicTacToeSolver} for at most the
+ * configured latency budget.
+ *
+ * This class is not thread-safe.
+ */
+public final class TicTacToeBot {
+    private final TicTacToeSolver solver;
+    private final TicTacToe.Player side;
+    private final long budgetMillis;
+    private TicTacToeSolver.Result lastResult;
+
+    /**
+     * Creates a bot playing {@code side} with the given solver.
+     *
+     * @param budgetMillis The maximum time to spend choosing each move.
+     * @throws IllegalArgumentException if budgetMillis is negative.
+     */
+    public TicTacToeBot(TicTacToeSolver solver, TicTacToe.Player side, long budgetMillis) {
+        if (budgetMillis < 0) {
+            throw new IllegalArgumentException(String.format("Latency budget must not be negative: %d", budgetMillis));
+        }
+        this.solver = solver;
+        this.side = side;
+        this.budgetMillis = budgetMillis;
+    }
+
+    /** Returns the player this bot plays as. */
+    public TicTacToe.Player side() { return side; }
+
+    /**
+     * Plays the bot's move if the game is not over and it is the bot's turn.
+     *
+     * @return true if a move was played.
+     */
+    public boolean respond(TicTacToe game) {
+        if (game.isOver() || game.currentPlayer() != side) {
+            return false;
+        }
+        lastResult = solver.search(game, budgetMillis);
+        game.play(lastResult.x(), lastResult.y());
+        return true;
+    }
+
+    /**
+     * Returns the search behind the bot's last move (including its positions-per-second throughput), or
+     * {@code null} if it has not moved yet.
+     */
+    public TicTacToeSolver.Result lastResult() { return lastResult; }
+}
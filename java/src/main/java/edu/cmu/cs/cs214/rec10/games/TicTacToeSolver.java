@@ -0,0 +1,535 @@
+package edu.cmu.cs.cs214.rec10.games;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Searches {@link TicTacToe} positions for the best move with iterative-deepening alpha-beta over bitboards.
+ *
+ * Each player's marks are kept as a bitboard ({@code long[]}, one bit per square, so any board size works),
+ * winning lines are precomputed as masks, and positions are cached in a shared lock-free transposition table
+ * keyed by Zobrist hash.  On boards larger than 3x3 the moves at the root are searched in parallel on a
+ * {@link ForkJoinPool}.  Searches stop at a time budget and return the best move of the deepest completed
+ * iteration, together with the number of positions searched so throughput can be tuned.
+ *
+ * Instances can be shared between games of the same size and win length; searches are thread-safe.
+ */
+public final class TicTacToeSolver {
+    private static final int WIN = 1_000_000;
+    private static final int MATE_BOUND = WIN - 10_000;
+    private static final int FLAG_EXACT = 0;
+    private static final int FLAG_LOWER = 1;
+    private static final int FLAG_UPPER = 2;
+    private static final int DEADLINE_CHECK_MASK = 1023;
+    private static final int DEFAULT_TABLE_BITS = 20;
+
+    private final int size;
+    private final int winLength;
+    private final int cells;
+    private final int words;
+    private final long[][] lines;
+    private final int[][] linesThroughCell;
+    private final long[][] zobrist;
+    private final long[] tableKeys;
+    private final long[] tableData;
+    private final int tableMask;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a solver for boards of the given size and win length, with a transposition table of up to
+     * 2^20 entries: small boards get one just large enough for every position (3^cells), so a 3x3 solver
+     * holds 2^15 entries rather than 2^20.
+     */
+    public TicTacToeSolver(int size, int winLength) {
+        this(size, winLength, defaultTableBits(size), ForkJoinPool.commonPool());
+    }
+
+    /** Returns the table size, in bits, that holds every position of a board of the given size, up to 2^20. */
+    static int defaultTableBits(int size) {
+        double positionBits = (double) size * size * Math.log(3) / Math.log(2);
+        return (int) Math.max(1, Math.min(DEFAULT_TABLE_BITS, Math.ceil(positionBits)));
+    }
+
+    /**
+     * Creates a solver for boards of the given size and win length.
+     *
+     * @param tableBits The transposition table holds 2^tableBits entries.
+     * @param pool      The pool used to search root moves in parallel.
+     * @throws IllegalArgumentException if the size, win length or table size is invalid.
+     */
+    public TicTacToeSolver(int size, int winLength, int tableBits, ForkJoinPool pool) {
+        if (size < 1 || winLength < 1 || winLength > size || tableBits < 1 || tableBits > 28) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid solver parameters: size=%d, winLength=%d, tableBits=%d", size, winLength, tableBits));
+        }
+        this.size = size;
+        this.winLength = winLength;
+        this.cells = size * size;
+        this.words = (cells + 63) / 64;
+        this.pool = pool;
+
+        List<long[]> lineList = new ArrayList<>();
+        List<List<Integer>> through = new ArrayList<>();
+        for (int i = 0; i < cells; i++) {
+            through.add(new ArrayList<>());
+        }
+        int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                for (int[] d : directions) {
+                    int endX = x + d[0] * (winLength - 1);
+                    int endY = y + d[1] * (winLength - 1);
+                    if (endX < 0 || endX >= size || endY < 0 || endY >= size) {
+                        continue;
+                    }
+                    long[] mask = new long[words];
+                    for (int i = 0; i < winLength; i++) {
+                        int cell = cell(x + d[0] * i, y + d[1] * i);
+                        mask[cell >>> 6] |= 1L << cell;
+                        through.get(cell).add(lineList.size());
+                    }
+                    lineList.add(mask);
+                }
+            }
+        }
+        this.lines = lineList.toArray(new long[0][]);
+        this.linesThroughCell = new int[cells][];
+        for (int i = 0; i < cells; i++) {
+            linesThroughCell[i] = through.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        SplittableRandom random = new SplittableRandom(0x5eed);
+        this.zobrist = new long[2][cells];
+        for (int p = 0; p < 2; p++) {
+            for (int i = 0; i < cells; i++) {
+                zobrist[p][i] = random.nextLong();
+            }
+        }
+        this.tableKeys = new long[1 << tableBits];
+        this.tableData = new long[1 << tableBits];
+        this.tableMask = (1 << tableBits) - 1;
+    }
+
+    /** Returns the number of entries in the transposition table. */
+    int tableSize() {
+        return tableKeys.length;
+    }
+
+    /** The outcome of a search. */
+    public static final class Result {
+        private final int x;
+        private final int y;
+        private final int score;
+        private final int depth;
+        private final long nodes;
+        private final long elapsedNanos;
+
+        private Result(int x, int y, int score, int depth, long nodes, long elapsedNanos) {
+            this.x = x;
+            this.y = y;
+            this.score = score;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /** The x-coordinate of the best move found. */
+        public int x() { return x; }
+
+        /** The y-coordinate of the best move found. */
+        public int y() { return y; }
+
+        /** The score of the best move for the player to move; positive is better. */
+        public int score() { return score; }
+
+        /** The deepest search depth completed, in moves. */
+        public int depth() { return depth; }
+
+        /** The number of positions searched. */
+        public long nodes() { return nodes; }
+
+        /** The wall-clock time spent searching. */
+        public long elapsedNanos() { return elapsedNanos; }
+
+        /** The search throughput, in positions per second. */
+        public double nodesPerSecond() {
+            return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Result[move=(%d, %d), score=%d, depth=%d, nodes=%d, %.0f nodes/s]",
+                    x, y, score, depth, nodes, nodesPerSecond());
+        }
+    }
+
+    /**
+     * Returns the best move found for the current player of the given game within the time budget.
+     *
+     * @throws IllegalArgumentException if the game's board does not match this solver.
+     * @throws IllegalStateException if the game is already over.
+     */
+    public Result search(TicTacToe game, long budgetMillis) {
+        if (game.size() != size || game.winLength() != winLength) {
+            throw new IllegalArgumentException(String.format("Solver is for %dx%d, %d in a row", size, size, winLength));
+        }
+        if (game.isOver()) {
+            throw new IllegalStateException("Game is already over.");
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        int side = game.currentPlayer() == TicTacToe.Player.X ? 0 : 1;
+        long[][] boards = new long[2][words];
+        int empties = 0;
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                TicTacToe.Player p = game.getSquare(x, y);
+                int c = cell(x, y);
+                if (p == null) {
+                    empties++;
+                } else {
+                    boards[p == TicTacToe.Player.X ? 0 : 1][c >>> 6] |= 1L << c;
+                }
+            }
+        }
+
+        LongAdder nodes = new LongAdder();
+        Searcher rootSearcher = new Searcher(boards, side, deadline, nodes);
+        int[] rootMoves = rootSearcher.candidateMoves();
+        int bestMove = rootMoves[0];
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = 1; depth <= empties; depth++) {
+            int[] iteration = searchRoot(boards, side, rootMoves, bestMove, depth, deadline, nodes);
+            if (iteration == null) {
+                break; // Out of time; keep the previous iteration's answer
+            }
+            bestMove = iteration[0];
+            bestScore = iteration[1];
+            completedDepth = depth;
+            if (Math.abs(bestScore) >= MATE_BOUND) {
+                break; // Forced result found; deeper search cannot change it
+            }
+        }
+        rootSearcher.flush();
+        return new Result(bestMove % size, bestMove / size, bestScore, completedDepth,
+                nodes.sum(), System.nanoTime() - start);
+    }
+
+    /** Searches every root move to the given depth; returns {move, score}, or null if time ran out. */
+    private int[] searchRoot(long[][] boards, int side, int[] rootMoves, int firstMove, int depth,
+                             long deadline, LongAdder nodes) {
+        int[] ordered = orderFirst(rootMoves, firstMove);
+        AtomicInteger bestScore = new AtomicInteger(-WIN - 1);
+        int[] scores = new int[ordered.length];
+        RootTask[] tasks = new RootTask[ordered.length];
+        for (int i = 0; i < ordered.length; i++) {
+            tasks[i] = new RootTask(boards, side, ordered[i], depth, deadline, nodes, bestScore, scores, i);
+        }
+        try {
+            // The first (previously best) move is searched alone to establish a good bound for the rest.
+            tasks[0].invoke();
+            if (tasks.length > 1) {
+                RootTask[] rest = Arrays.copyOfRange(tasks, 1, tasks.length);
+                if (size > TicTacToe.SIZE) {
+                    pool.invoke(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            invokeAll(rest);
+                        }
+                    });
+                } else {
+                    for (RootTask task : rest) {
+                        task.invoke();
+                    }
+                }
+            }
+        } catch (SearchTimeout timeout) {
+            return null;
+        }
+        int best = 0;
+        for (int i = 1; i < ordered.length; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        return new int[]{ordered[best], scores[best]};
+    }
+
+    private final class RootTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final long[][] boards;
+        private final int side;
+        private final int move;
+        private final int depth;
+        private final long deadline;
+        private final LongAdder nodes;
+        private final AtomicInteger bestScore;
+        private final int[] scores;
+        private final int index;
+
+        RootTask(long[][] boards, int side, int move, int depth, long deadline, LongAdder nodes,
+                 AtomicInteger bestScore, int[] scores, int index) {
+            this.boards = boards;
+            this.side = side;
+            this.move = move;
+            this.depth = depth;
+            this.deadline = deadline;
+            this.nodes = nodes;
+            this.bestScore = bestScore;
+            this.scores = scores;
+            this.index = index;
+        }
+
+        @Override
+        protected void compute() {
+            Searcher searcher = new Searcher(boards, side, deadline, nodes);
+            try {
+                // Searching against one below the best score so far means a move that fails low can never
+                // tie with, and be mistaken for, the best move.
+                int score = searcher.searchMove(move, depth, Math.max(-WIN - 1, bestScore.get() - 1));
+                scores[index] = score;
+                bestScore.accumulateAndGet(score, Math::max);
+            } finally {
+                searcher.flush();
+            }
+        }
+    }
+
+    /** A single-threaded searcher owning its own copy of the position. */
+    private final class Searcher {
+        private final long[][] boards;
+        private final long deadline;
+        private final LongAdder sharedNodes;
+        private int side;
+        private long hash;
+        private long nodes;
+        private int stones;
+
+        Searcher(long[][] start, int side, long deadline, LongAdder sharedNodes) {
+            this.boards = new long[][]{start[0].clone(), start[1].clone()};
+            this.side = side;
+            this.deadline = deadline;
+            this.sharedNodes = sharedNodes;
+            for (int p = 0; p < 2; p++) {
+                for (int c = 0; c < cells; c++) {
+                    if (isSet(boards[p], c)) {
+                        hash ^= zobrist[p][c];
+                        stones++;
+                    }
+                }
+            }
+        }
+
+        void flush() {
+            sharedNodes.add(nodes);
+            nodes = 0;
+        }
+
+        /** Plays a root move and returns its score for the player making it. */
+        int searchMove(int move, int depth, int alpha) {
+            play(move);
+            try {
+                return -negamax(depth - 1, -WIN - 1, -alpha, 1, move);
+            } finally {
+                undo(move);
+            }
+        }
+
+        private int negamax(int depth, int alpha, int beta, int ply, int lastMove) {
+            if ((++nodes & DEADLINE_CHECK_MASK) == 0 && System.nanoTime() > deadline) {
+                throw SearchTimeout.INSTANCE;
+            }
+            if (completesLine(boards[1 - side], lastMove)) {
+                return -(WIN - ply); // The player who just moved has won
+            }
+            if (stones == cells) {
+                return 0;
+            }
+            if (depth <= 0) {
+                return evaluate();
+            }
+
+            int originalAlpha = alpha;
+            int slot = (int) hash & tableMask;
+            long data = tableData[slot];
+            int tableMove = -1;
+            if ((tableKeys[slot] ^ data) == hash && data != 0) {
+                tableMove = (int) (data >>> 42) - 1;
+                if ((int) ((data >>> 32) & 0xFF) >= depth) {
+                    int score = fromTable((int) data, ply);
+                    int flag = (int) ((data >>> 40) & 0x3);
+                    if (flag == FLAG_EXACT
+                            || (flag == FLAG_LOWER && score >= beta)
+                            || (flag == FLAG_UPPER && score <= alpha)) {
+                        return score;
+                    }
+                }
+            }
+
+            int[] moves = orderFirst(candidateMoves(), tableMove);
+            int best = -WIN - 1;
+            int bestMove = moves[0];
+            for (int move : moves) {
+                play(move);
+                int score;
+                try {
+                    score = -negamax(depth - 1, -beta, -alpha, ply + 1, move);
+                } finally {
+                    undo(move);
+                }
+                if (score > best) {
+                    best = score;
+                    bestMove = move;
+                }
+                alpha = Math.max(alpha, score);
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+
+            int flag = best <= originalAlpha ? FLAG_UPPER : best >= beta ? FLAG_LOWER : FLAG_EXACT;
+            long stored = (toTable(best, ply) & 0xFFFFFFFFL) | ((long) Math.min(depth, 0xFF) << 32)
+                    | ((long) flag << 40) | ((long) (bestMove + 1) << 42);
+            tableData[slot] = stored;
+            tableKeys[slot] = hash ^ stored;
+            return best;
+        }
+
+        /** Scores open lines for the player to move: lines only one player occupies count exponentially. */
+        private int evaluate() {
+            long[] mine = boards[side];
+            long[] theirs = boards[1 - side];
+            int score = 0;
+            for (long[] line : lines) {
+                int m = 0;
+                int t = 0;
+                for (int w = 0; w < words; w++) {
+                    m += Long.bitCount(line[w] & mine[w]);
+                    t += Long.bitCount(line[w] & theirs[w]);
+                }
+                if (t == 0 && m > 0) {
+                    score += 1 << (2 * Math.min(m, 6));
+                } else if (m == 0 && t > 0) {
+                    score -= 1 << (2 * Math.min(t, 6));
+                }
+            }
+            return Math.max(-MATE_BOUND + 1, Math.min(MATE_BOUND - 1, score));
+        }
+
+        /** Returns the empty squares worth considering: all of them on small boards, else those next to a mark. */
+        int[] candidateMoves() {
+            if (size > 4 && stones == 0) {
+                return new int[]{cell(size / 2, size / 2)};
+            }
+            int[] result = new int[cells - stones];
+            int count = 0;
+            boolean nearOnly = size > 4;
+            for (int c = 0; c < cells; c++) {
+                if (isSet(boards[0], c) || isSet(boards[1], c)) {
+                    continue;
+                }
+                if (!nearOnly || hasNeighbour(c)) {
+                    result[count++] = c;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        private boolean hasNeighbour(int c) {
+            int x = c % size;
+            int y = c / size;
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    int nx = x + dx;
+                    int ny = y + dy;
+                    if ((dx != 0 || dy != 0) && nx >= 0 && nx < size && ny >= 0 && ny < size) {
+                        int n = cell(nx, ny);
+                        if (isSet(boards[0], n) || isSet(boards[1], n)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        private boolean completesLine(long[] board, int move) {
+            for (int line : linesThroughCell[move]) {
+                long[] mask = lines[line];
+                boolean full = true;
+                for (int w = 0; w < words && full; w++) {
+                    full = (board[w] & mask[w]) == mask[w];
+                }
+                if (full) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void play(int move) {
+            boards[side][move >>> 6] |= 1L << move;
+            hash ^= zobrist[side][move];
+            stones++;
+            side = 1 - side;
+        }
+
+        private void undo(int move) {
+            side = 1 - side;
+            stones--;
+            hash ^= zobrist[side][move];
+            boards[side][move >>> 6] &= ~(1L << move);
+        }
+    }
+
+    /** Thrown (without a stack trace) to unwind a search that ran out of time. */
+    private static final class SearchTimeout extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        static final SearchTimeout INSTANCE = new SearchTimeout();
+
+        private SearchTimeout() {
+            super(null, null, false, false);
+        }
+    }
+
+    private int cell(int x, int y) {
+        return y * size + x;
+    }
+
+    private static boolean isSet(long[] board, int c) {
+        return (board[c >>> 6] & (1L << c)) != 0;
+    }
+
+    /** Mate scores are stored relative to the node so they stay valid wherever the position recurs. */
+    private static int toTable(int score, int ply) {
+        if (score >= MATE_BOUND) return score + ply;
+        if (score <= -MATE_BOUND) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE_BOUND) return score - ply;
+        if (score <= -MATE_BOUND) return score + ply;
+        return score;
+    }
+
+    private static int[] orderFirst(int[] moves, int first) {
+        for (int i = 0; i < moves.length; i++) {
+            if (moves[i] == first) {
+                int[] ordered = moves.clone();
+                ordered[i] = ordered[0];
+                ordered[0] = first;
+                return ordered;
+            }
+        }
+        return moves;
+    }
+}
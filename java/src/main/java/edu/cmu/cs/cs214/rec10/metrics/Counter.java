@@ -0,0 +1,29 @@
+package edu.cmu.cs.cs214.rec10.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count. Updates go to a striped
+ * {@link LongAdder}, so concurrent increments do not contend on one cache
+ * line.
+ *
+ * This class is thread-safe.
+ */
+public final class Counter {
+    private final LongAdder count = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long n) {
+        count.add(n);
+    }
+
+    public long get() {
+        return count.sum();
+    }
+}
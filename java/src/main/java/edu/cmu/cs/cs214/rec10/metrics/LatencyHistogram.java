@@ -0,0 +1,75 @@
+package edu.cmu.cs.cs214.rec10.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations. Bucket upper bounds are powers of two
+ * nanoseconds from about 1 microsecond to about 17 seconds, so recording a
+ * sample is a leading-zero count and two striped {@link LongAdder}
+ * increments, with no locks or allocation.
+ *
+ * This class is thread-safe.
+ */
+public final class LatencyHistogram {
+    /** The first bucket holds everything up to 2^MIN_SHIFT ns (1.024 us). */
+    private static final int MIN_SHIFT = 10;
+    /** The last finite bucket holds everything up to 2^MAX_SHIFT ns (17.2 s). */
+    private static final int MAX_SHIFT = 34;
+    static final int BUCKETS = MAX_SHIFT - MIN_SHIFT + 2; // one per bound, plus +Inf
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder sumNanos = new LongAdder();
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /** Records one sample of the given duration. */
+    public void record(long nanos) {
+        buckets[bucketOf(nanos)].increment();
+        sumNanos.add(nanos);
+    }
+
+    /** Records the time elapsed since {@code startNanos}, a {@link System#nanoTime()} reading. */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos <= 1L << MIN_SHIFT) {
+            return 0;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(nanos - 1); // smallest shift with nanos <= 2^shift
+        return Math.min(shift - MIN_SHIFT, BUCKETS - 1);
+    }
+
+    /** Returns the upper bound of the given finite bucket, in seconds. */
+    static double upperBoundSeconds(int bucket) {
+        return (1L << (bucket + MIN_SHIFT)) / 1e9;
+    }
+
+    /** Returns the number of samples in each bucket (not cumulative); the last is the +Inf bucket. */
+    long[] bucketCounts() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /** Returns the total of all recorded durations, in nanoseconds. */
+    public long sumNanos() {
+        return sumNanos.sum();
+    }
+
+    /** Returns the number of recorded samples. */
+    public long count() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,124 @@
+package edu.cmu.cs.cs214.rec10.metrics;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * The process-wide registry of counters and latency histograms, exported in
+ * the Prometheus text exposition format.
+ *
+ * Metrics are identified by a name and at most one label. Looking a metric
+ * up costs a map access, so hot paths should look theirs up once and keep
+ * the returned instance.
+ *
+ * This class is thread-safe.
+ */
+public final class Metrics {
+    /** The content type of {@link #writePrometheus} output. */
+    public static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final Map<String, Family<Counter>> counters = new ConcurrentSkipListMap<>();
+    private static final Map<String, Family<LatencyHistogram>> histograms = new ConcurrentSkipListMap<>();
+
+    private Metrics() {
+    }
+
+    /** Returns the unlabelled counter with the given name, creating it if needed. */
+    public static Counter counter(String name, String help) {
+        return counter(name, help, null, null);
+    }
+
+    /**
+     * Returns the counter with the given name and label, creating it if needed.
+     * Counter names should end in {@code _total}.
+     */
+    public static Counter counter(String name, String help, String label, String value) {
+        return counters.computeIfAbsent(name, n -> new Family<>(help, label)).get(value, Counter::new);
+    }
+
+    /** Returns the unlabelled histogram with the given name, creating it if needed. */
+    public static LatencyHistogram histogram(String name, String help) {
+        return histogram(name, help, null, null);
+    }
+
+    /**
+     * Returns the histogram with the given name and label, creating it if
+     * needed. Histogram names should end in {@code _seconds}.
+     */
+    public static LatencyHistogram histogram(String name, String help, String label, String value) {
+        return histograms.computeIfAbsent(name, n -> new Family<>(help, label)).get(value, LatencyHistogram::new);
+    }
+
+    /** Writes every registered metric in the Prometheus text exposition format. */
+    public static void writePrometheus(Appendable out) throws IOException {
+        for (Map.Entry<String, Family<Counter>> family : counters.entrySet()) {
+            String name = family.getKey();
+            family.getValue().writeHeader(out, name, "counter");
+            for (Map.Entry<String, Counter> c : family.getValue().metrics.entrySet()) {
+                out.append(name).append(family.getValue().labels(c.getKey(), null))
+                        .append(' ').append(Long.toString(c.getValue().get())).append('\n');
+            }
+        }
+        for (Map.Entry<String, Family<LatencyHistogram>> family : histograms.entrySet()) {
+            String name = family.getKey();
+            Family<LatencyHistogram> f = family.getValue();
+            f.writeHeader(out, name, "histogram");
+            for (Map.Entry<String, LatencyHistogram> h : f.metrics.entrySet()) {
+                long[] counts = h.getValue().bucketCounts();
+                long cumulative = 0;
+                for (int i = 0; i < counts.length; i++) {
+                    cumulative += counts[i];
+                    String le = i == counts.length - 1 ? "+Inf" : Double.toString(LatencyHistogram.upperBoundSeconds(i));
+                    out.append(name).append("_bucket").append(f.labels(h.getKey(), le))
+                            .append(' ').append(Long.toString(cumulative)).append('\n');
+                }
+                out.append(name).append("_sum").append(f.labels(h.getKey(), null))
+                        .append(' ').append(Double.toString(h.getValue().sumNanos() / 1e9)).append('\n');
+                out.append(name).append("_count").append(f.labels(h.getKey(), null))
+                        .append(' ').append(Long.toString(cumulative)).append('\n');
+            }
+        }
+    }
+
+    /** The metrics sharing one name, keyed by their label value ("" if unlabelled). */
+    private static final class Family<M> {
+        final String help;
+        final String label;
+        final Map<String, M> metrics = new ConcurrentSkipListMap<>();
+
+        Family(String help, String label) {
+            this.help = help;
+            this.label = label;
+        }
+
+        M get(String value, Supplier<M> factory) {
+            return metrics.computeIfAbsent(value == null ? "" : value, v -> factory.get());
+        }
+
+        void writeHeader(Appendable out, String name, String type) throws IOException {
+            out.append("# HELP ").append(name).append(' ').append(help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        }
+
+        /** Returns the label set for a sample, e.g. {@code {endpoint="/play",le="0.5"}}, or "" if there is none. */
+        String labels(String value, String le) {
+            StringBuilder sb = new StringBuilder();
+            if (label != null) {
+                sb.append(label).append("=\"").append(escape(value)).append('"');
+            }
+            if (le != null) {
+                if (sb.length() > 0) {
+                    sb.append(',');
+                }
+                sb.append("le=\"").append(le).append('"');
+            }
+            return sb.length() == 0 ? "" : "{" + sb + "}";
+        }
+
+        private static String escape(String value) {
+            return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import fi.iki.elonen.NanoHTTPD;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A NanoHTTPD {@link NanoHTTPD.AsyncRunner} that runs each connection on an
+ * executor, with separate bounds on open connections and on requests in flight.
+ *
+ * A connection is handed to the executor as soon as it is accepted, or closed
+ * at once if the connection limit is reached; the accept thread never waits.
+ * Keep-alive, WebSocket and event-stream connections spend most of their life
+ * idle or streaming, so they only count against the connection limit. Each
+ * request instead takes a request permit with {@link #beginRequest()} on its
+ * connection's thread, waiting up to the queue timeout for one to free up.
+ *
+ * Connections run on virtual threads when the JVM supports them (Java 21
+ * and later; looked up at run time, so the same build uses them there), or
+ * otherwise (or when asked to) on a fixed pool of platform threads. Accepted
+ * connections beyond the pool's size wait in its queue for a thread, which
+ * holds every connection the connection limit admits, so an admitted
+ * connection is never rejected by the pool. As a pooled thread stays with its
+ * connection until the connection closes, size the pool for the keep-alive,
+ * WebSocket and event-stream connections expected at once.
+ */
+public final class BoundedAsyncRunner implements NanoHTTPD.AsyncRunner {
+
+    /** The kind of threads connections are executed on. */
+    public enum Mode {VIRTUAL, PLATFORM}
+
+    private final ExecutorService executor;
+    private final Semaphore connections;
+    private final Semaphore permits;
+    private final long queueTimeoutMillis;
+    private final Mode mode;
+    private final Set<NanoHTTPD.ClientHandler> running = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a runner.
+     *
+     * @param mode               The preferred kind of threads; VIRTUAL falls back to PLATFORM before Java 21.
+     * @param maxConcurrent      The maximum number of requests served at once.
+     * @param maxConnections     The maximum number of open connections; more are closed when accepted.
+     * @param platformThreads    The size of the platform thread pool, if one is used.
+     * @param queueTimeoutMillis How long a request may wait for a free slot before it is turned away.
+     * @throws IllegalArgumentException if maxConcurrent, maxConnections or platformThreads is not positive or
+     *                                  queueTimeoutMillis is negative.
+     */
+    public BoundedAsyncRunner(Mode mode, int maxConcurrent, int maxConnections, int platformThreads,
+                              long queueTimeoutMillis) {
+        if (maxConcurrent < 1 || maxConnections < 1 || platformThreads < 1 || queueTimeoutMillis < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid runner limits: maxConcurrent=%d, maxConnections=%d, platformThreads=%d, "
+                            + "queueTimeoutMillis=%d", maxConcurrent, maxConnections, platformThreads,
+                    queueTimeoutMillis));
+        }
+        ExecutorService virtual = mode == Mode.VIRTUAL ? newVirtualThreadExecutor() : null;
+        if (virtual != null) {
+            this.executor = virtual;
+            this.mode = Mode.VIRTUAL;
+        } else {
+            // A connection releases its slot just before its thread goes back to the queue, so the queue
+            // must hold every admitted connection even while all threads are still busy.
+            int threads = Math.min(platformThreads, maxConnections);
+            AtomicInteger count = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(maxConnections), r -> {
+                        Thread t = new Thread(r, "NanoHttpd Request Processor (#" + count.incrementAndGet() + ")");
+                        t.setDaemon(true);
+                        return t;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+            this.mode = Mode.PLATFORM;
+        }
+        this.connections = new Semaphore(maxConnections);
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.queueTimeoutMillis = queueTimeoutMillis;
+    }
+
+    /**
+     * Creates a runner configured from the {@code rec10.runner} ("virtual" or
+     * "platform"), {@code rec10.runner.maxConcurrent},
+     * {@code rec10.runner.maxConnections}, {@code rec10.runner.platformThreads}
+     * and {@code rec10.runner.queueMillis} system properties.
+     */
+    public static BoundedAsyncRunner fromSystemProperties() {
+        String mode = System.getProperty("rec10.runner", "virtual");
+        return new BoundedAsyncRunner(
+                mode.equalsIgnoreCase("platform") ? Mode.PLATFORM : Mode.VIRTUAL,
+                Integer.getInteger("rec10.runner.maxConcurrent", 256),
+                Integer.getInteger("rec10.runner.maxConnections", 4096),
+                Integer.getInteger("rec10.runner.platformThreads", 256),
+                Long.getLong("rec10.runner.queueMillis", 1000L));
+    }
+
+    /** Returns the kind of threads actually in use. */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /** Returns the number of connections currently open. */
+    public int getRunningCount() {
+        return running.size();
+    }
+
+    /**
+     * Takes a request permit for the calling connection thread, waiting up to
+     * the queue timeout for one. Each successful call must be paired with
+     * {@link #endRequest()}.
+     *
+     * @return false if no permit freed up in time, and the request should be turned away.
+     */
+    public boolean beginRequest() {
+        try {
+            return permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /** Returns the permit taken by {@link #beginRequest()}. */
+    public void endRequest() {
+        permits.release();
+    }
+
+    @Override
+    public void exec(NanoHTTPD.ClientHandler handler) {
+        // Runs on the accept thread, so never wait here.
+        if (!connections.tryAcquire()) {
+            handler.close();
+            return;
+        }
+        running.add(handler);
+        try {
+            executor.execute(() -> {
+                try {
+                    handler.run();
+                } finally {
+                    connections.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            // Only once the runner has been shut down.
+            running.remove(handler);
+            connections.release();
+            handler.close();
+        }
+    }
+
+    @Override
+    public void closed(NanoHTTPD.ClientHandler handler) {
+        running.remove(handler);
+    }
+
+    @Override
+    public void closeAll() {
+        for (NanoHTTPD.ClientHandler handler : running) {
+            handler.close();
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Returns a virtual-thread-per-task executor, or null if this JVM has no
+     * virtual threads. Looked up reflectively so the code still builds for
+     * older language levels.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
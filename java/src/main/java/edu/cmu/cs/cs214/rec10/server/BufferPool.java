@@ -0,0 +1,57 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A shared pool of reusable byte arrays. Arrays are handed out with at least
+ * the initial size, and are taken back unless the pool is full or the array
+ * has grown beyond the retention limit.
+ *
+ * This class is thread-safe.
+ */
+public final class BufferPool {
+    private final ConcurrentLinkedQueue<byte[]> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger freeCount = new AtomicInteger();
+    private final int initialSize;
+    private final int maxRetainedSize;
+    private final int maxPooled;
+
+    /**
+     * @param initialSize     The size of newly allocated arrays.
+     * @param maxRetainedSize Arrays larger than this are dropped instead of pooled.
+     * @param maxPooled       The maximum number of idle arrays kept.
+     */
+    public BufferPool(int initialSize, int maxRetainedSize, int maxPooled) {
+        this.initialSize = initialSize;
+        this.maxRetainedSize = maxRetainedSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /** Returns a buffer of at least the initial size. */
+    public byte[] acquire() {
+        byte[] buffer = free.poll();
+        if (buffer == null) {
+            return new byte[initialSize];
+        }
+        freeCount.decrementAndGet();
+        return buffer;
+    }
+
+    /** Returns a buffer to the pool; the caller must not use it afterwards. */
+    public void release(byte[] buffer) {
+        if (buffer.length > maxRetainedSize) {
+            return;
+        }
+        if (freeCount.incrementAndGet() > maxPooled) {
+            freeCount.decrementAndGet();
+            return;
+        }
+        free.offer(buffer);
+    }
+
+    /** Returns an output stream that writes into pooled buffers. */
+    public PooledOutputStream newOutputStream() {
+        return new PooledOutputStream(this);
+    }
+}
@@ -0,0 +1,185 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import edu.cmu.cs.cs214.rec10.metrics.Counter;
+import edu.cmu.cs.cs214.rec10.metrics.Metrics;
+import fi.iki.elonen.NanoHTTPD;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses response bodies with gzip or deflate into pooled buffers.
+ * Bodies below a size threshold are sent as they are, since compressing them
+ * saves little and costs a round of CPU work.
+ *
+ * Deflaters hold native memory and are slow to create, so they are pooled
+ * with their checksums and output chunk rather than made per response. The
+ * pool is shared instead of thread-local because requests may run on
+ * short-lived virtual threads; it holds at most one idle deflater per
+ * concurrently compressing request, up to a limit.
+ *
+ * This class is thread-safe.
+ */
+public final class Compression {
+    private static final int CHUNK_BYTES = 8 * 1024;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final byte[] ZLIB_HEADER = {0x78, (byte) 0x9c};
+    private static final byte[] NONE = new byte[0];
+
+    private static final Counter BYTES_IN = Metrics.counter("rec10_compression_input_bytes_total",
+            "Bytes of response bodies before compression.");
+    private static final Counter BYTES_OUT = Metrics.counter("rec10_compression_output_bytes_total",
+            "Bytes of response bodies after compression.");
+
+    private final BufferPool buffers;
+    private final int level;
+    private final int minBytes;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<Codec> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger freeCount = new AtomicInteger();
+
+    /** A deflater with the per-response state that goes with it. */
+    private static final class Codec {
+        final Deflater deflater;
+        final CRC32 crc = new CRC32();
+        final Adler32 adler = new Adler32();
+        final byte[] chunk = new byte[CHUNK_BYTES];
+
+        Codec(int level) {
+            // Raw deflate, framed as gzip or zlib by hand so one pool serves both codings.
+            deflater = new Deflater(level, true);
+        }
+    }
+
+    /**
+     * @param buffers   The pool providing buffers for compressed bodies.
+     * @param level     The {@link Deflater} compression level.
+     * @param minBytes  Bodies smaller than this are not compressed.
+     * @param maxPooled The maximum number of idle deflaters kept.
+     * @throws IllegalArgumentException if the level is invalid.
+     */
+    public Compression(BufferPool buffers, int level, int minBytes, int maxPooled) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException(String.format("Invalid compression level: %d", level));
+        }
+        this.buffers = buffers;
+        this.level = level;
+        this.minBytes = minBytes;
+        this.maxPooled = maxPooled;
+    }
+
+    /** Returns the coding to actually use for a body of the given size, given the negotiated one. */
+    public ContentEncoding choose(ContentEncoding negotiated, long bodyBytes) {
+        return bodyBytes < minBytes ? ContentEncoding.IDENTITY : negotiated;
+    }
+
+    /**
+     * Compresses the concatenation of two byte ranges with the given coding,
+     * which must not be identity. The caller must either read the result
+     * through {@link PooledOutputStream#toInputStream()} or close it.
+     */
+    public PooledOutputStream encode(ContentEncoding encoding, byte[] first, int firstLength,
+                                     byte[] second, int secondLength) {
+        if (encoding == ContentEncoding.IDENTITY) {
+            throw new IllegalArgumentException("Nothing to encode for identity");
+        }
+        boolean gzip = encoding == ContentEncoding.GZIP;
+        PooledOutputStream out = buffers.newOutputStream();
+        Codec codec = acquire();
+        try {
+            byte[] header = gzip ? GZIP_HEADER : ZLIB_HEADER;
+            out.write(header, 0, header.length);
+            deflate(codec, gzip, first, firstLength, out);
+            deflate(codec, gzip, second, secondLength, out);
+            codec.deflater.finish();
+            while (!codec.deflater.finished()) {
+                out.write(codec.chunk, 0, codec.deflater.deflate(codec.chunk));
+            }
+            if (gzip) {
+                writeIntLE(out, (int) codec.crc.getValue());
+                writeIntLE(out, firstLength + secondLength);
+            } else {
+                writeIntBE(out, (int) codec.adler.getValue());
+            }
+        } catch (RuntimeException e) {
+            out.close();
+            throw e;
+        } finally {
+            release(codec);
+        }
+        BYTES_IN.add((long) firstLength + secondLength);
+        BYTES_OUT.add(out.size());
+        return out;
+    }
+
+    /** Returns a fixed-length response with the given body, compressed if worthwhile. */
+    public NanoHTTPD.Response respond(NanoHTTPD.Response.IStatus status, String mimeType, byte[] body,
+                                      ContentEncoding negotiated) {
+        ContentEncoding encoding = choose(negotiated, body.length);
+        if (encoding == ContentEncoding.IDENTITY) {
+            return NanoHTTPD.newFixedLengthResponse(status, mimeType, new ByteArrayInputStream(body), body.length);
+        }
+        PooledOutputStream encoded = encode(encoding, body, body.length, NONE, 0);
+        return withEncoding(NanoHTTPD.newFixedLengthResponse(status, mimeType, encoded.toInputStream(), encoded.size()),
+                encoding);
+    }
+
+    /** Marks a response as encoded with the given coding. */
+    static NanoHTTPD.Response withEncoding(NanoHTTPD.Response response, ContentEncoding encoding) {
+        if (encoding != ContentEncoding.IDENTITY) {
+            response.addHeader("Content-Encoding", encoding.token());
+        }
+        return response;
+    }
+
+    private static void deflate(Codec codec, boolean gzip, byte[] data, int length, PooledOutputStream out) {
+        if (gzip) {
+            codec.crc.update(data, 0, length);
+        } else {
+            codec.adler.update(data, 0, length);
+        }
+        codec.deflater.setInput(data, 0, length);
+        while (!codec.deflater.needsInput()) {
+            out.write(codec.chunk, 0, codec.deflater.deflate(codec.chunk));
+        }
+    }
+
+    private Codec acquire() {
+        Codec codec = free.poll();
+        if (codec == null) {
+            return new Codec(level);
+        }
+        freeCount.decrementAndGet();
+        return codec;
+    }
+
+    private void release(Codec codec) {
+        codec.deflater.reset();
+        codec.crc.reset();
+        codec.adler.reset();
+        if (freeCount.incrementAndGet() > maxPooled) {
+            freeCount.decrementAndGet();
+            codec.deflater.end();
+            return;
+        }
+        free.offer(codec);
+    }
+
+    private static void writeIntLE(PooledOutputStream out, int value) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    private static void writeIntBE(PooledOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+}
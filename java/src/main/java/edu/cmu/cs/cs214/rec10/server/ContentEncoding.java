@@ -0,0 +1,98 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import java.util.Locale;
+
+/**
+ * The content codings the server can send, chosen per request from the
+ * client's {@code Accept-Encoding} header.
+ */
+public enum ContentEncoding {
+    IDENTITY(null),
+    GZIP("gzip"),
+    DEFLATE("deflate");
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    /** Returns the value of the {@code Content-Encoding} header, or null for identity. */
+    public String token() {
+        return token;
+    }
+
+    /**
+     * Returns the given strong ETag marked with this coding, so each
+     * representation of a page has its own tag.
+     */
+    public String tag(String etag) {
+        if (token == null) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-" + token + "\"";
+    }
+
+    /**
+     * Returns the coding the client prefers among those supported, by
+     * quality value with gzip winning ties, or identity if it accepts
+     * neither (or sent no header).
+     */
+    public static ContentEncoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return IDENTITY;
+        }
+        double gzip = 0;
+        double deflate = 0;
+        double any = 0;
+        boolean gzipListed = false;
+        boolean deflateListed = false;
+        for (String coding : acceptEncoding.split(",")) {
+            int semicolon = coding.indexOf(';');
+            String name = (semicolon < 0 ? coding : coding.substring(0, semicolon)).trim().toLowerCase(Locale.ROOT);
+            double q = semicolon < 0 ? 1 : quality(coding.substring(semicolon + 1));
+            switch (name) {
+                case "gzip":
+                case "x-gzip":
+                    gzip = q;
+                    gzipListed = true;
+                    break;
+                case "deflate":
+                    deflate = q;
+                    deflateListed = true;
+                    break;
+                case "*":
+                    any = q;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (!gzipListed) {
+            gzip = any;
+        }
+        if (!deflateListed) {
+            deflate = any;
+        }
+        if (gzip > 0 && gzip >= deflate) {
+            return GZIP;
+        }
+        return deflate > 0 ? DEFLATE : IDENTITY;
+    }
+
+    /** Parses the parameters after a coding, returning its q value (1 if absent, 0 if malformed). */
+    private static double quality(String params) {
+        for (String param : params.split(";")) {
+            param = param.trim();
+            if (param.startsWith("q=") || param.startsWith("Q=")) {
+                try {
+                    double q = Double.parseDouble(param.substring(2));
+                    return q >= 0 && q <= 1 ? q : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,106 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * The single writer of one game. Every access to the game is submitted to
+ * the actor's mailbox and run by whichever thread of a shared scheduler is
+ * draining it, one action at a time, so the framework and its (not
+ * thread-safe) plug-ins never see concurrent calls, while actors of
+ * different games run in parallel across all cores.
+ *
+ * A drain runs at most {@code BATCH} actions before yielding the scheduler
+ * thread to other games.
+ *
+ * This class is thread-safe.
+ */
+public final class GameActor {
+    private static final int BATCH = 64;
+    private static final Executor SHARED_SCHEDULER = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+            ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+
+    private final GameFrameworkImpl game;
+    private final Executor scheduler;
+    private final ConcurrentLinkedQueue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile Thread runner;
+
+    /** Creates an actor for the given game on the process-wide scheduler. */
+    public GameActor(GameFrameworkImpl game) {
+        this(game, SHARED_SCHEDULER);
+    }
+
+    /** Creates an actor for the given game whose mailbox is drained on the given scheduler. */
+    public GameActor(GameFrameworkImpl game, Executor scheduler) {
+        this.game = game;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Queues an action on the game.
+     *
+     * @return A future completed with the action's result, or exceptionally with what it threw.
+     */
+    public <T> CompletableFuture<T> submit(Function<? super GameFrameworkImpl, ? extends T> action) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        mailbox.add(() -> {
+            try {
+                result.complete(action.apply(game));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        if (scheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::drain);
+        }
+        return result;
+    }
+
+    /**
+     * Runs an action on the game and waits for its result. Actions called
+     * from within this actor's own actions run immediately.
+     *
+     * @throws RuntimeException whatever unchecked exception the action threw.
+     */
+    public <T> T call(Function<? super GameFrameworkImpl, ? extends T> action) {
+        if (Thread.currentThread() == runner) {
+            return action.apply(game);
+        }
+        try {
+            return submit(action).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void drain() {
+        runner = Thread.currentThread();
+        try {
+            Runnable action;
+            for (int i = 0; i < BATCH && (action = mailbox.poll()) != null; i++) {
+                action.run();
+            }
+        } finally {
+            runner = null;
+            scheduled.set(false);
+        }
+        // Reschedule rather than loop, so busy games cannot starve others.
+        if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::drain);
+        }
+    }
+}
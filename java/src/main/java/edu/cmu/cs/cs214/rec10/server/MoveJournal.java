@@ -0,0 +1,406 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only journal of game starts and moves, keyed by a 16-byte session
+ * key (the session's journal id, never its token), so live games can be
+ * rebuilt after a restart.
+ *
+ * Records are fixed-size and checksummed, and are appended to a memory-mapped
+ * segment file. A background thread forces the segment to disk at a fixed
+ * interval, so one {@code force} commits every record appended since the
+ * last one (group commit); callers that need durability can wait for their
+ * record with {@link #awaitCommitted}. Full segments are closed and a new
+ * one started, and the background thread forces what remains of the full
+ * one, so appends never wait on the disk. Once enough closed segments pile
+ * up they are compacted down to the records since each live session's
+ * latest game start.
+ *
+ * Appends are thread-safe. {@link #replay} must be called before any appends.
+ */
+public final class MoveJournal implements Closeable {
+    /**
+     * Record type: a session started a game; {@code a} is the plugin index and
+     * {@code b} the length of the game's snapshot, which follows in
+     * {@link #SNAPSHOT} records, or 0 if there is none.
+     */
+    public static final byte NEW_GAME = 1;
+    /** Record type: a session played a valid move at ({@code a}, {@code b}). */
+    public static final byte MOVE = 2;
+    /** Record type: a session ended and need not be restored. */
+    public static final byte END_SESSION = 3;
+    /** Record type: the next 8 bytes of a game's snapshot, big-endian in {@code a} then {@code b}. */
+    public static final byte SNAPSHOT = 4;
+
+    private static final int KEY_BYTES = 16;
+    // type, key, a, b, crc
+    private static final int RECORD_BYTES = 1 + KEY_BYTES + 4 + 4 + 4;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String COMPACT_SUFFIX = ".compact";
+
+    /** Receives replayed records in the order they were appended. */
+    public interface Visitor {
+        void visit(byte type, String key, int a, int b);
+    }
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int compactAfterSegments;
+    private final Object lock = new Object();
+    private final TreeMap<Long, Path> closedSegments = new TreeMap<>();
+    /** Full segments not yet forced to disk, oldest first. */
+    private final List<MappedByteBuffer> unforced = new ArrayList<>();
+    private final ScheduledExecutorService flusher;
+
+    private long activeId;
+    private FileChannel activeChannel;
+    private MappedByteBuffer active;
+    private long appended;
+    private long committed;
+    private boolean closed;
+
+    private MoveJournal(Path dir, int segmentBytes, int compactAfterSegments) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes - segmentBytes % RECORD_BYTES;
+        this.compactAfterSegments = compactAfterSegments;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "journal-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Opens (creating if needed) the journal in the given directory and resumes
+     * appending to its newest segment.
+     *
+     * @param segmentBytes         The size of each segment file.
+     * @param commitIntervalMillis How often appended records are forced to disk.
+     * @param compactAfterSegments Closed segments are compacted once there are more than this many.
+     * @throws IllegalArgumentException if a size or interval is not positive.
+     * @throws IOException if the directory or segments cannot be opened.
+     */
+    public static MoveJournal open(Path dir, int segmentBytes, long commitIntervalMillis, int compactAfterSegments)
+            throws IOException {
+        if (segmentBytes < RECORD_BYTES || commitIntervalMillis <= 0 || compactAfterSegments <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid journal settings: %d, %d, %d",
+                    segmentBytes, commitIntervalMillis, compactAfterSegments));
+        }
+        Files.createDirectories(dir);
+        MoveJournal journal = new MoveJournal(dir, segmentBytes, compactAfterSegments);
+        journal.recoverCompaction();
+        journal.loadSegments();
+        journal.flusher.scheduleWithFixedDelay(journal::flushAndCompact,
+                commitIntervalMillis, commitIntervalMillis, TimeUnit.MILLISECONDS);
+        return journal;
+    }
+
+    /** Feeds every record in the journal, oldest first, to the visitor. */
+    public void replay(Visitor visitor) throws IOException {
+        List<Path> segments;
+        synchronized (lock) {
+            segments = new ArrayList<>(closedSegments.values());
+            segments.add(segmentPath(activeId));
+        }
+        for (Path segment : segments) {
+            readSegment(segment, visitor);
+        }
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param key The session's journal id: 16 bytes, URL-safe Base64 encoded.
+     * @return The record's sequence number, for {@link #awaitCommitted}.
+     * @throws IllegalArgumentException if the key is not 16 bytes of URL-safe Base64.
+     * @throws IllegalStateException if the journal is closed.
+     * @throws UncheckedIOException if a new segment cannot be created.
+     */
+    public long append(byte type, String key, int a, int b) {
+        byte[] record = encode(type, key, a, b);
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            if (active.remaining() < RECORD_BYTES) {
+                try {
+                    roll();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            active.put(record);
+            return ++appended;
+        }
+    }
+
+    /** Blocks until the record with the given sequence number has been forced to disk. */
+    public void awaitCommitted(long sequence) throws InterruptedException {
+        synchronized (lock) {
+            while (committed < sequence && !closed) {
+                lock.wait();
+            }
+        }
+    }
+
+    /** Forces outstanding records to disk and stops the background thread. */
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            unforced.forEach(MappedByteBuffer::force);
+            unforced.clear();
+            active.force();
+            activeChannel.close();
+            committed = appended;
+            closed = true;
+            lock.notifyAll();
+        }
+    }
+
+    private void flushAndCompact() {
+        try {
+            long target;
+            List<MappedByteBuffer> buffers;
+            synchronized (lock) {
+                if (closed || committed == appended) {
+                    buffers = List.of();
+                    target = committed;
+                } else {
+                    // Every record up to target is in a full segment not yet forced or in the active one.
+                    buffers = new ArrayList<>(unforced);
+                    buffers.add(active);
+                    unforced.clear();
+                    target = appended;
+                }
+            }
+            if (!buffers.isEmpty()) {
+                buffers.forEach(MappedByteBuffer::force);
+                synchronized (lock) {
+                    committed = Math.max(committed, target);
+                    lock.notifyAll();
+                }
+            }
+            compactIfNeeded();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Journal flush failed: " + e);
+        }
+    }
+
+    /**
+     * Closes the full active segment and starts a new one. Called with the
+     * lock held; the full segment's mapping stays valid after its channel is
+     * closed and is forced later by the background thread.
+     */
+    private void roll() throws IOException {
+        activeChannel.close();
+        unforced.add(active);
+        closedSegments.put(activeId, segmentPath(activeId));
+        openActive(activeId + 1, 0);
+    }
+
+    private void openActive(long id, int position) throws IOException {
+        activeId = id;
+        activeChannel = FileChannel.open(segmentPath(id),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        active = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        active.position(position);
+    }
+
+    private void loadSegments() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                closedSegments.put(segmentId(file), file);
+            }
+        }
+        if (closedSegments.isEmpty()) {
+            openActive(0, 0);
+            return;
+        }
+        // Resume the newest segment just after its last valid record.
+        Map.Entry<Long, Path> newest = closedSegments.pollLastEntry();
+        int[] validBytes = new int[1];
+        readSegment(newest.getValue(), (type, key, a, b) -> validBytes[0] += RECORD_BYTES);
+        if (validBytes[0] + RECORD_BYTES > segmentBytes) {
+            closedSegments.put(newest.getKey(), newest.getValue());
+            openActive(newest.getKey() + 1, 0);
+        } else {
+            openActive(newest.getKey(), validBytes[0]);
+            // Clear everything after the last valid record, such as a torn write and any
+            // records behind it, so they cannot reappear once new records are appended.
+            for (int i = validBytes[0]; i < segmentBytes; i++) {
+                active.put(i, (byte) 0);
+            }
+        }
+    }
+
+    private void compactIfNeeded() throws IOException {
+        List<Map.Entry<Long, Path>> segments;
+        synchronized (lock) {
+            if (closedSegments.size() <= compactAfterSegments) {
+                return;
+            }
+            segments = new ArrayList<>(closedSegments.entrySet());
+        }
+
+        // Keep, per session, only the records since its latest game start; drop ended sessions.
+        Map<String, List<int[]>> live = new LinkedHashMap<>();
+        for (Map.Entry<Long, Path> segment : segments) {
+            readSegment(segment.getValue(), (type, key, a, b) -> {
+                if (type == NEW_GAME) {
+                    List<int[]> records = new ArrayList<>();
+                    records.add(new int[]{type, a, b});
+                    live.remove(key);
+                    live.put(key, records);
+                } else if ((type == MOVE || type == SNAPSHOT) && live.containsKey(key)) {
+                    live.get(key).add(new int[]{type, a, b});
+                } else if (type == END_SESSION) {
+                    live.remove(key);
+                }
+            });
+        }
+
+        long lastId = segments.get(segments.size() - 1).getKey();
+        Path compacted = dir.resolve(String.format("%016d%s", lastId, COMPACT_SUFFIX));
+        Path temp = dir.resolve(compacted.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Map.Entry<String, List<int[]>> session : live.entrySet()) {
+                for (int[] r : session.getValue()) {
+                    ByteBuffer record = ByteBuffer.wrap(encode((byte) r[0], session.getKey(), r[1], r[2]));
+                    while (record.hasRemaining()) {
+                        out.write(record);
+                    }
+                }
+            }
+            out.force(true);
+        }
+        Files.move(temp, compacted, StandardCopyOption.ATOMIC_MOVE);
+        // From here on, recoverCompaction() can finish the job if we crash.
+        finishCompaction(compacted, lastId);
+        synchronized (lock) {
+            closedSegments.headMap(lastId, true).clear();
+            closedSegments.put(lastId, segmentPath(lastId));
+        }
+    }
+
+    /** Completes a compaction whose output was written but whose inputs may not all be deleted. */
+    private void recoverCompaction() throws IOException {
+        List<Path> pending = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + COMPACT_SUFFIX + "*")) {
+            files.forEach(pending::add);
+        }
+        for (Path file : pending) {
+            if (file.toString().endsWith(".tmp")) {
+                Files.delete(file); // Never finished writing; its inputs are intact.
+            } else {
+                finishCompaction(file, segmentId(file));
+            }
+        }
+    }
+
+    private void finishCompaction(Path compacted, long lastId) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                if (segmentId(file) <= lastId) {
+                    Files.delete(file);
+                }
+            }
+        }
+        Files.move(compacted, segmentPath(lastId), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void readSegment(Path segment, Visitor visitor) throws IOException {
+        if (!Files.exists(segment)) {
+            return;
+        }
+        try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 4096);
+            byte[] record = new byte[RECORD_BYTES];
+            while (in.read(buffer) > 0 || buffer.position() > 0) {
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_BYTES) {
+                    buffer.get(record);
+                    if (!isValid(record)) {
+                        return; // End of the written part (zero fill) or a torn record
+                    }
+                    ByteBuffer r = ByteBuffer.wrap(record);
+                    byte type = r.get();
+                    byte[] key = new byte[KEY_BYTES];
+                    r.get(key);
+                    visitor.visit(type, Base64.getUrlEncoder().withoutPadding().encodeToString(key),
+                            r.getInt(), r.getInt());
+                }
+                if (buffer.hasRemaining() && in.position() == in.size()) {
+                    return;
+                }
+                buffer.compact();
+            }
+        }
+    }
+
+    private static byte[] encode(byte type, String key, int a, int b) {
+        byte[] keyBytes;
+        try {
+            keyBytes = Base64.getUrlDecoder().decode(key);
+        } catch (IllegalArgumentException e) {
+            keyBytes = null;
+        }
+        if (keyBytes == null || keyBytes.length != KEY_BYTES) {
+            throw new IllegalArgumentException("Not a session journal id: " + key);
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        record.put(type).put(keyBytes).putInt(a).putInt(b);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, RECORD_BYTES - 4);
+        record.putInt((int) crc.getValue());
+        return record.array();
+    }
+
+    private static boolean isValid(byte[] record) {
+        if (record[0] < NEW_GAME || record[0] > SNAPSHOT) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, RECORD_BYTES - 4);
+        return ByteBuffer.wrap(record, RECORD_BYTES - 4, 4).getInt() == (int) crc.getValue();
+    }
+
+    private Path segmentPath(long id) {
+        return dir.resolve(String.format("%016d%s", id, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.indexOf('.')));
+    }
+}
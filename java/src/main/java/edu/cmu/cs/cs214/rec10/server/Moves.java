@@ -0,0 +1,36 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+/**
+ * The text format clients use to send moves: "x,y" for a single move, or
+ * "x,y;x,y;..." for several played in order.
+ */
+public final class Moves {
+    private Moves() {
+    }
+
+    /**
+     * Parses a move list into consecutive coordinate pairs.
+     *
+     * @return The coordinates {x0, y0, x1, y1, ...}, or null if the list is missing or malformed.
+     */
+    public static int[] parse(String moves) {
+        if (moves == null || moves.isEmpty()) {
+            return null;
+        }
+        String[] pairs = moves.split(";");
+        int[] result = new int[pairs.length * 2];
+        try {
+            for (int i = 0; i < pairs.length; i++) {
+                int comma = pairs[i].indexOf(',');
+                if (comma < 0) {
+                    return null;
+                }
+                result[2 * i] = Integer.parseInt(pairs[i].substring(0, comma).trim());
+                result[2 * i + 1] = Integer.parseInt(pairs[i].substring(comma + 1).trim());
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return result;
+    }
+}
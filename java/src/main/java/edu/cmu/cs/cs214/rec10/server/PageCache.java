@@ -0,0 +1,76 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A small least-recently-used cache of rendered page bodies, keyed by
+ * session and ETag (which encodes the game's state version). Only the
+ * latest page of each session is kept, and pages larger than a limit are
+ * not cached at all.
+ *
+ * This class is thread-safe.
+ */
+public final class PageCache {
+    private final Map<String, Entry> pages;
+    private final int maxPageBytes;
+
+    private static final class Entry {
+        final String etag;
+        final byte[] body;
+
+        Entry(String etag, byte[] body) {
+            this.etag = etag;
+            this.body = body;
+        }
+    }
+
+    /**
+     * @param maxEntries   The maximum number of cached pages.
+     * @param maxPageBytes Pages larger than this are not cached.
+     * @throws IllegalArgumentException if maxEntries is not positive.
+     */
+    public PageCache(int maxEntries, int maxPageBytes) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException(String.format("Cache size must be positive: %d", maxEntries));
+        }
+        this.maxPageBytes = maxPageBytes;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /** Returns true if a page body of the given size would be cached. */
+    public boolean accepts(int bodyBytes) {
+        return bodyBytes <= maxPageBytes;
+    }
+
+    /** Returns the cached body of the given session's page with the given ETag, or null if there is none. */
+    public byte[] get(String session, String etag) {
+        Entry entry;
+        synchronized (pages) {
+            entry = pages.get(session);
+        }
+        return entry != null && entry.etag.equals(etag) ? entry.body : null;
+    }
+
+    /** Caches a session's latest page body, replacing its previous one. The caller must not modify body afterwards. */
+    public void put(String session, String etag, byte[] body) {
+        if (!accepts(body.length)) {
+            return;
+        }
+        synchronized (pages) {
+            pages.put(session, new Entry(etag, body));
+        }
+    }
+
+    /** Drops the given session's page, e.g. when the session ends. */
+    public void remove(String session) {
+        synchronized (pages) {
+            pages.remove(session);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import com.github.jknack.handlebars.Template;
+import fi.iki.elonen.NanoHTTPD;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.SequenceInputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Renders pages as a static, pre-encoded head followed by a Handlebars body
+ * template. The body is written straight into a pooled buffer and the page
+ * is streamed out as a chunked response, so a request does not materialize
+ * the page as a String or copy it between intermediate byte arrays. Pages
+ * are compressed straight from those buffers when the client accepts it.
+ *
+ * This class is thread-safe.
+ */
+public final class PageRenderer {
+    private static final String MIME_HTML = "text/html; charset=utf-8";
+
+    private final byte[] head;
+    private final Template body;
+    private final BufferPool pool;
+    private final Compression compression;
+
+    /**
+     * @param headResource The classpath resource holding the static start of the page.
+     * @param body         The template rendering the rest of the page.
+     * @param pool         The pool providing render buffers.
+     * @param compression  Compresses pages for clients that accept it.
+     * @throws IOException if the head resource cannot be read.
+     */
+    public PageRenderer(String headResource, Template body, BufferPool pool, Compression compression) throws IOException {
+        try (InputStream in = Objects.requireNonNull(PageRenderer.class.getClassLoader().getResourceAsStream(headResource),
+                headResource)) {
+            this.head = in.readAllBytes();
+        }
+        this.body = body;
+        this.pool = pool;
+        this.compression = compression;
+    }
+
+    /**
+     * Renders the body for the given context into a pooled buffer. The caller
+     * must either pass the result to {@link #respond} or close it.
+     */
+    public PooledOutputStream renderBody(Object context) throws IOException {
+        PooledOutputStream out = pool.newOutputStream();
+        try {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            body.apply(context, writer);
+            writer.flush();
+            return out;
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a response with the head followed by an already rendered body,
+     * compressed with the negotiated coding if the page is large enough.
+     */
+    public NanoHTTPD.Response respond(byte[] renderedBody, ContentEncoding negotiated) {
+        ContentEncoding encoding = compression.choose(negotiated, head.length + renderedBody.length);
+        if (encoding != ContentEncoding.IDENTITY) {
+            return encoded(encoding, compression.encode(encoding, head, head.length, renderedBody, renderedBody.length));
+        }
+        InputStream page = new SequenceInputStream(new ByteArrayInputStream(head), new ByteArrayInputStream(renderedBody));
+        return NanoHTTPD.newFixedLengthResponse(NanoHTTPD.Response.Status.OK, MIME_HTML, page,
+                head.length + renderedBody.length);
+    }
+
+    /**
+     * Returns a response with the head followed by the rendered body: a
+     * chunked stream of both, or the page compressed with the negotiated
+     * coding if it is large enough. Either way the body's buffer goes back to
+     * the pool.
+     */
+    public NanoHTTPD.Response respond(PooledOutputStream renderedBody, ContentEncoding negotiated) {
+        ContentEncoding encoding = compression.choose(negotiated, head.length + renderedBody.size());
+        if (encoding != ContentEncoding.IDENTITY) {
+            try {
+                return encoded(encoding, compression.encode(encoding, head, head.length,
+                        renderedBody.buffer(), renderedBody.size()));
+            } finally {
+                renderedBody.close();
+            }
+        }
+        InputStream page = new SequenceInputStream(new ByteArrayInputStream(head), renderedBody.toInputStream());
+        return NanoHTTPD.newChunkedResponse(NanoHTTPD.Response.Status.OK, MIME_HTML, page);
+    }
+
+    private static NanoHTTPD.Response encoded(ContentEncoding encoding, PooledOutputStream page) {
+        return Compression.withEncoding(NanoHTTPD.newFixedLengthResponse(NanoHTTPD.Response.Status.OK, MIME_HTML,
+                page.toInputStream(), page.size()), encoding);
+    }
+}
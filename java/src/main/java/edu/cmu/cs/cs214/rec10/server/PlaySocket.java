@@ -0,0 +1,152 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+import edu.cmu.cs.cs214.rec10.framework.gui.GameStateDiff;
+import edu.cmu.cs.cs214.rec10.framework.gui.Viewport;
+import edu.cmu.cs.cs214.rec10.metrics.LatencyHistogram;
+import edu.cmu.cs.cs214.rec10.metrics.Metrics;
+import fi.iki.elonen.NanoHTTPD;
+import fi.iki.elonen.NanoWSD;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A WebSocket over which a page plays its session's game without reloading.
+ *
+ * The client sends moves as text frames in the {@link Moves} format ("x,y",
+ * or "x,y;x,y;..."). After each frame, and once when the socket opens, the
+ * server replies with a {@link GameStateDiff} JSON object holding only what
+ * changed since its previous reply: the changed squares, the footer if it
+ * changed, the current player and the game over message. Only squares in
+ * the session's viewport are sent, as that is all its page shows. Malformed frames,
+ * and frames whose moves the plug-in fails on, get {@code {"error":...}} instead.
+ *
+ * The server pings every open socket so that idle sockets are not closed by
+ * the connection's read timeout.
+ */
+public final class PlaySocket extends NanoWSD.WebSocket {
+    private static final LatencyHistogram MESSAGE_TIME = Metrics.histogram("rec10_ws_message_seconds",
+            "Time to apply a WebSocket move frame and send the reply.");
+    private static final ScheduledExecutorService PINGER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "websocket-ping");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final byte[] PING_PAYLOAD = new byte[0];
+
+    private final Session user;
+    private final SpectatorHub spectators;
+    private final long pingMillis;
+    private final Viewport defaultViewport;
+    private long sentVersion = -1;
+    private ScheduledFuture<?> pings;
+
+    /**
+     * @param handshake  The upgrade request.
+     * @param user       The session whose game this socket plays.
+     * @param spectators The hub to publish the game's changes to.
+     * @param pingMillis How often to ping the client; should be below the socket read timeout.
+     * @param defaultViewport The window to send while the session has not chosen one.
+     */
+    public PlaySocket(NanoHTTPD.IHTTPSession handshake, Session user, SpectatorHub spectators, long pingMillis,
+                      Viewport defaultViewport) {
+        super(handshake);
+        this.user = user;
+        this.spectators = spectators;
+        this.pingMillis = pingMillis;
+        this.defaultViewport = defaultViewport;
+    }
+
+    @Override
+    protected void onOpen() {
+        synchronized (this) {
+            pings = PINGER.scheduleAtFixedRate(this::ping, pingMillis, pingMillis, TimeUnit.MILLISECONDS);
+        }
+        try {
+            trySend(user.getActor().call(this::diff));
+        } catch (RuntimeException e) {
+            System.err.println("Play socket could not send the game state: " + e);
+            trySend("{\"error\":\"Could not load the game\"}");
+        }
+    }
+
+    @Override
+    protected void onMessage(NanoWSD.WebSocketFrame message) {
+        long start = System.nanoTime();
+        user.touch(start);
+        int[] moves = Moves.parse(message.getTextPayload());
+        if (moves == null) {
+            trySend("{\"error\":\"Expected x,y;x,y;...\"}");
+            return;
+        }
+        String reply;
+        try {
+            reply = user.getActor().call(game -> {
+                if (game.hasGame()) {
+                    game.playMoves(moves);
+                }
+                user.setGameInProgress(game.isGameInProgress());
+                spectators.publish(user);
+                return diff(game);
+            });
+        } catch (RuntimeException e) {
+            // A failing plug-in must not take the socket down; the next reply still covers every change.
+            System.err.println("Play socket move failed: " + e);
+            reply = "{\"error\":\"Move failed\"}";
+        }
+        trySend(reply);
+        MESSAGE_TIME.recordSince(start);
+    }
+
+    @Override
+    protected void onPong(NanoWSD.WebSocketFrame pong) {
+    }
+
+    @Override
+    protected void onClose(NanoWSD.WebSocketFrame.CloseCode code, String reason, boolean initiatedByRemote) {
+        stopPinging();
+    }
+
+    @Override
+    protected void onException(IOException exception) {
+        stopPinging();
+    }
+
+    /** Returns everything that changed since the last reply. Runs on the game's actor. */
+    private String diff(GameFrameworkImpl game) {
+        Viewport viewport = user.getViewport() != null ? user.getViewport() : defaultViewport;
+        String json = GameStateDiff.forGame(game, sentVersion, viewport).toJson();
+        sentVersion = game.getStateVersion();
+        return json;
+    }
+
+    private void trySend(String text) {
+        try {
+            send(text);
+        } catch (IOException e) {
+            stopPinging();
+        }
+    }
+
+    private void ping() {
+        try {
+            if (isOpen()) {
+                ping(PING_PAYLOAD);
+            } else {
+                stopPinging();
+            }
+        } catch (IOException e) {
+            stopPinging();
+        }
+    }
+
+    private synchronized void stopPinging() {
+        if (pings != null) {
+            pings.cancel(false);
+        }
+    }
+}
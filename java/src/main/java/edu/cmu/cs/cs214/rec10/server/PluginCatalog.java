@@ -0,0 +1,155 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+import edu.cmu.cs.cs214.rec10.framework.core.GamePlugin;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The plug-ins listed in META-INF/services, discovered through
+ * {@link ServiceLoader.Provider} metadata without instantiating them.
+ *
+ * Each session's framework gets lazy plug-in slots that instantiate their
+ * plug-in on first use. Until a plug-in has been instantiated once, it is
+ * listed under its class's simple name; {@link #warmUp} instantiates every
+ * plug-in in parallel in the background to learn the real names (and load
+ * the classes) ahead of the first request.
+ *
+ * A plug-in that fails to instantiate is reported once and marked
+ * unavailable: its slots stay (so plug-in indexes mean the same in every
+ * session and in the journal) but never yield a plug-in.
+ *
+ * This class is thread-safe.
+ */
+public final class PluginCatalog {
+    /** Providers of {@link GamePlugin}s; typed loosely, as the service class literal is a raw type. */
+    private final List<ServiceLoader.Provider<?>> providers;
+    private final AtomicReferenceArray<String> names;
+    private final long discoveryNanos;
+    private final AtomicInteger epoch = new AtomicInteger();
+    /** Why each unavailable plug-in failed to instantiate. */
+    private final Map<Integer, Throwable> failures = new ConcurrentHashMap<>();
+
+    PluginCatalog(List<ServiceLoader.Provider<?>> providers, long discoveryNanos) {
+        this.providers = providers;
+        this.discoveryNanos = discoveryNanos;
+        this.names = new AtomicReferenceArray<>(providers.size());
+        for (int i = 0; i < providers.size(); i++) {
+            names.set(i, providers.get(i).type().getSimpleName());
+        }
+    }
+
+    /**
+     * Finds the plug-ins listed in META-INF/services. Entries whose class
+     * cannot be loaded are reported and skipped.
+     */
+    public static PluginCatalog discover() {
+        long start = System.nanoTime();
+        List<ServiceLoader.Provider<?>> providers = new ArrayList<>();
+        Iterator<? extends ServiceLoader.Provider<?>> it = ServiceLoader.load(GamePlugin.class).stream().iterator();
+        while (true) {
+            try {
+                if (!it.hasNext()) {
+                    break;
+                }
+                providers.add(it.next());
+            } catch (ServiceConfigurationError e) {
+                System.err.println("Skipping plugin: " + e.getMessage());
+            }
+        }
+        return new PluginCatalog(List.copyOf(providers), System.nanoTime() - start);
+    }
+
+    /** Returns the number of plug-ins. */
+    public int size() {
+        return providers.size();
+    }
+
+    /** Returns the time it took to discover the plug-ins, in nanoseconds. */
+    public long getDiscoveryNanos() {
+        return discoveryNanos;
+    }
+
+    /** Returns the name of the given plug-in, or its class name if it has not been instantiated yet. */
+    public String name(int index) {
+        return names.get(index);
+    }
+
+    /** Returns a number that changes whenever a plug-in's listed name does. */
+    public int getEpoch() {
+        return epoch.get();
+    }
+
+    /**
+     * Returns a new instance of the given plug-in, or null if it is
+     * unavailable. The first failure to instantiate it is reported, and marks
+     * it unavailable from then on.
+     */
+    public GamePlugin<?> newInstance(int index) {
+        if (failures.containsKey(index)) {
+            return null;
+        }
+        GamePlugin<?> plugin;
+        String name;
+        try {
+            plugin = (GamePlugin<?>) providers.get(index).get();
+            name = plugin.getGameName();
+        } catch (ServiceConfigurationError | RuntimeException e) {
+            if (failures.putIfAbsent(index, e) == null) {
+                System.err.println("Skipping plugin " + names.get(index) + ": " + e);
+                names.set(index, names.get(index) + " (unavailable)");
+                epoch.incrementAndGet();
+            }
+            return null;
+        }
+        if (!name.equals(names.getAndSet(index, name))) {
+            epoch.incrementAndGet();
+        }
+        return plugin;
+    }
+
+    /** Returns why the given plug-in is unavailable, or null if it has not failed to instantiate. */
+    public Throwable failure(int index) {
+        return failures.get(index);
+    }
+
+    /** Registers a lazy slot for every plug-in with the given framework. */
+    public void registerWith(GameFrameworkImpl game) {
+        for (int i = 0; i < providers.size(); i++) {
+            int index = i;
+            game.registerPlugin(() -> name(index), () -> newInstance(index));
+        }
+    }
+
+    /**
+     * Instantiates every plug-in once, in parallel on the given executor,
+     * and reports how long each took.
+     *
+     * @return A future that completes when every plug-in has been tried.
+     */
+    public CompletableFuture<Void> warmUp(Executor executor) {
+        CompletableFuture<?>[] loads = new CompletableFuture<?>[providers.size()];
+        for (int i = 0; i < loads.length; i++) {
+            int index = i;
+            loads[i] = CompletableFuture.runAsync(() -> {
+                long start = System.nanoTime();
+                GamePlugin<?> plugin = newInstance(index);
+                if (plugin != null) {
+                    System.out.printf("Loaded plugin %s in %.1f ms%n", plugin.getGameName(),
+                            (System.nanoTime() - start) / 1e6);
+                }
+            }, executor);
+        }
+        return CompletableFuture.allOf(loads);
+    }
+}
@@ -0,0 +1,88 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * An in-memory output stream backed by a {@link BufferPool} buffer. The
+ * written bytes are read back through {@link #toInputStream()}, and the
+ * buffer goes back to the pool when that input stream is closed (NanoHTTPD
+ * closes a response's data once it has been sent).
+ *
+ * This class is not thread-safe.
+ */
+public final class PooledOutputStream extends OutputStream {
+    private final BufferPool pool;
+    private byte[] buffer;
+    private int count;
+
+    PooledOutputStream(BufferPool pool) {
+        this.pool = pool;
+        this.buffer = pool.acquire();
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(count + 1);
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    /** Returns the number of bytes written. */
+    public int size() {
+        return count;
+    }
+
+    /** Returns a copy of the bytes written. */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /** Returns the backing buffer; only the first {@link #size()} bytes are valid. */
+    byte[] buffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns a stream over the bytes written that releases the buffer to the
+     * pool when closed. This stream must not be written to afterwards.
+     */
+    public InputStream toInputStream() {
+        byte[] data = buffer;
+        buffer = null;
+        return new ByteArrayInputStream(data, 0, count) {
+            private boolean released;
+
+            @Override
+            public void close() {
+                if (!released) {
+                    released = true;
+                    pool.release(data);
+                }
+            }
+        };
+    }
+
+    /** Releases the buffer without reading it, e.g. when rendering failed. */
+    @Override
+    public void close() {
+        if (buffer != null) {
+            pool.release(buffer);
+            buffer = null;
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(needed, buffer.length * 2));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+import edu.cmu.cs.cs214.rec10.framework.gui.Viewport;
+
+/**
+ * A single browser session, owning its own {@link GameFrameworkImpl} so that
+ * games in different sessions never share state.
+ */
+public final class Session {
+    private final String id;
+    private final String journalId;
+    private final String spectatorId;
+    private final GameFrameworkImpl game;
+    private final GameActor actor;
+    private volatile long lastAccessNanos;
+    private volatile Viewport viewport;
+    private volatile boolean gameInProgress;
+
+    Session(String id, String journalId, String spectatorId, GameFrameworkImpl game, long now) {
+        this.id = id;
+        this.journalId = journalId;
+        this.spectatorId = spectatorId;
+        this.game = game;
+        this.actor = new GameActor(game);
+        this.lastAccessNanos = now;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the id the session's moves are journaled under: a hash of the
+     * session id, so the journal never holds the token that grants control.
+     */
+    public String getJournalId() {
+        return journalId;
+    }
+
+    /**
+     * Returns the public id under which others can watch this session's game.
+     * Unlike the session id, it grants no control over the game.
+     */
+    public String getSpectatorId() {
+        return spectatorId;
+    }
+
+    /**
+     * Returns the session's game. Once the server is serving requests, the
+     * game must only be accessed through {@link #getActor()}.
+     */
+    public GameFrameworkImpl getGame() {
+        return game;
+    }
+
+    /** Returns the actor through which all requests access the session's game. */
+    public GameActor getActor() {
+        return actor;
+    }
+
+    /** Returns the window of the board this session last asked to see, or null if it never asked. */
+    public Viewport getViewport() {
+        return viewport;
+    }
+
+    public void setViewport(Viewport viewport) {
+        this.viewport = viewport;
+    }
+
+    /**
+     * Returns true if the session's game has started and is not over, as last
+     * recorded with {@link #setGameInProgress}. Such sessions are not evicted
+     * to make room for new ones.
+     */
+    public boolean isGameInProgress() {
+        return gameInProgress;
+    }
+
+    /** Records whether the session's game is in progress; called from its actor after each change. */
+    public void setGameInProgress(boolean gameInProgress) {
+        this.gameInProgress = gameInProgress;
+    }
+
+    long getLastAccessNanos() {
+        return lastAccessNanos;
+    }
+
+    void touch(long now) {
+        lastAccessNanos = now;
+    }
+}
@@ -0,0 +1,162 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+import edu.cmu.cs.cs214.rec10.framework.core.GamePlugin;
+import edu.cmu.cs.cs214.rec10.framework.core.MoveListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Connects a {@link MoveJournal} to the sessions of a {@link SessionRegistry}:
+ * records each session's game starts, moves and end under its journal id, and
+ * rebuilds the live sessions from the journal on startup. Session tokens are
+ * never written, so the journal does not let its readers take over games.
+ *
+ * Each game start is journaled with a snapshot of the new game, when its
+ * plugin supports snapshots, and rebuilt by restoring that snapshot and
+ * replaying the moves since; so a game that was shuffled or otherwise set up
+ * at random comes back as it was. Games of plugins without snapshots are
+ * rebuilt from their moves alone, which only reproduces deterministic games.
+ */
+public final class SessionJournal {
+    /** Snapshot bytes carried by each {@link MoveJournal#SNAPSHOT} record. */
+    private static final int SNAPSHOT_CHUNK = 8;
+
+    private final MoveJournal journal;
+    private final PluginCatalog plugins;
+    private volatile boolean replaying;
+
+    /**
+     * @param plugins The plugins sessions are created with, used to report why a
+     *                journaled game's plugin is unavailable.
+     */
+    public SessionJournal(MoveJournal journal, PluginCatalog plugins) {
+        this.journal = journal;
+        this.plugins = plugins;
+    }
+
+    /** Returns a listener that records the moves of the session with the given journal id. */
+    public MoveListener listenerFor(String journalId) {
+        return new MoveListener() {
+            @Override
+            public void gameStarted(int pluginIndex, byte[] snapshot) {
+                if (replaying) {
+                    return;
+                }
+                journal.append(MoveJournal.NEW_GAME, journalId, pluginIndex, snapshot == null ? 0 : snapshot.length);
+                if (snapshot != null) {
+                    ByteBuffer chunks = ByteBuffer.allocate(
+                            (snapshot.length + SNAPSHOT_CHUNK - 1) / SNAPSHOT_CHUNK * SNAPSHOT_CHUNK).put(snapshot);
+                    chunks.flip().limit(chunks.capacity());
+                    while (chunks.hasRemaining()) {
+                        journal.append(MoveJournal.SNAPSHOT, journalId, chunks.getInt(), chunks.getInt());
+                    }
+                }
+            }
+
+            @Override
+            public void movePlayed(int x, int y) {
+                if (!replaying) {
+                    journal.append(MoveJournal.MOVE, journalId, x, y);
+                }
+            }
+        };
+    }
+
+    /** Records that a session was evicted, so it is not restored. */
+    public void sessionEnded(Session session) {
+        if (!replaying) {
+            journal.append(MoveJournal.END_SESSION, session.getJournalId(), 0, 0);
+        }
+    }
+
+    /**
+     * Replays the journal into the registry, restoring every session that had
+     * not ended; each waits there for its owner to come back.
+     *
+     * @return The number of sessions restored.
+     */
+    public int restore(SessionRegistry sessions) throws IOException {
+        // Snapshots still being read, by journal id.
+        Map<String, PendingSnapshot> snapshots = new HashMap<>();
+        replaying = true;
+        try {
+            journal.replay((type, journalId, a, b) -> {
+                if (type == MoveJournal.END_SESSION) {
+                    snapshots.remove(journalId);
+                    sessions.removeRestored(journalId);
+                    return;
+                }
+                Session session = sessions.restore(journalId);
+                if (session == null) {
+                    return; // more games in progress than the registry holds
+                }
+                GameFrameworkImpl game = session.getGame();
+                try {
+                    if (type == MoveJournal.NEW_GAME && a >= 0 && a < game.getRegisteredPluginName().size()) {
+                        GamePlugin<?> plugin = game.getRegisteredPlugin(a);
+                        if (plugin == null) {
+                            throw new IllegalStateException("Plugin " + a + " is unavailable", plugins.failure(a));
+                        }
+                        game.startNewGame(plugin);
+                        snapshots.remove(journalId);
+                        if (b > 0) {
+                            snapshots.put(journalId, new PendingSnapshot(b));
+                        }
+                    } else if (type == MoveJournal.SNAPSHOT && snapshots.containsKey(journalId)) {
+                        PendingSnapshot snapshot = snapshots.get(journalId);
+                        if (snapshot.add(a, b)) {
+                            snapshots.remove(journalId);
+                            game.restore(snapshot.toByteArray());
+                        }
+                    } else if (type == MoveJournal.MOVE && game.hasGame()) {
+                        // A snapshot cut short leaves the game as its plugin started it.
+                        snapshots.remove(journalId);
+                        game.playMove(a, b);
+                    }
+                    session.setGameInProgress(game.isGameInProgress());
+                } catch (IOException e) {
+                    drop(sessions, journalId, new UncheckedIOException(e));
+                } catch (RuntimeException e) {
+                    // A plugin that no longer accepts this history.
+                    drop(sessions, journalId, e);
+                }
+            });
+        } finally {
+            replaying = false;
+        }
+        return sessions.size();
+    }
+
+    /** A game snapshot being reassembled from its journal records. */
+    private static final class PendingSnapshot {
+        private final int length;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        PendingSnapshot(int length) {
+            this.length = length;
+        }
+
+        /** Adds the next chunk, returning true once the whole snapshot has been read. */
+        boolean add(int a, int b) {
+            bytes.writeBytes(ByteBuffer.allocate(SNAPSHOT_CHUNK).putInt(a).putInt(b).array());
+            return bytes.size() >= length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes.toByteArray(), length);
+        }
+    }
+
+    private static void drop(SessionRegistry sessions, String journalId, RuntimeException e) {
+        System.err.println("Dropping restored session " + journalId + ": " + e
+                + (e.getCause() == null ? "" : " (caused by " + e.getCause() + ")"));
+        sessions.removeRestored(journalId);
+    }
+}
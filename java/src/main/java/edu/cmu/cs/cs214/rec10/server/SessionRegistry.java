@@ -0,0 +1,293 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Maps session tokens to independent {@link GameFrameworkImpl} instances.
+ *
+ * Sessions that have not been used for longer than the idle timeout are
+ * evicted by a background sweeper, and the number of live sessions is capped.
+ * Creating a session while at the cap first makes room by evicting idle
+ * sessions and the least recently used sessions without a game in progress,
+ * in one pass at most every {@value #MAKE_ROOM_INTERVAL_MILLIS} ms; sessions
+ * with a game in progress are never evicted to admit a new one, so creation
+ * fails instead.
+ *
+ * After a restart, sessions are restored under their journal id (see
+ * {@link Session#getJournalId()}), as the tokens themselves are never stored.
+ * A restored session waits until a client presents the token that hashes to
+ * its journal id, and is then adopted under that token; restored sessions
+ * that nobody claims expire like idle ones.
+ *
+ * Requests that only read can use the shared {@link #getAnonymous()} session
+ * instead of creating one.
+ *
+ * This class is thread-safe.
+ */
+public final class SessionRegistry {
+    private static final int TOKEN_BYTES = 16;
+    private static final long MAKE_ROOM_INTERVAL_MILLIS = 1000;
+
+    private final ConcurrentHashMap<String, Session> sessions;
+    private final ConcurrentHashMap<String, Session> bySpectatorId;
+    /** Restored sessions not yet claimed by their owner, by journal id. */
+    private final ConcurrentHashMap<String, Session> restored = new ConcurrentHashMap<>();
+    private final Function<String, GameFrameworkImpl> gameFactory;
+    private final Consumer<Session> onEvict;
+    private final long idleTimeoutNanos;
+    private final int maxSessions;
+    /** Live sessions plus creations in progress; never above maxSessions. */
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final Object makeRoomLock = new Object();
+    private long lastMakeRoomNanos;
+    private final Session anonymous;
+    private final SecureRandom random = new SecureRandom();
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * Creates a registry that builds a fresh framework for every new session.
+     *
+     * @param gameFactory    Creates the framework (with its own plugin instances) for the session with the given
+     *                       journal id, or null for the anonymous session.
+     * @param onEvict        Called with each session that is evicted or removed.
+     * @param idleTimeoutMillis Idle time after which a session is evicted.
+     * @param maxSessions    The maximum number of live sessions.
+     * @throws IllegalArgumentException if idleTimeoutMillis or maxSessions is not positive.
+     */
+    public SessionRegistry(Function<String, GameFrameworkImpl> gameFactory, Consumer<Session> onEvict,
+                           long idleTimeoutMillis, int maxSessions) {
+        if (idleTimeoutMillis <= 0 || maxSessions <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Idle timeout and session cap must be positive: %d, %d", idleTimeoutMillis, maxSessions));
+        }
+        this.gameFactory = gameFactory;
+        this.onEvict = onEvict;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.maxSessions = maxSessions;
+        this.sessions = new ConcurrentHashMap<>(Math.min(maxSessions, 1 << 16), 0.75f,
+                Runtime.getRuntime().availableProcessors());
+        this.bySpectatorId = new ConcurrentHashMap<>(Math.min(maxSessions, 1 << 16), 0.75f,
+                Runtime.getRuntime().availableProcessors());
+        this.anonymous = new Session("", null, "", gameFactory.apply(null), System.nanoTime());
+        this.lastMakeRoomNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(MAKE_ROOM_INTERVAL_MILLIS);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1, idleTimeoutMillis / 4);
+        sweeper.scheduleAtFixedRate(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the live session for the given token, or null if the token is
+     * null, unknown or expired.
+     */
+    public Session get(String token) {
+        if (token == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        Session existing = sessions.get(token);
+        if (existing == null && !restored.isEmpty()) {
+            existing = adopt(token, now);
+        }
+        if (existing != null) {
+            existing.touch(now);
+        }
+        return existing;
+    }
+
+    /**
+     * Returns the live session for the given token, or creates a new session
+     * (with a new token) if the token is null, unknown or expired.
+     *
+     * @return The session, or null if the registry is full of games in progress.
+     */
+    public Session getOrCreate(String token) {
+        Session existing = get(token);
+        if (existing != null) {
+            return existing;
+        }
+        String newToken = newToken();
+        return create(newToken, journalId(newToken), System.nanoTime());
+    }
+
+    /**
+     * Returns the restored session with the given journal id, creating it if
+     * there is none. It becomes live once its owner presents their token.
+     *
+     * @return The session, or null if the registry is full.
+     */
+    public Session restore(String journalId) {
+        Session existing = restored.get(journalId);
+        if (existing != null || !reserve()) {
+            return existing;
+        }
+        Session created = new Session(journalId, journalId, "", gameFactory.apply(journalId), System.nanoTime());
+        restored.put(journalId, created);
+        return created;
+    }
+
+    /** Drops the restored session with the given journal id, if there is one. */
+    public void removeRestored(String journalId) {
+        if (restored.remove(journalId) != null) {
+            reserved.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the shared session for requests from clients without a session
+     * of their own. Its game never starts: it must only be read, never played on.
+     */
+    public Session getAnonymous() {
+        return anonymous;
+    }
+
+    /** Returns the live session with the given spectator id, or null if there is none. */
+    public Session getBySpectatorId(String spectatorId) {
+        return spectatorId == null ? null : bySpectatorId.get(spectatorId);
+    }
+
+    private Session create(String token, String journalId, long now) {
+        if (!reserve()) {
+            makeRoom(now);
+            if (!reserve()) {
+                return null;
+            }
+        }
+        Session created = new Session(token, journalId, newToken(), gameFactory.apply(journalId), now);
+        sessions.put(created.getId(), created);
+        bySpectatorId.put(created.getSpectatorId(), created);
+        return created;
+    }
+
+    /** Makes the restored session for a token live under it, if there is one. Its slot carries over. */
+    private Session adopt(String token, long now) {
+        Session adopted = sessions.computeIfAbsent(token, t -> {
+            Session pending = restored.remove(journalId(t));
+            if (pending == null) {
+                return null;
+            }
+            Session live = new Session(t, pending.getJournalId(), newToken(), pending.getGame(), now);
+            live.setGameInProgress(pending.isGameInProgress());
+            return live;
+        });
+        if (adopted != null) {
+            bySpectatorId.putIfAbsent(adopted.getSpectatorId(), adopted);
+        }
+        return adopted;
+    }
+
+    /** Takes a slot for a new session, unless the cap has been reached. */
+    private boolean reserve() {
+        for (int count = reserved.get(); count < maxSessions; count = reserved.get()) {
+            if (reserved.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Evicts the idle sessions and the least recently used sessions without a
+     * game in progress, up to a sixty-fourth of the cap. A full registry
+     * rescans at most once per interval, so a burst of new clients at the cap
+     * does not scan it once each.
+     */
+    private void makeRoom(long now) {
+        synchronized (makeRoomLock) {
+            if (now - lastMakeRoomNanos < TimeUnit.MILLISECONDS.toNanos(MAKE_ROOM_INTERVAL_MILLIS)) {
+                return;
+            }
+            lastMakeRoomNanos = now;
+            // Sort on idle times read once, as sessions keep being touched meanwhile.
+            List<Map.Entry<Long, Session>> candidates = new ArrayList<>();
+            for (Session s : sessions.values()) {
+                long idle = now - s.getLastAccessNanos();
+                if (idle > idleTimeoutNanos) {
+                    evict(s);
+                } else if (!s.isGameInProgress()) {
+                    candidates.add(new AbstractMap.SimpleImmutableEntry<>(idle, s));
+                }
+            }
+            int batch = Math.max(1, maxSessions / 64);
+            if (candidates.size() > batch) {
+                candidates.sort(Map.Entry.<Long, Session>comparingByKey().reversed());
+            }
+            for (int i = 0; i < Math.min(batch, candidates.size()); i++) {
+                evict(candidates.get(i).getValue());
+            }
+        }
+    }
+
+    /** Returns the number of live sessions, including restored ones not yet claimed. */
+    public int size() {
+        return sessions.size() + restored.size();
+    }
+
+    /** Stops the background eviction sweeper. */
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private void evictIdle() {
+        long cutoff = System.nanoTime() - idleTimeoutNanos;
+        for (Session s : sessions.values()) {
+            if (s.getLastAccessNanos() - cutoff < 0) {
+                evict(s);
+            }
+        }
+        for (Session s : restored.values()) {
+            if (s.getLastAccessNanos() - cutoff < 0 && restored.remove(s.getJournalId(), s)) {
+                evicted(s);
+            }
+        }
+    }
+
+    private void evict(Session session) {
+        if (sessions.remove(session.getId(), session)) {
+            evicted(session);
+        }
+    }
+
+    private void evicted(Session session) {
+        reserved.decrementAndGet();
+        bySpectatorId.remove(session.getSpectatorId(), session);
+        onEvict.accept(session);
+    }
+
+    /** Returns the journal id of a token: its SHA-256 hash, cut to the size of a token. */
+    static String journalId(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, TOKEN_BYTES));
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("Every JVM supports SHA-256", e);
+        }
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
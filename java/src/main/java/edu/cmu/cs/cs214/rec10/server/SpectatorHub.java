@@ -0,0 +1,295 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+import edu.cmu.cs.cs214.rec10.framework.gui.GameStateDiff;
+import edu.cmu.cs.cs214.rec10.framework.gui.Viewport;
+import edu.cmu.cs.cs214.rec10.metrics.Counter;
+import edu.cmu.cs.cs214.rec10.metrics.Metrics;
+import fi.iki.elonen.NanoHTTPD;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams games to spectators as Server-Sent Events.
+ *
+ * Each watched game has a channel, with a view for each window of the board
+ * that spectators watch (spectators only receive the squares in their
+ * window). After a change, {@link #publish} serializes one
+ * {@link GameStateDiff} per view against its previously published version,
+ * and the same event bytes are queued for every subscriber of the view. A
+ * subscriber's queue is bounded: when a slow consumer's queue is full it is
+ * cleared, and the subscriber next receives a full snapshot of the latest
+ * state instead of the backlog. Snapshots are also serialized at most once
+ * per view and version. Games without spectators cost nothing to publish.
+ *
+ * Streams stay open for as long as their spectators watch, so they have a
+ * limit of their own rather than holding one of the server's request slots;
+ * spectators beyond it are turned away with 503 Service Unavailable.
+ *
+ * This class is thread-safe.
+ */
+public final class SpectatorHub {
+    private static final String MIME_EVENT_STREAM = "text/event-stream";
+    private static final long KEEPALIVE_MILLIS = 15_000;
+    private static final byte[] KEEPALIVE = ": keepalive\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final Counter EVENTS = Metrics.counter("rec10_spectator_events_total",
+            "State updates serialized for spectators.");
+    private static final Counter RESYNCS = Metrics.counter("rec10_spectator_resyncs_total",
+            "Times a slow spectator's backlog was dropped for a snapshot.");
+    private static final Counter STREAMS_REJECTED = Metrics.counter("rec10_spectator_streams_rejected_total",
+            "Spectators turned away because the stream limit was reached.");
+
+    private final ConcurrentHashMap<Session, Channel> channels = new ConcurrentHashMap<>();
+    private final int queueCapacity;
+    private final Semaphore streams;
+
+    /**
+     * @param queueCapacity The number of events buffered for each subscriber.
+     * @param maxStreams    The maximum number of spectator streams open at once.
+     * @throws IllegalArgumentException if queueCapacity or maxStreams is not positive.
+     */
+    public SpectatorHub(int queueCapacity, int maxStreams) {
+        if (queueCapacity <= 0 || maxStreams <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid spectator limits: queueCapacity=%d, maxStreams=%d", queueCapacity, maxStreams));
+        }
+        this.queueCapacity = queueCapacity;
+        this.streams = new Semaphore(maxStreams);
+    }
+
+    /**
+     * Returns an event stream response that follows the squares of the given
+     * session's game within a window, starting with a full snapshot, or a
+     * 503 response if the stream limit has been reached.
+     */
+    public NanoHTTPD.Response subscribe(Session session, Viewport viewport) {
+        if (!streams.tryAcquire()) {
+            STREAMS_REJECTED.increment();
+            return NanoHTTPD.newFixedLengthResponse(NanoHTTPD.Response.Status.SERVICE_UNAVAILABLE,
+                    NanoHTTPD.MIME_PLAINTEXT, "Too many spectators");
+        }
+        // Subscribe inside compute, so that a channel losing its last subscriber cannot be dropped meanwhile.
+        Subscriber[] subscriber = new Subscriber[1];
+        channels.compute(session, (k, c) -> {
+            Channel channel = c != null ? c : new Channel(k);
+            View view = channel.views.computeIfAbsent(viewport, v -> new View(channel, v));
+            subscriber[0] = new Subscriber(view, queueCapacity);
+            return channel;
+        });
+        NanoHTTPD.Response response = NanoHTTPD.newChunkedResponse(NanoHTTPD.Response.Status.OK,
+                MIME_EVENT_STREAM, subscriber[0]);
+        response.addHeader("Cache-Control", "no-cache");
+        return response;
+    }
+
+    /**
+     * Sends the changes to a session's game since its last publication to all
+     * its spectators. Must be called from the game's actor.
+     */
+    public void publish(Session session) {
+        Channel channel = channels.get(session);
+        if (channel != null) {
+            channel.publish();
+        }
+    }
+
+    /** Ends the streams of a session that no longer exists. */
+    public void sessionEnded(Session session) {
+        Channel channel = channels.remove(session);
+        if (channel != null) {
+            channel.views.values().forEach(view -> view.subscribers.forEach(Subscriber::end));
+        }
+    }
+
+    private static byte[] event(long version, String json) {
+        return ("id: " + version + "\ndata: " + json + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** The spectators of one game, by the window they watch. */
+    private final class Channel {
+        final Session session;
+        final ConcurrentHashMap<Viewport, View> views = new ConcurrentHashMap<>();
+
+        Channel(Session session) {
+            this.session = session;
+        }
+
+        void publish() {
+            for (View view : views.values()) {
+                view.publish();
+            }
+        }
+
+        void remove(View view, Subscriber subscriber) {
+            view.subscribers.remove(subscriber);
+            channels.computeIfPresent(session, (k, c) -> {
+                if (view.subscribers.isEmpty()) {
+                    c.views.remove(view.viewport, view);
+                }
+                return c.views.isEmpty() ? null : c;
+            });
+        }
+    }
+
+    /** The spectators of one window of a game. Publication state is only accessed from the game's actor. */
+    private static final class View {
+        final Channel channel;
+        final Viewport viewport;
+        final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        long publishedVersion = -1;
+        long snapshotVersion = -1;
+        byte[] snapshot;
+
+        View(Channel channel, Viewport viewport) {
+            this.channel = channel;
+            this.viewport = viewport;
+        }
+
+        void publish() {
+            GameFrameworkImpl game = channel.session.getGame();
+            long version = game.getStateVersion();
+            if (subscribers.isEmpty() || version == publishedVersion) {
+                return;
+            }
+            // Before the first publication, the spectators have at most the latest snapshot to build on.
+            long since = publishedVersion >= 0 ? publishedVersion : snapshotVersion;
+            Event event = new Event(version, event(version, GameStateDiff.forGame(game, since, viewport).toJson()));
+            publishedVersion = version;
+            EVENTS.increment();
+            for (Subscriber s : subscribers) {
+                s.offer(event);
+            }
+        }
+
+        /** Returns the latest full state, serialized at most once per version. */
+        Event snapshot() {
+            return channel.session.getActor().call(game -> {
+                long version = game.getStateVersion();
+                if (snapshotVersion != version) {
+                    snapshot = event(version, GameStateDiff.forGame(game, -1, viewport).toJson());
+                    snapshotVersion = version;
+                }
+                return new Event(version, snapshot);
+            });
+        }
+    }
+
+    private static final class Event {
+        final long version;
+        final byte[] bytes;
+
+        Event(long version, byte[] bytes) {
+            this.version = version;
+            this.bytes = bytes;
+        }
+    }
+
+    /** Marks a cleared queue, so a waiting reader wakes up and sends a snapshot. */
+    private static final Event RESYNC = new Event(-1, new byte[0]);
+    private static final Event END = new Event(-1, new byte[0]);
+
+    /**
+     * One spectator's stream: a bounded queue of events, read by the
+     * connection's thread as the body of a chunked response.
+     */
+    private final class Subscriber extends InputStream {
+        private final View view;
+        private final BlockingQueue<Event> queue;
+        private final AtomicBoolean behind = new AtomicBoolean(true); // start with a snapshot
+        private long sentVersion = -1;
+        private byte[] current = new byte[0];
+        private int position;
+        private volatile boolean closed;
+
+        Subscriber(View view, int capacity) {
+            this.view = view;
+            this.queue = new ArrayBlockingQueue<>(capacity + 1); // room for RESYNC
+            view.subscribers.add(this);
+        }
+
+        void offer(Event event) {
+            if (!queue.offer(event)) {
+                queue.clear();
+                behind.set(true);
+                queue.offer(RESYNC);
+                RESYNCS.increment();
+            }
+        }
+
+        void end() {
+            queue.clear();
+            queue.offer(END);
+        }
+
+        @Override
+        public int read() {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            while (position == current.length) {
+                if (closed || !next()) {
+                    return -1;
+                }
+            }
+            int n = Math.min(len, current.length - position);
+            System.arraycopy(current, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        /** Moves on to the next event to send; returns false at the end of the stream. */
+        private boolean next() {
+            Event event;
+            if (behind.getAndSet(false)) {
+                event = view.snapshot();
+            } else {
+                try {
+                    event = queue.poll(KEEPALIVE_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                if (event == END) {
+                    return false;
+                }
+                if (event == null) {
+                    // Lets the server notice spectators that went away.
+                    current = KEEPALIVE;
+                    position = 0;
+                    return true;
+                }
+                if (event.version <= sentVersion) {
+                    return true; // RESYNC, or already covered by a snapshot
+                }
+            }
+            sentVersion = event.version;
+            current = event.bytes;
+            position = 0;
+            return true;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                view.channel.remove(view, this);
+                streams.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package edu.cmu.cs.cs214.rec10;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AppTest {
+    private static final String ETAG = "\"b-1-0-7-0.0.3.3\"";
+
+    @Test
+    public void ifNoneMatchMatchesTheCurrentETag() {
+        assertTrue(App.matches(ETAG, ETAG));
+        assertTrue(App.matches("\"old\", " + ETAG, ETAG));
+        assertTrue(App.matches("W/" + ETAG, ETAG));
+        assertTrue(App.matches("*", ETAG));
+    }
+
+    @Test
+    public void ifNoneMatchDoesNotMatchOtherETags() {
+        assertFalse(App.matches(null, ETAG));
+        assertFalse(App.matches("", ETAG));
+        assertFalse(App.matches("\"b-1-0-6-0.0.3.3\"", ETAG));
+        assertFalse(App.matches("b-1-0-7-0.0.3.3", ETAG));
+    }
+}
@@ -0,0 +1,280 @@
+package edu.cmu.cs.cs214.rec10.framework.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BoardStoreTest {
+    private static final int SIDE = BoardStore.CHUNK_SIDE;
+
+    @Test
+    public void squaresStartOutNull() {
+        BoardStore board = new BoardStore(3 * SIDE, 2 * SIDE);
+        assertNull(board.get(0, 0));
+        assertNull(board.get(3 * SIDE - 1, 2 * SIDE - 1));
+    }
+
+    @Test
+    public void storesSquaresAcrossChunkBoundaries() {
+        BoardStore board = new BoardStore(2 * SIDE + 1, 2 * SIDE + 1);
+        board.set(SIDE - 1, SIDE - 1, "a");
+        board.set(SIDE, SIDE - 1, "b");
+        board.set(SIDE - 1, SIDE, "c");
+        board.set(2 * SIDE, 2 * SIDE, "a");
+
+        assertEquals("a", board.get(SIDE - 1, SIDE - 1));
+        assertEquals("b", board.get(SIDE, SIDE - 1));
+        assertEquals("c", board.get(SIDE - 1, SIDE));
+        assertEquals("a", board.get(2 * SIDE, 2 * SIDE));
+        assertNull(board.get(SIDE, SIDE));
+    }
+
+    @Test
+    public void sizesChunksToSmallBoards() {
+        BoardStore board = new BoardStore(3, 3);
+        board.set(0, 0, "X");
+        board.set(2, 2, "O");
+        assertEquals(9, board.allocatedCells());
+
+        // Chunks of a long, thin board are only as tall as the board.
+        board.resize(2 * SIDE, 3);
+        board.set(SIDE - 1, 2, "X");
+        board.set(SIDE, 0, "O");
+        assertEquals(2 * SIDE * 3, board.allocatedCells());
+        assertEquals("X", board.get(SIDE - 1, 2));
+        assertEquals("O", board.get(SIDE, 0));
+        assertNull(board.get(SIDE, 2));
+    }
+
+    @Test
+    public void keepsSquaresApartAfterResizingBetweenChunkSizes() {
+        BoardStore board = new BoardStore(2 * SIDE, 2 * SIDE);
+        board.set(SIDE + 1, SIDE + 1, "big");
+        board.resize(5, 4);
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 5; x++) {
+                board.set(x, y, x + "," + y);
+            }
+        }
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 5; x++) {
+                assertEquals(x + "," + y, board.get(x, y));
+            }
+        }
+        board.resize(2 * SIDE, 2 * SIDE);
+        assertNull(board.get(SIDE + 1, SIDE + 1));
+        board.set(SIDE + 1, SIDE + 1, "again");
+        assertEquals("again", board.get(SIDE + 1, SIDE + 1));
+        assertEquals(SIDE * SIDE, board.allocatedCells());
+    }
+
+    @Test
+    public void boardsShareOneBoundedPoolOfChunks() {
+        BoardStore first = new BoardStore(2 * SIDE, 2 * SIDE);
+        BoardStore second = new BoardStore(2 * SIDE, 2 * SIDE);
+        touchEveryChunk(first);
+        touchEveryChunk(second);
+        int before = BoardStore.pooledChunks();
+        first.clear();
+        int pooled = BoardStore.pooledChunks();
+        assertTrue(pooled > before || pooled == 64);
+
+        // A new game on another board takes the chunks the first one gave back.
+        second.clear();
+        BoardStore third = new BoardStore(2 * SIDE, 2 * SIDE);
+        int available = BoardStore.pooledChunks();
+        touchEveryChunk(third);
+        assertEquals(Math.max(0, available - 4), BoardStore.pooledChunks());
+        assertNull(third.get(SIDE + 1, SIDE + 1));
+
+        // However many boards are cleared, the pool stays within its cap.
+        BoardStore huge = new BoardStore(16 * SIDE, 16 * SIDE);
+        touchEveryChunk(huge);
+        huge.clear();
+        assertEquals(64, BoardStore.pooledChunks());
+    }
+
+    @Test
+    public void smallBoardsDoNotUseThePool() {
+        BoardStore board = new BoardStore(3, 3);
+        board.set(1, 1, "X");
+        int pooled = BoardStore.pooledChunks();
+        board.clear();
+        assertEquals(pooled, BoardStore.pooledChunks());
+    }
+
+    @Test
+    public void settingNullClearsASquare() {
+        BoardStore board = new BoardStore(3, 3);
+        board.set(1, 1, "X");
+        board.set(1, 1, null);
+        board.set(2, 2, null);
+        assertNull(board.get(1, 1));
+        assertNull(board.get(2, 2));
+    }
+
+    @Test
+    public void rejectsSquaresOffTheGrid() {
+        BoardStore board = new BoardStore(3, 2);
+        assertThrows(IndexOutOfBoundsException.class, () -> board.get(3, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> board.set(0, 2, "X"));
+        assertThrows(IndexOutOfBoundsException.class, () -> board.get(-1, 0));
+    }
+
+    @Test
+    public void clearAndResizeEmptyTheGrid() {
+        BoardStore board = new BoardStore(SIDE + 1, 1);
+        board.set(SIDE, 0, "X");
+        board.clear();
+        assertNull(board.get(SIDE, 0));
+
+        board.set(0, 0, "O");
+        board.resize(2, 2);
+        assertEquals(2, board.getWidth());
+        assertEquals(2, board.getHeight());
+        assertNull(board.get(0, 0));
+        board.set(1, 1, "O");
+        assertEquals("O", board.get(1, 1));
+    }
+
+    @Test
+    public void widensCellsOnceSymbolsNoLongerFitInAShort() {
+        int count = 0x10000 + 10;
+        BoardStore board = new BoardStore(400, 400);
+        for (int i = 0; i < count; i++) {
+            board.set(i % 400, i / 400, "s" + i);
+        }
+        for (int i = 0; i < count; i++) {
+            assertEquals("s" + i, board.get(i % 400, i / 400));
+        }
+    }
+
+    @Test
+    public void clearForgetsLargeSymbolTablesAndNarrowsAgain() throws IOException {
+        BoardStore board = new BoardStore(400, 400);
+        for (int i = 0; i < 0x10000 + 1; i++) {
+            board.set(i % 400, i / 400, "s" + i);
+        }
+        board.clear();
+        board.set(0, 0, "X");
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes(board)));
+        in.readInt();
+        in.readInt();
+        assertEquals(2, in.readInt());
+        assertEquals("X", in.readUTF());
+        assertFalse(in.readBoolean());
+    }
+
+    @Test
+    public void roundTripsThroughItsBinaryForm() throws IOException {
+        BoardStore board = new BoardStore(SIDE + 3, 5);
+        board.set(0, 0, "X");
+        board.set(SIDE + 2, 4, "O");
+        board.set(1, 0, "gone");
+        board.set(1, 0, null);
+        board.set(2, 3, "");
+
+        BoardStore copy = read(bytes(board));
+        assertEquals(SIDE + 3, copy.getWidth());
+        assertEquals(5, copy.getHeight());
+        for (int y = 0; y < 5; y++) {
+            for (int x = 0; x < SIDE + 3; x++) {
+                assertEquals(board.get(x, y), copy.get(x, y), x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    public void remapsSymbolsIntoTheNewBoardsTable() throws IOException {
+        BoardStore board = new BoardStore(2, 1);
+        board.set(0, 0, "unused");
+        board.set(0, 0, "b");
+        board.set(1, 0, "a");
+
+        BoardStore copy = read(bytes(board));
+        assertEquals("b", copy.get(0, 0));
+        assertEquals("a", copy.get(1, 0));
+        // Only the symbols still on the board are interned, in the order they are read.
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes(copy)));
+        in.readInt();
+        in.readInt();
+        assertEquals(3, in.readInt());
+        assertEquals("b", in.readUTF());
+        assertEquals("a", in.readUTF());
+    }
+
+    @Test
+    public void roundTripsWideBoards() throws IOException {
+        BoardStore board = new BoardStore(300, 300);
+        for (int i = 0; i < 0x10000 + 5; i++) {
+            board.set(i % 300, i / 300, "s" + i);
+        }
+        BoardStore copy = read(bytes(board));
+        assertEquals("s0", copy.get(0, 0));
+        assertEquals("s65540", copy.get(65540 % 300, 65540 / 300));
+    }
+
+    @Test
+    public void rejectsCorruptHeaders() throws IOException {
+        assertThrows(IOException.class, () -> read(header(0, 3, 1)));
+        assertThrows(IOException.class, () -> read(header(3, 3, 0)));
+        assertThrows(IOException.class, () -> read(header(0x10000, 0x10000, 1)));
+    }
+
+    @Test
+    public void rejectsTruncatedSymbolTables() {
+        assertThrows(IOException.class, () -> read(header(3, 3, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    public void rejectsUnknownSymbolIds() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(1);
+        out.writeInt(1);
+        out.writeInt(2);
+        out.writeUTF("X");
+        out.writeBoolean(false);
+        out.writeShort(2);
+        assertThrows(IOException.class, () -> read(bytes.toByteArray()));
+    }
+
+    private static byte[] bytes(BoardStore board) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        board.writeTo(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static BoardStore read(byte[] bytes) throws IOException {
+        return BoardStore.readFrom(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    private static byte[] header(int width, int height, int symbolCount) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeInt(symbolCount);
+        return bytes.toByteArray();
+    }
+
+    /** Sets one square in every chunk of the board. */
+    private static void touchEveryChunk(BoardStore board) {
+        for (int y = 0; y < board.getHeight(); y += SIDE) {
+            for (int x = 0; x < board.getWidth(); x += SIDE) {
+                board.set(x, y, "X");
+            }
+        }
+    }
+}
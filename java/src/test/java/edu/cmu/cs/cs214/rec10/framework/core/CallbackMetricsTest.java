@@ -0,0 +1,54 @@
+package edu.cmu.cs.cs214.rec10.framework.core;
+
+import edu.cmu.cs.cs214.rec10.games.TicTacToePlugin;
+import edu.cmu.cs.cs214.rec10.metrics.LatencyHistogram;
+import edu.cmu.cs.cs214.rec10.metrics.Metrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CallbackMetricsTest {
+    private GameFrameworkImpl game;
+
+    @BeforeEach
+    public void setUp() {
+        game = new GameFrameworkImpl();
+        TicTacToePlugin plugin = new TicTacToePlugin(3, 3);
+        game.registerPlugin(plugin);
+        game.startNewGame(plugin);
+    }
+
+    @Test
+    public void timesEachCallbackOfAMove() {
+        long valid = callback("isMoveValid").count();
+        long played = callback("onMovePlayed").count();
+        long over = callback("isGameOver").count();
+
+        game.playMove(1, 1);
+        game.playMove(1, 1); // rejected: only validated
+        assertEquals(valid + 2, callback("isMoveValid").count());
+        assertEquals(played + 1, callback("onMovePlayed").count());
+        assertEquals(over + 1, callback("isGameOver").count());
+    }
+
+    @Test
+    public void timesPlayabilityChecks() {
+        long valid = callback("isMoveValid").count();
+        long windows = callback("playableSquares").count();
+
+        game.isPlayable(0, 0);
+        game.isSquarePlayable(2, 2);
+        assertEquals(valid + 2, callback("isMoveValid").count());
+
+        // A whole window is one sample, however many squares it probes.
+        game.getPlayableSquares();
+        game.getPlayableSquares(1, 1, 2, 2);
+        assertEquals(windows + 2, callback("playableSquares").count());
+        assertEquals(valid + 2, callback("isMoveValid").count());
+    }
+
+    private static LatencyHistogram callback(String name) {
+        return Metrics.histogram("rec10_plugin_callback_seconds", "Time spent in plug-in callbacks.", "callback", name);
+    }
+}
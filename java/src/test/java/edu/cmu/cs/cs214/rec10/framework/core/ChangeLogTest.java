@@ -0,0 +1,62 @@
+package edu.cmu.cs.cs214.rec10.framework.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChangeLogTest {
+
+    @Test
+    public void collectsOnlyChangesAfterTheVersion() {
+        ChangeLog log = new ChangeLog(8);
+        log.record(1, 0, 0);
+        log.record(2, 1, 0);
+        log.record(3, 2, 1);
+
+        BitSet out = new BitSet();
+        assertTrue(log.collectSince(1, 3, out));
+        assertEquals(bits(1, 5), out);
+
+        out.clear();
+        assertTrue(log.collectSince(3, 3, out));
+        assertTrue(out.isEmpty());
+    }
+
+    @Test
+    public void reportsChangesLostWhenTheBufferWraps() {
+        ChangeLog log = new ChangeLog(2);
+        log.record(1, 0, 0);
+        log.record(2, 1, 0);
+        log.record(3, 2, 0);
+
+        assertFalse(log.collectSince(0, 3, new BitSet()));
+        BitSet out = new BitSet();
+        assertTrue(log.collectSince(1, 3, out));
+        assertEquals(bits(1, 2), out);
+    }
+
+    @Test
+    public void truncateForgetsEverythingBeforeTheVersion() {
+        ChangeLog log = new ChangeLog(8);
+        log.record(1, 0, 0);
+        log.truncate(2);
+        log.record(3, 1, 0);
+
+        assertFalse(log.collectSince(1, 3, new BitSet()));
+        BitSet out = new BitSet();
+        assertTrue(log.collectSince(2, 3, out));
+        assertEquals(bits(1), out);
+    }
+
+    private static BitSet bits(int... indexes) {
+        BitSet bits = new BitSet();
+        for (int i : indexes) {
+            bits.set(i);
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,114 @@
+package edu.cmu.cs.cs214.rec10.framework.core;
+
+import edu.cmu.cs.cs214.rec10.games.TicTacToePlugin;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PlayableSquaresTest {
+
+    /** Counts how often the framework asks for a single square. */
+    private static class ProbedPlugin extends TicTacToePlugin {
+        int probes;
+
+        ProbedPlugin(int size) {
+            super(size, size);
+        }
+
+        @Override
+        public boolean isMoveValid(int x, int y) {
+            probes++;
+            return super.isMoveValid(x, y);
+        }
+    }
+
+    /** Also offers the game's incrementally maintained mask. */
+    private static class MaskedPlugin extends ProbedPlugin {
+        MaskedPlugin(int size) {
+            super(size);
+        }
+
+        @Override
+        public BitSet playableSquares() {
+            return game().playableSquares();
+        }
+    }
+
+    @Test
+    public void probesEverySquareWithoutAMask() {
+        ProbedPlugin plugin = new ProbedPlugin(3);
+        GameFrameworkImpl game = start(plugin);
+        game.playMove(0, 0);
+        game.playMove(2, 1);
+        plugin.probes = 0;
+
+        BitSet playable = game.getPlayableSquares();
+        assertEquals(9, plugin.probes);
+        assertEquals(7, playable.cardinality());
+        assertFalse(playable.get(0));
+        assertFalse(playable.get(5));
+    }
+
+    @Test
+    public void probesOnlyTheWindowButIndexesByTheWholeGrid() {
+        ProbedPlugin plugin = new ProbedPlugin(4);
+        GameFrameworkImpl game = start(plugin);
+        game.playMove(2, 1);
+        plugin.probes = 0;
+
+        BitSet playable = game.getPlayableSquares(1, 1, 2, 2);
+        assertEquals(4, plugin.probes);
+        assertEquals(3, playable.cardinality());
+        assertTrue(playable.get(1 * 4 + 1));
+        assertFalse(playable.get(1 * 4 + 2));
+        assertTrue(playable.get(2 * 4 + 2));
+    }
+
+    @Test
+    public void usesThePluginsMaskWithoutProbing() {
+        MaskedPlugin plugin = new MaskedPlugin(3);
+        GameFrameworkImpl game = start(plugin);
+        game.playMove(1, 1);
+        plugin.probes = 0;
+
+        assertSame(plugin.game().playableSquares(), game.getPlayableSquares());
+        assertFalse(game.isPlayable(1, 1));
+        assertTrue(game.isPlayable(2, 1));
+        assertEquals(0, plugin.probes);
+    }
+
+    @Test
+    public void maskAgreesWithProbingThroughAGame() {
+        MaskedPlugin masked = new MaskedPlugin(3);
+        ProbedPlugin probed = new ProbedPlugin(3);
+        GameFrameworkImpl withMask = start(masked);
+        GameFrameworkImpl withoutMask = start(probed);
+        int[][] moves = {{0, 0}, {1, 0}, {1, 1}, {2, 0}, {2, 2}};
+        for (int[] move : moves) {
+            withMask.playMove(move[0], move[1]);
+            withoutMask.playMove(move[0], move[1]);
+            assertEquals(withoutMask.getPlayableSquares(), withMask.getPlayableSquares());
+        }
+        // X has won, so nothing is playable any more.
+        assertTrue(withMask.getPlayableSquares().isEmpty());
+    }
+
+    @Test
+    public void nothingIsPlayableWithoutAGame() {
+        GameFrameworkImpl game = new GameFrameworkImpl();
+        assertFalse(game.isPlayable(0, 0));
+        assertTrue(game.getPlayableSquares().isEmpty());
+    }
+
+    private static GameFrameworkImpl start(GamePlugin<?> plugin) {
+        GameFrameworkImpl game = new GameFrameworkImpl();
+        game.registerPlugin(plugin);
+        game.startNewGame(plugin);
+        return game;
+    }
+}
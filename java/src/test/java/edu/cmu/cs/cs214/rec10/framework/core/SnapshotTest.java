@@ -0,0 +1,108 @@
+package edu.cmu.cs.cs214.rec10.framework.core;
+
+import edu.cmu.cs.cs214.rec10.games.TicTacToePlugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SnapshotTest {
+    private GameFrameworkImpl game;
+
+    @BeforeEach
+    public void setUp() {
+        game = newFramework();
+        game.startNewGame(game.getRegisteredPlugin(0));
+        game.playMove(0, 0);
+        game.playMove(1, 1);
+    }
+
+    @Test
+    public void restoresTheGameIntoAnotherFramework() throws IOException {
+        GameFrameworkImpl copy = newFramework();
+        copy.restore(game.snapshot());
+
+        assertSame(copy.getRegisteredPlugin(0), copy.getCurrentPlugin());
+        assertEquals("X", copy.getSquare(0, 0));
+        assertEquals("O", copy.getSquare(1, 1));
+        assertNull(copy.getSquare(2, 2));
+        assertEquals("X to play", copy.getFooter());
+        assertEquals("X", copy.getCurrentPlayerName());
+        assertFalse(copy.isPlayable(1, 1));
+        assertTrue(copy.playMove(2, 2));
+        assertEquals("X", copy.getSquare(2, 2));
+    }
+
+    @Test
+    public void restoringRollsTheGameBack() throws IOException {
+        byte[] snapshot = game.snapshot();
+        game.playMove(2, 2);
+        game.playMove(0, 2);
+
+        game.restore(snapshot);
+        assertNull(game.getSquare(2, 2));
+        assertNull(game.getSquare(0, 2));
+        assertEquals("X", game.getCurrentPlayerName());
+        assertTrue(game.isPlayable(2, 2));
+    }
+
+    @Test
+    public void clientsNeedAFullSnapshotAfterARestore() throws IOException {
+        long seen = game.getStateVersion();
+        byte[] snapshot = game.snapshot();
+        GameFrameworkImpl copy = newFramework();
+        copy.startNewGame(copy.getRegisteredPlugin(0));
+
+        copy.restore(snapshot);
+        assertTrue(copy.getStateVersion() > seen);
+        assertFalse(copy.changedSquaresSince(seen, new BitSet()));
+        assertTrue(copy.changedSquaresSince(copy.getStateVersion(), new BitSet()));
+    }
+
+    @Test
+    public void rejectsCorruptSnapshots() {
+        byte[] snapshot = game.snapshot();
+        byte[] badMagic = snapshot.clone();
+        badMagic[0] ^= 1;
+        assertThrows(IOException.class, () -> game.restore(badMagic));
+        assertThrows(IOException.class, () -> game.restore(Arrays.copyOf(snapshot, snapshot.length - 1)));
+        assertThrows(IOException.class, () -> game.restore(Arrays.copyOf(snapshot, 20)));
+        assertThrows(IOException.class, () -> new GameFrameworkImpl().restore(snapshot));
+    }
+
+    @Test
+    public void failedRestoresLeaveTheGameAsItWas() {
+        byte[] snapshot = game.snapshot();
+        game.playMove(2, 2);
+        // The plug-in state comes last: size, win length, current player, winner, move count, then the squares.
+        byte[] corrupt = snapshot.clone();
+        corrupt[corrupt.length - 9 - 4 - 1 - 1] = 9; // the current player
+        long version = game.getStateVersion();
+
+        assertThrows(IOException.class, () -> game.restore(corrupt));
+        assertEquals("X", game.getSquare(2, 2));
+        assertEquals("O", game.getCurrentPlayerName());
+        assertEquals(version, game.getStateVersion());
+        assertTrue(game.playMove(0, 2));
+    }
+
+    @Test
+    public void snapshotsNeedAGameInProgress() {
+        assertThrows(IllegalStateException.class, () -> new GameFrameworkImpl().snapshot());
+    }
+
+    private static GameFrameworkImpl newFramework() {
+        GameFrameworkImpl framework = new GameFrameworkImpl();
+        framework.registerPlugin(new TicTacToePlugin(3, 3));
+        return framework;
+    }
+}
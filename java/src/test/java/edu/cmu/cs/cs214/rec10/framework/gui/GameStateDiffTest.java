@@ -0,0 +1,118 @@
+package edu.cmu.cs.cs214.rec10.framework.gui;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+import edu.cmu.cs.cs214.rec10.games.TicTacToePlugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameStateDiffTest {
+    private GameFrameworkImpl game;
+
+    @BeforeEach
+    public void setUp() {
+        game = new GameFrameworkImpl();
+        TicTacToePlugin plugin = new TicTacToePlugin(3, 3);
+        game.registerPlugin(plugin);
+        game.startNewGame(plugin);
+    }
+
+    @Test
+    public void diffSinceAVersionHoldsOnlyTheChangedSquares() {
+        long since = game.getStateVersion();
+        game.playMove(1, 2);
+
+        String json = GameStateDiff.forGame(game, since).toJson();
+        assertTrue(json.contains("\"full\":false"), json);
+        assertTrue(json.contains("\"squares\":[{\"x\":1,\"y\":2,\"text\":\"X\"}]"), json);
+        assertTrue(json.contains("\"footer\":\"O to play\""), json);
+        assertTrue(json.contains("\"currentPlayer\":\"O\""), json);
+    }
+
+    @Test
+    public void upToDateClientsGetNoSquares() {
+        game.playMove(0, 0);
+
+        String json = GameStateDiff.forGame(game, game.getStateVersion()).toJson();
+        assertTrue(json.contains("\"full\":false"), json);
+        assertTrue(json.endsWith("\"squares\":[]}"), json);
+        assertFalse(json.contains("\"footer\""), json);
+    }
+
+    @Test
+    public void versionsFromBeforeTheGameGetAFullSnapshot() {
+        long before = game.getStateVersion();
+        game.startNewGame(game.getCurrentPlugin());
+        game.playMove(0, 0);
+
+        String json = GameStateDiff.forGame(game, before).toJson();
+        assertTrue(json.contains("\"full\":true"), json);
+        assertTrue(json.contains("\"viewport\":{\"x\":0,\"y\":0,\"width\":3,\"height\":3}"), json);
+        assertEquals(9, count(json, "\"text\""));
+    }
+
+    @Test
+    public void fullSnapshotsStayWithinTheViewport() {
+        String json = GameStateDiff.forGame(game, -1, new Viewport(2, 1, 5, 1)).toJson();
+        assertTrue(json.contains("\"viewport\":{\"x\":0,\"y\":1,\"width\":3,\"height\":1}"), json);
+        assertEquals(3, count(json, "\"y\":1,\"text\""));
+        assertEquals(3, count(json, "\"text\""));
+    }
+
+    @Test
+    public void diffsLeaveOutChangesOutsideTheViewport() {
+        long since = game.getStateVersion();
+        game.playMove(0, 0);
+        game.playMove(2, 2);
+
+        String json = GameStateDiff.forGame(game, since, new Viewport(2, 2, 1, 1)).toJson();
+        assertTrue(json.contains("\"squares\":[{\"x\":2,\"y\":2,\"text\":\"O\""), json);
+        assertEquals(1, count(json, "\"text\""));
+    }
+
+    @Test
+    public void everyDiffCarriesThePlayableSquaresOfTheViewport() {
+        long since = game.getStateVersion();
+        game.playMove(1, 2);
+
+        // Every square but (1, 2), which is bit 7: 1111 1110 1, padded to whole hex digits.
+        String json = GameStateDiff.forGame(game, since).toJson();
+        assertTrue(json.contains("\"playable\":\"fe8\""), json);
+        json = GameStateDiff.forGame(game, since, new Viewport(1, 1, 2, 2)).toJson();
+        assertTrue(json.contains("\"viewport\":{\"x\":1,\"y\":1,\"width\":2,\"height\":2}"), json);
+        assertTrue(json.contains("\"playable\":\"d\""), json);
+    }
+
+    @Test
+    public void aWinningMoveMakesSquaresUnplayableThatDidNotChange() {
+        game.playMove(0, 0);
+        game.playMove(0, 1);
+        game.playMove(1, 0);
+        game.playMove(1, 1);
+        long since = game.getStateVersion();
+        game.playMove(2, 0);
+
+        String json = GameStateDiff.forGame(game, since).toJson();
+        assertEquals(1, count(json, "\"text\""));
+        assertTrue(json.contains("\"playable\":\"000\""), json);
+    }
+
+    @Test
+    public void escapesTextForEmbeddingInPages() {
+        game.setFooterText("<b>\"quoted\"</b>\n");
+
+        String json = GameStateDiff.forGame(game, -1).toJson();
+        assertTrue(json.contains("\"footer\":\"\\u003cb\\u003e\\\"quoted\\\"\\u003c/b\\u003e\\n\""), json);
+    }
+
+    private static int count(String s, String part) {
+        int n = 0;
+        for (int i = s.indexOf(part); i >= 0; i = s.indexOf(part, i + 1)) {
+            n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,103 @@
+package edu.cmu.cs.cs214.rec10.framework.gui;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+import edu.cmu.cs.cs214.rec10.games.TicTacToePlugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class GameStateTest {
+    /** Larger than one chunk of the framework's grid in both directions. */
+    private static final int SIZE = 150;
+
+    private GameFrameworkImpl game;
+
+    @BeforeEach
+    public void setUp() {
+        game = new GameFrameworkImpl();
+        TicTacToePlugin plugin = new TicTacToePlugin(SIZE, 5);
+        game.registerPlugin(plugin);
+        game.startNewGame(plugin);
+    }
+
+    @Test
+    public void rendersAViewportThatStraddlesChunkBoundaries() {
+        game.playMove(63, 63);
+        game.playMove(64, 63);
+        game.playMove(63, 64);
+        game.playMove(64, 64);
+
+        GameState state = GameState.forGame(game, new Viewport(62, 62, 4, 4));
+        Cell[] cells = state.getCells();
+        assertEquals(16, cells.length);
+        assertEquals("X", cell(cells, 4, 1, 1).getText());
+        assertEquals("O", cell(cells, 4, 2, 1).getText());
+        assertEquals("X", cell(cells, 4, 1, 2).getText());
+        assertEquals("O", cell(cells, 4, 2, 2).getText());
+        assertNull(cell(cells, 4, 0, 0).getText());
+        assertNull(cell(cells, 4, 3, 3).getText());
+
+        assertEquals("", cell(cells, 4, 1, 1).getClazz());
+        assertEquals("playable", cell(cells, 4, 3, 2).getClazz());
+        assertEquals("/play?x=65&y=64", cell(cells, 4, 3, 2).getLink());
+        assertEquals("/play?x=62&y=62", cell(cells, 4, 0, 0).getLink());
+    }
+
+    @Test
+    public void rendersTheFarCornerOfTheBoard() {
+        game.playMove(SIZE - 1, SIZE - 1);
+
+        GameState state = GameState.forGame(game, new Viewport(SIZE - 2, SIZE - 2, 2, 2));
+        Cell[] cells = state.getCells();
+        assertEquals("X", cell(cells, 2, 1, 1).getText());
+        assertNull(cell(cells, 2, 0, 1).getText());
+        assertEquals("/play?x=" + (SIZE - 1) + "&y=" + (SIZE - 1), cell(cells, 2, 1, 1).getLink());
+    }
+
+    @Test
+    public void clampsViewportsThatRunOffTheBoard() {
+        GameState state = GameState.forGame(game, new Viewport(SIZE - 10, 500, 64, 64));
+        assertEquals(new Viewport(SIZE - 64, SIZE - 64, 64, 64), state.getViewport());
+        assertEquals(64 * 64, state.getCells().length);
+        assertEquals(List.of("Left", "Up"), labels(state.getPans()));
+    }
+
+    @Test
+    public void pansByHalfAViewportWithoutLeavingTheBoard() {
+        GameState state = GameState.forGame(game, new Viewport(0, 0, 64, 64));
+        assertEquals(List.of("Right", "Down"), labels(state.getPans()));
+        assertEquals("/?vx=32&vy=0", state.getPans()[0].getLink());
+
+        state = GameState.forGame(game, new Viewport(70, 40, 64, 64));
+        assertEquals(List.of("Left", "Right", "Up", "Down"), labels(state.getPans()));
+        assertEquals("/?vx=86&vy=40", state.getPans()[1].getLink());
+        assertEquals("/?vx=70&vy=72", state.getPans()[3].getLink());
+    }
+
+    @Test
+    public void aViewportCoveringTheBoardHasNoPans() {
+        GameFrameworkImpl small = new GameFrameworkImpl();
+        TicTacToePlugin plugin = new TicTacToePlugin(3, 3);
+        small.registerPlugin(plugin);
+        small.startNewGame(plugin);
+
+        GameState state = GameState.forGame(small, new Viewport(0, 0, 64, 64));
+        assertEquals(Viewport.all(3, 3), state.getViewport());
+        assertEquals(0, state.getPans().length);
+        assertEquals(9, state.getCells().length);
+    }
+
+    private static Cell cell(Cell[] cells, int columns, int column, int row) {
+        return cells[row * columns + column];
+    }
+
+    private static List<String> labels(NavLink[] pans) {
+        return Arrays.stream(pans).map(NavLink::getLabel).collect(Collectors.toList());
+    }
+}
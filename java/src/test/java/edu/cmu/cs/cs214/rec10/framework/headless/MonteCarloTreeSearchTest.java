@@ -0,0 +1,95 @@
+package edu.cmu.cs.cs214.rec10.framework.headless;
+
+import edu.cmu.cs.cs214.rec10.games.TicTacToePlugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MonteCarloTreeSearchTest {
+    private ForkJoinPool pool;
+    private MonteCarloTreeSearch search;
+
+    @BeforeEach
+    public void setUp() {
+        pool = new ForkJoinPool(2);
+        search = new MonteCarloTreeSearch(MoveAgent::random, MonteCarloTreeSearch.byGameOverMessage(), 100, pool);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void suggestsNothingOnceTheGameIsWon() {
+        HeadlessFramework game = play(0, 0, 0, 1, 1, 0, 1, 1, 2, 0);
+        assertTrue(game.isGameOver());
+        assertNull(search.search(game, 50, 1));
+    }
+
+    @Test
+    public void takesAWinningMove() {
+        HeadlessFramework game = play(0, 0, 0, 1, 1, 0, 1, 1);
+        MonteCarloTreeSearch.Result result = search.search(game, 200, 1);
+        assertEquals(2, result.x());
+        assertEquals(0, result.y());
+        assertTrue(result.winRate() > 0.9, result.toString());
+        assertTrue(result.visits() <= result.playouts());
+    }
+
+    @Test
+    public void searchesOnlyForksOfTheGame() {
+        HeadlessFramework game = play(0, 0, 1, 1);
+        search.search(game, 50, 7);
+        assertEquals("X", game.getSquare(0, 0));
+        assertEquals("O", game.getSquare(1, 1));
+        assertEquals(7, game.getPlayableSquares().cardinality());
+        assertEquals("X", game.getCurrentPlayerName());
+    }
+
+    @Test
+    public void suggestsAValidMoveEvenWithoutTime() {
+        HeadlessFramework game = play(0, 0, 1, 1);
+        MonteCarloTreeSearch.Result result = search.search(game, 0, 3);
+        assertTrue(game.isMoveValid(result.x(), result.y()));
+        assertTrue(result.playouts() >= 1);
+    }
+
+    @Test
+    public void playsAsAnAgent() {
+        HeadlessFramework game = play(0, 0, 0, 1, 1, 0, 1, 1);
+        int move = search.asAgent(200).selectMove(game, new SplittableRandom(5));
+        assertEquals(2, move);
+    }
+
+    @Test
+    public void rejectsGamesItCannotFork() {
+        HeadlessFramework game = new HeadlessFramework(new TicTacToePlugin(3, 3) {
+            @Override
+            public boolean supportsFork() {
+                return false;
+            }
+        });
+        game.startNewGame();
+        assertThrows(UnsupportedOperationException.class, () -> search.search(game, 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> search.search(game, -1, 1));
+    }
+
+    /** Returns a 3x3 game with the given (x, y) moves played in order. */
+    private static HeadlessFramework play(int... moves) {
+        HeadlessFramework game = new HeadlessFramework(new TicTacToePlugin(3, 3));
+        game.startNewGame();
+        for (int i = 0; i < moves.length; i += 2) {
+            assertTrue(game.playMove(moves[i], moves[i + 1]));
+        }
+        return game;
+    }
+}
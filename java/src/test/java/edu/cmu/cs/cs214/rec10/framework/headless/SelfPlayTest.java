@@ -0,0 +1,74 @@
+package edu.cmu.cs.cs214.rec10.framework.headless;
+
+import edu.cmu.cs.cs214.rec10.games.TicTacToePlugin;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SelfPlayTest {
+    private static final int GAMES = 2000;
+
+    @Test
+    public void playsTheSameGamesForTheSameSeedOnAnyPool() {
+        SelfPlay.Report<String> serial = run(1, GAMES, 42);
+        SelfPlay.Report<String> parallel = run(4, GAMES, 42);
+        assertEquals(serial.outcomes(), parallel.outcomes());
+        assertEquals(serial.moves(), parallel.moves());
+        assertEquals(serial.outcomes(), run(4, GAMES, 42).outcomes());
+
+        assertNotEquals(serial.moves(), run(4, GAMES, 43).moves());
+    }
+
+    @Test
+    public void talliesEveryFinishedGame() {
+        SelfPlay.Report<String> report = run(3, GAMES, 7);
+        assertEquals(GAMES, report.games());
+        assertEquals(0, report.unfinished());
+        assertEquals(GAMES, report.outcomes().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(1.0, report.rate("X won") + report.rate("O won") + report.rate("Tie"), 1e-9);
+        // Random tic-tac-toe is won by X far more often than by O.
+        assertTrue(report.rate("X won") > report.rate("O won"), report.toString());
+    }
+
+    @Test
+    public void countsAbandonedGamesAsUnfinished() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            SelfPlay<TicTacToePlugin, String> abandoning = new SelfPlay<>(() -> new TicTacToePlugin(3, 3),
+                    () -> (game, random) -> -1, TicTacToePlugin::getGameOverMessage, 9, pool);
+            SelfPlay.Report<String> report = abandoning.run(10, 1);
+            assertEquals(10, report.unfinished());
+            assertEquals(0, report.moves());
+            assertEquals(0, report.outcomes().size());
+
+            SelfPlay<TicTacToePlugin, String> limited = new SelfPlay<>(() -> new TicTacToePlugin(3, 3),
+                    MoveAgent::random, TicTacToePlugin::getGameOverMessage, 2, pool);
+            assertEquals(10, limited.run(10, 1).unfinished());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> SelfPlay.byGameOverMessage(
+                () -> new TicTacToePlugin(3, 3), MoveAgent::random, 0));
+        assertThrows(IllegalArgumentException.class, () -> SelfPlay.byGameOverMessage(
+                () -> new TicTacToePlugin(3, 3), MoveAgent::random, 9).run(-1, 0));
+    }
+
+    private static SelfPlay.Report<String> run(int threads, long games, long seed) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return new SelfPlay<>(() -> new TicTacToePlugin(3, 3), MoveAgent::random,
+                    TicTacToePlugin::getGameOverMessage, 9, pool).run(games, seed);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
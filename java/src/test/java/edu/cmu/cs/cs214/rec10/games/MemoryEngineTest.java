@@ -0,0 +1,207 @@
+package edu.cmu.cs.cs214.rec10.games;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MemoryEngineTest {
+
+    @Test
+    public void dealsEveryItemTwice() {
+        MemoryEngine game = new MemoryEngine(2, 50, 1);
+        assertEquals(100, game.size());
+        assertEquals(100, game.remainingCards());
+        int[] counts = new int[50];
+        for (int i = 0; i < game.size(); i++) {
+            counts[game.idAt(i)]++;
+        }
+        for (int count : counts) {
+            assertEquals(2, count);
+        }
+    }
+
+    @Test
+    public void sameSeedDealsTheSameBoard() {
+        MemoryEngine a = new MemoryEngine(2, 20, 42);
+        MemoryEngine b = new MemoryEngine(2, 20, 42);
+        for (int i = 0; i < a.size(); i++) {
+            assertEquals(a.idAt(i), b.idAt(i));
+        }
+    }
+
+    @Test
+    public void emptyPairsLeaveTheirPositionsEmpty() {
+        MemoryEngine game = new MemoryEngine(1, new int[] {7, MemoryEngine.EMPTY}, new SplittableRandom(3));
+        assertEquals(4, game.size());
+        assertEquals(2, game.remainingCards());
+        assertEquals(2, game.itemPositions().cardinality());
+        for (int i = 0; i < game.size(); i++) {
+            assertEquals(game.hasItemAt(i) ? 7 : MemoryEngine.EMPTY, game.idAt(i));
+        }
+    }
+
+    @Test
+    public void mismatchPassesTheTurn() {
+        MemoryEngine game = new MemoryEngine(3, 10, 5);
+        int first = 0;
+        int other = firstWithout(game, game.idAt(first));
+
+        assertFalse(game.selectMatch(first, other));
+        assertEquals(1, game.currentPlayer());
+        assertEquals(20, game.remainingCards());
+        assertEquals(0, game.scoreForPlayer(0));
+    }
+
+    @Test
+    public void matchRemovesTheCardsAndScores() {
+        MemoryEngine game = new MemoryEngine(2, 10, 5);
+        int partner = partnerOf(game, 0);
+
+        assertTrue(game.selectMatch(0, partner));
+        assertEquals(0, game.currentPlayer());
+        assertEquals(1, game.scoreForPlayer(0));
+        assertEquals(18, game.remainingCards());
+        assertFalse(game.hasItemAt(0));
+        assertFalse(game.itemPositions().get(partner));
+        assertEquals(MemoryEngine.EMPTY, game.idAt(partner));
+        assertThrows(IllegalArgumentException.class, () -> game.selectMatch(0, 1));
+    }
+
+    @Test
+    public void gameIsOverOnceEveryPairIsMatched() {
+        MemoryEngine game = new MemoryEngine(2, 10, 9);
+        for (int i = 0; i < game.size(); i++) {
+            if (game.hasItemAt(i)) {
+                assertFalse(game.isOver());
+                game.selectMatch(i, partnerOf(game, i));
+            }
+        }
+        assertTrue(game.isOver());
+        assertEquals(10, game.maxScore());
+    }
+
+    @Test
+    public void rejectsPositionsOffTheBoard() {
+        MemoryEngine game = new MemoryEngine(2, 2, 1);
+        assertThrows(IndexOutOfBoundsException.class, () -> game.hasItemAt(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> game.selectMatch(0, -1));
+    }
+
+    @Test
+    public void resetDealsTheSameCardsAgain() {
+        MemoryEngine game = new MemoryEngine(2, 10, 9);
+        game.selectMatch(0, partnerOf(game, 0));
+        game.selectMatch(1, firstWithout(game, game.idAt(1)));
+
+        game.reset(new SplittableRandom(4));
+        assertEquals(20, game.remainingCards());
+        assertEquals(20, game.itemPositions().cardinality());
+        assertEquals(0, game.currentPlayer());
+        assertEquals(0, game.maxScore());
+        int[] counts = new int[10];
+        for (int i = 0; i < game.size(); i++) {
+            counts[game.idAt(i)]++;
+        }
+        for (int count : counts) {
+            assertEquals(2, count);
+        }
+    }
+
+    @Test
+    public void copiesAreIndependent() {
+        MemoryEngine game = new MemoryEngine(2, 10, 9);
+        MemoryEngine copy = game.copy();
+        copy.selectMatch(0, partnerOf(copy, 0));
+
+        assertTrue(game.hasItemAt(0));
+        assertEquals(20, game.remainingCards());
+        assertEquals(0, game.scoreForPlayer(0));
+        assertFalse(copy.hasItemAt(0));
+    }
+
+    @Test
+    public void roundTripsThroughItsBinaryForm() throws IOException {
+        MemoryEngine game = new MemoryEngine(3, new int[] {0, 1, MemoryEngine.EMPTY, 2}, new SplittableRandom(8));
+        int first = game.itemPositions().nextSetBit(0);
+        game.selectMatch(first, partnerOf(game, first));
+        int next = game.itemPositions().nextSetBit(0);
+        game.selectMatch(next, firstWithout(game, game.idAt(next)));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        game.writeTo(new DataOutputStream(bytes));
+        MemoryEngine copy = MemoryEngine.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(game.size(), copy.size());
+        assertEquals(game.currentPlayer(), copy.currentPlayer());
+        assertEquals(game.remainingCards(), copy.remainingCards());
+        for (int p = 0; p < 3; p++) {
+            assertEquals(game.scoreForPlayer(p), copy.scoreForPlayer(p));
+        }
+        for (int i = 0; i < game.size(); i++) {
+            assertEquals(game.idAt(i), copy.idAt(i));
+            assertEquals(game.dealtIdAt(i), copy.dealtIdAt(i));
+        }
+        // Matched cards come back on a reset.
+        copy.reset(new SplittableRandom(1));
+        assertEquals(6, copy.remainingCards());
+    }
+
+    @Test
+    public void rejectsCorruptState() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(2);
+        out.writeInt(2);
+        assertThrows(IOException.class,
+                () -> MemoryEngine.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+    }
+
+    @Test
+    public void rejectsCountsTheInputCannotHold() throws IOException {
+        ByteArrayOutputStream players = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(players);
+        out.writeInt(Integer.MAX_VALUE);
+        out.writeInt(0);
+        out.writeInt(7);
+        assertThrows(IOException.class,
+                () -> MemoryEngine.readFrom(new DataInputStream(new ByteArrayInputStream(players.toByteArray()))));
+
+        ByteArrayOutputStream board = new ByteArrayOutputStream();
+        out = new DataOutputStream(board);
+        out.writeInt(1);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeInt(Integer.MAX_VALUE - 1);
+        out.writeInt(0);
+        assertThrows(IOException.class,
+                () -> MemoryEngine.readFrom(new DataInputStream(new ByteArrayInputStream(board.toByteArray()))));
+    }
+
+    private static int partnerOf(MemoryEngine game, int index) {
+        for (int i = 0; i < game.size(); i++) {
+            if (i != index && game.idAt(i) == game.idAt(index)) {
+                return i;
+            }
+        }
+        throw new AssertionError("No partner for " + index);
+    }
+
+    private static int firstWithout(MemoryEngine game, int id) {
+        for (int i = 0; i < game.size(); i++) {
+            if (game.hasItemAt(i) && game.idAt(i) != id) {
+                return i;
+            }
+        }
+        throw new AssertionError("Every card is " + id);
+    }
+}
@@ -0,0 +1,97 @@
+package edu.cmu.cs.cs214.rec10.games;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MemoryTest {
+    private static final List<String> ITEMS = List.of("a", "b", "c", "d", "e", "f", "g", "h");
+
+    @Test
+    public void resetDealsAFreshBoardInPlace() {
+        Memory<String> game = new Memory<>(2, ITEMS, 7);
+        List<String> first = deal(game);
+        playOut(game);
+        assertTrue(game.isOver());
+
+        game.reset();
+        assertFalse(game.isOver());
+        assertEquals(0, game.currentPlayer());
+        assertEquals(0, game.scoreForPlayer(0));
+        assertEquals(0, game.scoreForPlayer(1));
+        assertEquals(2 * ITEMS.size(), game.itemPositions().cardinality());
+        List<String> second = deal(game);
+        assertEquals(sorted(first), sorted(second));
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    public void aSeedDealsTheSameSequenceOfBoards() {
+        Memory<String> one = new Memory<>(2, ITEMS, 42);
+        Memory<String> two = new Memory<>(2, ITEMS, 42);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(deal(one), deal(two));
+            one.reset();
+            two.reset();
+        }
+    }
+
+    @Test
+    public void copyingDoesNotChangeTheNextDeal() {
+        Memory<String> copied = new Memory<>(2, ITEMS, 42);
+        Memory<String> untouched = new Memory<>(2, ITEMS, 42);
+        Memory<String> copy = copied.copy();
+        copy.reset();
+        copied.copy();
+
+        copied.reset();
+        untouched.reset();
+        assertEquals(deal(untouched), deal(copied));
+    }
+
+    @Test
+    public void aCopyIsPlayedIndependently() {
+        Memory<String> game = new Memory<>(2, ITEMS, 3);
+        List<String> deal = deal(game);
+        Memory<String> copy = game.copy();
+        assertEquals(deal, deal(copy));
+
+        playOut(copy);
+        assertTrue(copy.isOver());
+        assertFalse(game.isOver());
+        assertEquals(deal, deal(game));
+        assertEquals(0, game.scoreForPlayer(0));
+    }
+
+    /** Returns the items on the board, position by position. */
+    private static List<String> deal(Memory<String> game) {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 2 * ITEMS.size(); i++) {
+            items.add(game.itemAt(i));
+        }
+        return items;
+    }
+
+    /** Matches every pair on the board. */
+    private static void playOut(Memory<String> game) {
+        List<String> items = deal(game);
+        for (int i = 0; i < items.size(); i++) {
+            int match = items.subList(i + 1, items.size()).indexOf(items.get(i));
+            if (game.hasItemAt(i) && match >= 0) {
+                assertTrue(game.selectMatch(i, i + 1 + match));
+            }
+        }
+    }
+
+    private static List<String> sorted(List<String> items) {
+        List<String> copy = new ArrayList<>(items);
+        copy.sort(null);
+        return copy;
+    }
+}
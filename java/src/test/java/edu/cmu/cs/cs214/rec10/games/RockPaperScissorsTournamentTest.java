@@ -0,0 +1,89 @@
+package edu.cmu.cs.cs214.rec10.games;
+
+import edu.cmu.cs.cs214.rec10.games.RockPaperScissorsTournament.MatchResult;
+import edu.cmu.cs.cs214.rec10.games.RockPaperScissorsTournament.Strategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RockPaperScissorsTournamentTest {
+    private static final List<Supplier<Strategy>> ENTRANTS = List.of(
+            Strategy::uniform,
+            Strategy::uniform,
+            Strategy::counterMostFrequent,
+            () -> Strategy.constant(RockPaperScissors.ROCK),
+            Strategy::counterMostFrequent);
+
+    @Test
+    public void resultsDoNotDependOnHowMatchesAreScheduled() {
+        Map<String, String> serial = run(1, 10_000, 64, 42);
+        Map<String, String> parallel = run(4, 10_000, 64, 42);
+        assertEquals(10, serial.size());
+        assertEquals(serial, parallel);
+        assertEquals(serial, run(3, 10_000, 64, 42));
+        assertNotEquals(serial, run(4, 10_000, 64, 43));
+    }
+
+    @Test
+    public void countsEveryRoundOfEveryMatch() {
+        RockPaperScissorsTournament league = new RockPaperScissorsTournament(ENTRANTS, 1001, 100,
+                ForkJoinPool.commonPool());
+        AtomicInteger matches = new AtomicInteger();
+        // A failed assertion in the callback fails the run, as it is rethrown by the pool.
+        league.run(7, result -> {
+            assertTrue(result.first() < result.second(), result.toString());
+            assertEquals(1001, result.wins() + result.losses() + result.ties(), result.toString());
+            matches.incrementAndGet();
+        });
+        assertEquals(10, matches.get());
+    }
+
+    @Test
+    public void scoresFromTheFirstStrategysPointOfView() {
+        MatchResult[] result = new MatchResult[1];
+        new RockPaperScissorsTournament(List.of(() -> Strategy.constant(RockPaperScissors.ROCK),
+                () -> Strategy.constant(RockPaperScissors.SCISSORS)), 500, 64, ForkJoinPool.commonPool())
+                .run(1, r -> result[0] = r);
+        assertEquals(500, result[0].wins());
+        assertEquals(0, result[0].losses());
+
+        // After its first block of random moves, the counter-strategy beats a constant opponent every round.
+        new RockPaperScissorsTournament(List.of(Strategy::counterMostFrequent,
+                () -> Strategy.constant(RockPaperScissors.PAPER)), 6400, 64, ForkJoinPool.commonPool())
+                .run(1, r -> result[0] = r);
+        assertTrue(result[0].wins() >= 6400 - 64, result[0].toString());
+    }
+
+    @Test
+    public void rejectsInvalidLeagues() {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        assertThrows(IllegalArgumentException.class,
+                () -> new RockPaperScissorsTournament(List.of(Strategy::uniform), 10, 1, pool));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RockPaperScissorsTournament(ENTRANTS, -1, 1, pool));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RockPaperScissorsTournament(ENTRANTS, 10, 0, pool));
+    }
+
+    private static Map<String, String> run(int threads, long rounds, int blockSize, long seed) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Map<String, String> results = new ConcurrentSkipListMap<>();
+            new RockPaperScissorsTournament(ENTRANTS, rounds, blockSize, pool)
+                    .run(seed, r -> results.put(r.first() + " vs " + r.second(), r.toString()));
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
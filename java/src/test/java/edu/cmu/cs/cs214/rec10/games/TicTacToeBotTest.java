@@ -0,0 +1,81 @@
+package edu.cmu.cs.cs214.rec10.games;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TicTacToeBotTest {
+    private static final long BUDGET_MILLIS = 10_000;
+
+    @Test
+    public void answersEachHumanMoveInASinglePlayerGame() {
+        GameFrameworkImpl framework = singlePlayer(TicTacToe.Player.O);
+        assertTrue(framework.playMove(0, 0));
+        assertEquals("X", framework.getSquare(0, 0));
+        assertEquals("O", framework.getSquare(1, 1)); // the only reply that does not lose
+        assertEquals("X", framework.getCurrentPlayerName());
+
+        assertTrue(framework.playMove(1, 0));
+        assertEquals("O", framework.getSquare(2, 0)); // blocks the top row
+        assertEquals("X to play", framework.getFooter());
+    }
+
+    @Test
+    public void opensTheGameWhenItPlaysFirst() {
+        GameFrameworkImpl framework = singlePlayer(TicTacToe.Player.X);
+        int marks = 0;
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < 3; y++) {
+                marks += framework.getSquare(x, y) == null ? 0 : 1;
+            }
+        }
+        assertEquals(1, marks);
+        assertEquals("O", framework.getCurrentPlayerName());
+    }
+
+    @Test
+    public void neverLosesFromTheStart() {
+        TicTacToeBot bot = new TicTacToeBot(new TicTacToeSolver(3, 3), TicTacToe.Player.O, BUDGET_MILLIS);
+        TicTacToe game = new TicTacToe();
+        // The human always takes the first free square; the bot must hold the draw or win.
+        while (!game.isOver()) {
+            int i = 0;
+            while (!game.isValidPlay(i % 3, i / 3)) {
+                i++;
+            }
+            game.play(i % 3, i / 3);
+            bot.respond(game);
+        }
+        assertFalse(game.winner() == TicTacToe.Player.X);
+        assertTrue(bot.lastResult().nodesPerSecond() > 0, bot.lastResult().toString());
+    }
+
+    @Test
+    public void onlyMovesOnItsOwnTurn() {
+        TicTacToeBot bot = new TicTacToeBot(new TicTacToeSolver(3, 3), TicTacToe.Player.O, BUDGET_MILLIS);
+        TicTacToe game = new TicTacToe();
+        assertFalse(bot.respond(game));
+        assertNull(bot.lastResult());
+        game.play(2, 2);
+        assertTrue(bot.respond(game));
+        assertNotNull(bot.lastResult());
+        assertEquals(2, game.moveCount());
+        assertThrows(IllegalArgumentException.class,
+                () -> new TicTacToeBot(new TicTacToeSolver(3, 3), TicTacToe.Player.O, -1));
+    }
+
+    private static GameFrameworkImpl singlePlayer(TicTacToe.Player botSide) {
+        TicTacToeBot bot = new TicTacToeBot(new TicTacToeSolver(3, 3), botSide, BUDGET_MILLIS);
+        TicTacToePlugin plugin = new TicTacToePlugin(3, 3, bot);
+        GameFrameworkImpl framework = new GameFrameworkImpl();
+        framework.registerPlugin(plugin);
+        framework.startNewGame(plugin);
+        return framework;
+    }
+}
@@ -0,0 +1,145 @@
+package edu.cmu.cs.cs214.rec10.games;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFramework;
+import edu.cmu.cs.cs214.rec10.framework.core.GamePlugin;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A minimal {@link TicTacToe} plug-in for driving the frameworks in tests,
+ * on a board of any size. Supports forking and snapshots, and a single-player
+ * mode in which a {@link TicTacToeBot} answers each human move.
+ */
+public class TicTacToePlugin implements GamePlugin<TicTacToe.Player> {
+    private final int size;
+    private final int winLength;
+    private final TicTacToeBot bot;
+    private GameFramework framework;
+    private TicTacToe game;
+
+    public TicTacToePlugin(int size, int winLength) {
+        this(size, winLength, null);
+    }
+
+    /** Creates a single-player game against {@code bot}, or a two-player game if it is null. */
+    public TicTacToePlugin(int size, int winLength, TicTacToeBot bot) {
+        this.size = size;
+        this.winLength = winLength;
+        this.bot = bot;
+    }
+
+    private TicTacToePlugin(TicTacToePlugin other, GameFramework framework) {
+        this(other.size, other.winLength, other.bot);
+        this.framework = framework;
+        this.game = other.game.copy();
+    }
+
+    /** Returns the game in progress. */
+    public TicTacToe game() {
+        return game;
+    }
+
+    @Override
+    public String getGameName() {
+        return "TicTacToe";
+    }
+
+    @Override
+    public int getGridWidth() {
+        return size;
+    }
+
+    @Override
+    public int getGridHeight() {
+        return size;
+    }
+
+    @Override
+    public void onRegister(GameFramework f) {
+        framework = f;
+    }
+
+    @Override
+    public void onNewGame() {
+        game = new TicTacToe(size, winLength);
+        botMove();
+        framework.setFooterText(game.currentPlayer() + " to play");
+    }
+
+    @Override
+    public void onNewMove() {
+    }
+
+    @Override
+    public boolean isMoveValid(int x, int y) {
+        return game.isValidPlay(x, y);
+    }
+
+    @Override
+    public boolean isMoveOver() {
+        return true;
+    }
+
+    @Override
+    public void onMovePlayed(int x, int y) {
+        TicTacToe.Player player = game.currentPlayer();
+        game.play(x, y);
+        framework.setSquare(x, y, player.name());
+        botMove();
+        framework.setFooterText(game.currentPlayer() + " to play");
+    }
+
+    /** Plays the bot's reply, if there is a bot and it is its turn. */
+    private void botMove() {
+        TicTacToe.Player player = game.currentPlayer();
+        if (bot != null && bot.respond(game)) {
+            framework.setSquare(bot.lastResult().x(), bot.lastResult().y(), player.name());
+        }
+    }
+
+    @Override
+    public boolean isGameOver() {
+        return game.isOver();
+    }
+
+    @Override
+    public String getGameOverMessage() {
+        return game.winner() == null ? "Tie" : game.winner() + " won";
+    }
+
+    @Override
+    public void onGameClosed() {
+    }
+
+    @Override
+    public TicTacToe.Player currentPlayer() {
+        return game.currentPlayer();
+    }
+
+    @Override
+    public boolean supportsFork() {
+        return true;
+    }
+
+    @Override
+    public GamePlugin<TicTacToe.Player> fork(GameFramework framework) {
+        return new TicTacToePlugin(this, framework);
+    }
+
+    @Override
+    public boolean supportsSnapshot() {
+        return true;
+    }
+
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        game.writeTo(out);
+    }
+
+    @Override
+    public void readSnapshot(DataInput in) throws IOException {
+        game = TicTacToe.readFrom(in);
+    }
+}
@@ -0,0 +1,90 @@
+package edu.cmu.cs.cs214.rec10.games;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TicTacToeSolverTest {
+    private static final long BUDGET_MILLIS = 10_000;
+
+    @Test
+    public void solvesTheEmptyBoardAsADraw() {
+        TicTacToeSolver.Result result = new TicTacToeSolver(3, 3).search(new TicTacToe(), BUDGET_MILLIS);
+        assertEquals(0, result.score());
+        assertEquals(9, result.depth());
+    }
+
+    @Test
+    public void takesAnImmediateWin() {
+        TicTacToe game = play(3, 3, 0, 0, 0, 1, 1, 0, 1, 1);
+        TicTacToeSolver.Result result = new TicTacToeSolver(3, 3).search(game, BUDGET_MILLIS);
+        assertEquals(2, result.x());
+        assertEquals(0, result.y());
+        assertTrue(result.score() > 0, result.toString());
+    }
+
+    @Test
+    public void blocksTheOpponentsWin() {
+        TicTacToe game = play(3, 3, 0, 0, 1, 1, 1, 0);
+        TicTacToeSolver.Result result = new TicTacToeSolver(3, 3).search(game, BUDGET_MILLIS);
+        assertEquals(2, result.x());
+        assertEquals(0, result.y());
+    }
+
+    @Test
+    public void findsWinsOnLargerBoardsWithTheParallelSearch() {
+        TicTacToe game = play(4, 4, 0, 0, 0, 1, 1, 0, 1, 1, 2, 0, 2, 1);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            TicTacToeSolver.Result result = new TicTacToeSolver(4, 4, 16, pool).search(game, BUDGET_MILLIS);
+            assertEquals(3, result.x());
+            assertEquals(0, result.y());
+            assertTrue(result.score() > 0, result.toString());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void transpositionTableCollisionsDoNotChangeScores() {
+        // With two table entries nearly every position collides; entries for other positions must be ignored.
+        TicTacToeSolver tiny = new TicTacToeSolver(3, 3, 1, ForkJoinPool.commonPool());
+        TicTacToeSolver large = new TicTacToeSolver(3, 3);
+        int[][] openings = {{}, {1, 1}, {0, 0, 1, 1}, {0, 0, 2, 2, 1, 1}, {1, 0, 0, 0, 2, 2}};
+        for (int[] opening : openings) {
+            assertEquals(large.search(play(3, 3, opening), BUDGET_MILLIS).score(),
+                    tiny.search(play(3, 3, opening), BUDGET_MILLIS).score());
+        }
+    }
+
+    @Test
+    public void reusesTheTranspositionTableAcrossSearches() {
+        TicTacToeSolver solver = new TicTacToeSolver(3, 3);
+        TicTacToeSolver.Result first = solver.search(new TicTacToe(), BUDGET_MILLIS);
+        TicTacToeSolver.Result second = solver.search(new TicTacToe(), BUDGET_MILLIS);
+        assertEquals(first.score(), second.score());
+        assertTrue(second.nodes() < first.nodes(), first + " then " + second);
+    }
+
+    @Test
+    public void rejectsGamesItCannotSearch() {
+        TicTacToeSolver solver = new TicTacToeSolver(3, 3);
+        assertThrows(IllegalArgumentException.class, () -> solver.search(new TicTacToe(4, 3), BUDGET_MILLIS));
+        TicTacToe won = play(3, 3, 0, 0, 0, 1, 1, 0, 1, 1, 2, 0);
+        assertThrows(IllegalStateException.class, () -> solver.search(won, BUDGET_MILLIS));
+        assertThrows(IllegalArgumentException.class, () -> new TicTacToeSolver(3, 3, 0, ForkJoinPool.commonPool()));
+    }
+
+    /** Returns a game with the given (x, y) moves played in order. */
+    private static TicTacToe play(int size, int winLength, int... moves) {
+        TicTacToe game = new TicTacToe(size, winLength);
+        for (int i = 0; i < moves.length; i += 2) {
+            game.play(moves[i], moves[i + 1]);
+        }
+        return game;
+    }
+}
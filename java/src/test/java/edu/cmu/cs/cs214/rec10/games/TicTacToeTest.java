@@ -0,0 +1,125 @@
+package edu.cmu.cs.cs214.rec10.games;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TicTacToeTest {
+
+    @Test
+    public void winsAlongTheMainDiagonalToTheCorner() {
+        // X: (2,2) (3,3) (4,4), O elsewhere; X completes the run in the bottom-right corner.
+        TicTacToe game = play(5, 3, 2, 2, 0, 1, 3, 3, 0, 2, 4, 4);
+        assertTrue(game.isOver());
+        assertEquals(TicTacToe.Player.X, game.winner());
+    }
+
+    @Test
+    public void winsAlongTheAntiDiagonalFromTheEdge() {
+        // X: (4,0) (3,1) (2,2), filled from both ends towards the middle.
+        TicTacToe game = play(5, 3, 4, 0, 0, 0, 2, 2, 0, 1, 3, 1);
+        assertTrue(game.isOver());
+        assertEquals(TicTacToe.Player.X, game.winner());
+    }
+
+    @Test
+    public void diagonalsDoNotWrapAroundTheBoard() {
+        // X: (3,3) (4,4) (0,0) would be a run of three if the diagonal wrapped around.
+        TicTacToe game = play(5, 3, 3, 3, 1, 0, 4, 4, 2, 0, 0, 0);
+        assertFalse(game.isOver());
+        assertNull(game.winner());
+    }
+
+    @Test
+    public void needsOnlyWinLengthOnALargerBoard() {
+        TicTacToe game = new TicTacToe(15, 5);
+        for (int i = 0; i < 4; i++) {
+            game.play(i, 7);
+            game.play(i, 8);
+            assertFalse(game.isOver());
+        }
+        game.play(4, 7);
+        assertTrue(game.isOver());
+        assertEquals(TicTacToe.Player.X, game.winner());
+        assertEquals(9, game.moveCount());
+    }
+
+    @Test
+    public void aRunLongerThanWinLengthStillWins() {
+        // O's marks at x = 0, 1 and 3, 4 join into a run of five when O plays x = 2.
+        TicTacToe game = play(7, 4, 0, 0, 0, 1, 6, 6, 1, 1, 5, 6, 3, 1, 6, 5, 4, 1, 0, 6);
+        assertFalse(game.isOver());
+        game.play(2, 1);
+        assertEquals(TicTacToe.Player.O, game.winner());
+    }
+
+    @Test
+    public void aFullBoardWithoutARunIsADraw() {
+        //  X O X
+        //  X O O
+        //  O X X
+        TicTacToe game = play(3, 3, 0, 0, 1, 0, 2, 0, 1, 1, 0, 1, 2, 1, 1, 2, 0, 2, 2, 2);
+        assertTrue(game.isOver());
+        assertNull(game.winner());
+        assertEquals(9, game.moveCount());
+    }
+
+    @Test
+    public void rejectsMovesOffTheBoardOrOnTakenSquares() {
+        TicTacToe game = new TicTacToe(4, 3);
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> game.play(4, 0));
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> game.play(0, -1));
+        game.play(1, 1);
+        assertThrows(IllegalArgumentException.class, () -> game.play(1, 1));
+        assertEquals(1, game.moveCount());
+        assertEquals(TicTacToe.Player.O, game.currentPlayer());
+    }
+
+    @Test
+    public void rejectsMovesOnceTheGameIsOver() {
+        TicTacToe game = play(3, 3, 0, 0, 0, 1, 1, 0, 1, 1, 2, 0);
+        assertEquals(TicTacToe.Player.X, game.winner());
+        assertFalse(game.isValidPlay(2, 2));
+        assertThrows(IllegalStateException.class, () -> game.play(2, 2));
+    }
+
+    @Test
+    public void resetClearsTheBoardInPlace() {
+        TicTacToe game = play(3, 3, 0, 0, 0, 1, 1, 0, 1, 1, 2, 0);
+        assertTrue(game.isOver());
+
+        game.reset();
+        assertFalse(game.isOver());
+        assertNull(game.winner());
+        assertEquals(0, game.moveCount());
+        assertEquals(TicTacToe.Player.X, game.currentPlayer());
+        assertEquals(9, game.playableSquares().cardinality());
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < 3; y++) {
+                assertNull(game.getSquare(x, y));
+            }
+        }
+        game.play(0, 0);
+        assertEquals(TicTacToe.Player.X, game.getSquare(0, 0));
+    }
+
+    @Test
+    public void rejectsInvalidSizesAndWinLengths() {
+        assertThrows(IllegalArgumentException.class, () -> new TicTacToe(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TicTacToe(3, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TicTacToe(3, 4));
+    }
+
+    /** Returns a {@code size} by {@code size} game with the given (x, y) moves played in order. */
+    private static TicTacToe play(int size, int winLength, int... moves) {
+        TicTacToe game = new TicTacToe(size, winLength);
+        for (int i = 0; i < moves.length; i += 2) {
+            game.play(moves[i], moves[i + 1]);
+        }
+        return game;
+    }
+}
@@ -0,0 +1,92 @@
+package edu.cmu.cs.cs214.rec10.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsAreBoundedByPowersOfTwoNanoseconds() {
+        assertEquals(0, LatencyHistogram.bucketOf(-5));
+        assertEquals(0, LatencyHistogram.bucketOf(0));
+        assertEquals(0, LatencyHistogram.bucketOf(1024));
+        assertEquals(1, LatencyHistogram.bucketOf(1025));
+        assertEquals(1, LatencyHistogram.bucketOf(2048));
+        assertEquals(2, LatencyHistogram.bucketOf(2049));
+        assertEquals(LatencyHistogram.BUCKETS - 2, LatencyHistogram.bucketOf(1L << 34));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf((1L << 34) + 1));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void everySampleFallsWithinItsBucketsBound() {
+        for (long nanos = 1; nanos < 1L << 35; nanos = nanos * 3 + 1) {
+            int bucket = LatencyHistogram.bucketOf(nanos);
+            if (bucket < LatencyHistogram.BUCKETS - 1) {
+                assertTrue(nanos / 1e9 <= LatencyHistogram.upperBoundSeconds(bucket), Long.toString(nanos));
+            }
+            if (bucket > 0) {
+                assertTrue(nanos / 1e9 > LatencyHistogram.upperBoundSeconds(bucket - 1), Long.toString(nanos));
+            }
+        }
+    }
+
+    @Test
+    public void countsAndSumsSamples() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(500);
+        histogram.record(1500);
+        histogram.record(1600);
+
+        long[] counts = histogram.bucketCounts();
+        assertEquals(1, counts[0]);
+        assertEquals(2, counts[1]);
+        assertEquals(3, histogram.count());
+        assertEquals(3600, histogram.sumNanos());
+    }
+
+    @Test
+    public void concurrentRecordsAreAllCounted() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(80_000, histogram.count());
+        assertEquals(8L * (10_000L * 9_999 / 2), histogram.sumNanos());
+    }
+
+    @Test
+    public void exportsCumulativeBuckets() throws IOException {
+        LatencyHistogram histogram = Metrics.histogram("test_export_seconds", "Help.", "endpoint", "/a\"b");
+        assertSame(histogram, Metrics.histogram("test_export_seconds", "Help.", "endpoint", "/a\"b"));
+        histogram.record(100);
+        histogram.record(1500);
+        histogram.record(Long.MAX_VALUE / 2);
+
+        StringBuilder out = new StringBuilder();
+        Metrics.writePrometheus(out);
+        String text = out.toString();
+        assertTrue(text.contains("# TYPE test_export_seconds histogram\n"), text);
+        assertTrue(text.contains("test_export_seconds_bucket{endpoint=\"/a\\\"b\",le=\"1.024E-6\"} 1\n"), text);
+        assertTrue(text.contains("test_export_seconds_bucket{endpoint=\"/a\\\"b\",le=\"2.048E-6\"} 2\n"), text);
+        assertTrue(text.contains("test_export_seconds_bucket{endpoint=\"/a\\\"b\",le=\"+Inf\"} 3\n"), text);
+        assertTrue(text.contains("test_export_seconds_count{endpoint=\"/a\\\"b\"} 3\n"), text);
+    }
+}
@@ -0,0 +1,148 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import fi.iki.elonen.NanoHTTPD;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BoundedAsyncRunnerTest {
+    private final NanoHTTPD server = new NanoHTTPD(0) { };
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private BoundedAsyncRunner runner;
+
+    /** A connection that counts how many run at once and blocks until released. */
+    private class Connection extends NanoHTTPD.ClientHandler {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(1);
+        volatile boolean closed;
+
+        Connection() {
+            server.super(new ByteArrayInputStream(new byte[0]), new Socket());
+        }
+
+        @Override
+        public void run() {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            finished.countDown();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        if (runner != null) {
+            runner.closeAll();
+        }
+    }
+
+    @Test
+    public void queuesConnectionsBeyondThePoolInsteadOfAddingThreads() throws InterruptedException {
+        runner = new BoundedAsyncRunner(BoundedAsyncRunner.Mode.PLATFORM, 8, 5, 2, 1000);
+        List<Connection> admitted = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Connection c = new Connection();
+            runner.exec(c);
+            admitted.add(c);
+        }
+        assertTrue(admitted.get(0).started.await(10, TimeUnit.SECONDS));
+        assertTrue(admitted.get(1).started.await(10, TimeUnit.SECONDS));
+        assertFalse(admitted.get(2).started.await(100, TimeUnit.MILLISECONDS));
+        assertEquals(2, running.get());
+        assertEquals(5, runner.getRunningCount());
+
+        release.countDown();
+        for (Connection c : admitted) {
+            assertTrue(c.finished.await(10, TimeUnit.SECONDS));
+            assertFalse(c.closed);
+        }
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    public void closesConnectionsBeyondTheLimitWithoutRunningThem() throws InterruptedException {
+        runner = new BoundedAsyncRunner(BoundedAsyncRunner.Mode.PLATFORM, 8, 3, 1, 1000);
+        List<Connection> admitted = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Connection c = new Connection();
+            runner.exec(c);
+            admitted.add(c);
+        }
+        Connection rejected = new Connection();
+        runner.exec(rejected);
+        assertTrue(rejected.closed);
+        admitted.forEach(c -> assertFalse(c.closed));
+
+        // Once the admitted connections finish, their slots are free again.
+        release.countDown();
+        for (Connection c : admitted) {
+            assertTrue(c.finished.await(10, TimeUnit.SECONDS));
+        }
+        // A slot is freed just after its connection's run() returns, so allow a moment for that.
+        Connection later = new Connection();
+        runner.exec(later);
+        for (int i = 0; later.closed && i < 1000; i++) {
+            Thread.sleep(1);
+            later = new Connection();
+            runner.exec(later);
+        }
+        assertTrue(later.finished.await(10, TimeUnit.SECONDS));
+        assertFalse(later.closed);
+        assertFalse(rejected.started.await(0, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void turnsRequestsAwayOnceThePermitsAreTaken() {
+        runner = new BoundedAsyncRunner(BoundedAsyncRunner.Mode.PLATFORM, 2, 4, 1, 10);
+        assertTrue(runner.beginRequest());
+        assertTrue(runner.beginRequest());
+        assertFalse(runner.beginRequest());
+        runner.endRequest();
+        assertTrue(runner.beginRequest());
+    }
+
+    @Test
+    public void usesVirtualThreadsOnlyWhereTheJvmHasThem() {
+        runner = new BoundedAsyncRunner(BoundedAsyncRunner.Mode.VIRTUAL, 1, 1, 1, 0);
+        BoundedAsyncRunner.Mode expected = Runtime.version().feature() >= 21
+                ? BoundedAsyncRunner.Mode.VIRTUAL : BoundedAsyncRunner.Mode.PLATFORM;
+        assertEquals(expected, runner.getMode());
+        assertEquals(BoundedAsyncRunner.Mode.PLATFORM,
+                new BoundedAsyncRunner(BoundedAsyncRunner.Mode.PLATFORM, 1, 1, 1, 0).getMode());
+    }
+
+    @Test
+    public void rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BoundedAsyncRunner(BoundedAsyncRunner.Mode.PLATFORM, 0, 1, 1, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BoundedAsyncRunner(BoundedAsyncRunner.Mode.PLATFORM, 1, 1, 0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BoundedAsyncRunner(BoundedAsyncRunner.Mode.PLATFORM, 1, 1, 1, -1));
+    }
+}
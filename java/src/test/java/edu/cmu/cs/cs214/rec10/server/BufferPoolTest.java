@@ -0,0 +1,80 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class BufferPoolTest {
+    @Test
+    public void reusesTheBufferOnceTheResponseIsClosed() throws IOException {
+        BufferPool pool = new BufferPool(16, 64, 4);
+        PooledOutputStream out = pool.newOutputStream();
+        byte[] buffer = out.buffer();
+        out.write("hello".getBytes(StandardCharsets.UTF_8));
+        assertEquals(5, out.size());
+
+        InputStream in = out.toInputStream();
+        assertArrayEquals("hello".getBytes(StandardCharsets.UTF_8), in.readAllBytes());
+        in.close();
+        in.close(); // NanoHTTPD may close twice; the buffer must be pooled only once
+        out.close(); // already handed over to the input stream
+
+        assertSame(buffer, pool.acquire());
+        assertEquals(16, pool.acquire().length);
+    }
+
+    @Test
+    public void returnsTheBufferWhenClosedWithoutReading() {
+        BufferPool pool = new BufferPool(16, 64, 4);
+        PooledOutputStream out = pool.newOutputStream();
+        byte[] buffer = out.buffer();
+        out.write(1);
+        out.close();
+        out.close();
+        assertSame(buffer, pool.acquire());
+        assertNotSame(buffer, pool.acquire());
+    }
+
+    @Test
+    public void growsPastTheInitialSizeAndDropsOversizedBuffers() throws IOException {
+        BufferPool pool = new BufferPool(16, 64, 4);
+        PooledOutputStream out = pool.newOutputStream();
+        byte[] data = new byte[100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        out.write(data, 0, 60);
+        out.write(data, 60, 40);
+        assertArrayEquals(data, out.toByteArray());
+        byte[] grown = out.buffer();
+
+        try (InputStream in = out.toInputStream()) {
+            assertArrayEquals(data, in.readAllBytes());
+        }
+        byte[] next = pool.acquire();
+        assertNotSame(grown, next);
+        assertEquals(16, next.length);
+    }
+
+    @Test
+    public void keepsAtMostTheConfiguredNumberOfIdleBuffers() {
+        BufferPool pool = new BufferPool(16, 64, 2);
+        byte[] a = new byte[16];
+        byte[] b = new byte[16];
+        byte[] c = new byte[16];
+        pool.release(a);
+        pool.release(b);
+        pool.release(c);
+        assertSame(a, pool.acquire());
+        assertSame(b, pool.acquire());
+        byte[] fresh = pool.acquire();
+        assertNotSame(c, fresh);
+    }
+}
@@ -0,0 +1,144 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import fi.iki.elonen.NanoHTTPD;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompressionTest {
+    private final Compression compression =
+            new Compression(new BufferPool(1024, 64 * 1024, 4), Deflater.DEFAULT_COMPRESSION, 100, 2);
+
+    @Test
+    public void gzipOutputIsAValidGzipStream() throws IOException {
+        byte[] head = page(300);
+        byte[] body = page(5000);
+        byte[] encoded = encode(ContentEncoding.GZIP, head, body);
+
+        assertEquals(0x1f, encoded[0] & 0xff);
+        assertEquals(0x8b, encoded[1] & 0xff);
+        assertArrayEquals(concat(head, body), new GZIPInputStream(new ByteArrayInputStream(encoded)).readAllBytes());
+    }
+
+    @Test
+    public void deflateOutputIsAValidZlibStream() throws IOException {
+        byte[] head = page(300);
+        byte[] body = page(5000);
+        byte[] encoded = encode(ContentEncoding.DEFLATE, head, body);
+
+        // RFC 1950: CMF/FLG must be a multiple of 31.
+        assertEquals(0, ((encoded[0] & 0xff) * 256 + (encoded[1] & 0xff)) % 31);
+        assertArrayEquals(concat(head, body), new InflaterInputStream(new ByteArrayInputStream(encoded)).readAllBytes());
+    }
+
+    @Test
+    public void encodesBodiesLargerThanOneChunk() throws IOException {
+        // Random bytes do not compress, so the output spans many deflate chunks.
+        byte[] body = new byte[100_000];
+        new SplittableRandom(1).nextBytes(body);
+        assertArrayEquals(body, new GZIPInputStream(new ByteArrayInputStream(
+                encode(ContentEncoding.GZIP, body, new byte[0]))).readAllBytes());
+        assertArrayEquals(body, new InflaterInputStream(new ByteArrayInputStream(
+                encode(ContentEncoding.DEFLATE, new byte[0], body))).readAllBytes());
+    }
+
+    @Test
+    public void pooledDeflatersStartEachResponseAfresh() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            byte[] body = page(200 + i * 100);
+            ContentEncoding encoding = i % 2 == 0 ? ContentEncoding.GZIP : ContentEncoding.DEFLATE;
+            InputStream in = new ByteArrayInputStream(encode(encoding, body, new byte[0]));
+            in = encoding == ContentEncoding.GZIP ? new GZIPInputStream(in) : new InflaterInputStream(in);
+            assertArrayEquals(body, in.readAllBytes(), "response " + i);
+        }
+    }
+
+    @Test
+    public void sendsSmallBodiesAsTheyAre() throws IOException {
+        assertEquals(ContentEncoding.IDENTITY, compression.choose(ContentEncoding.GZIP, 99));
+        assertEquals(ContentEncoding.GZIP, compression.choose(ContentEncoding.GZIP, 100));
+
+        byte[] small = page(50);
+        NanoHTTPD.Response response = compression.respond(NanoHTTPD.Response.Status.OK, "text/html", small,
+                ContentEncoding.GZIP);
+        assertNull(response.getHeader("Content-Encoding"));
+        assertArrayEquals(small, response.getData().readAllBytes());
+    }
+
+    @Test
+    public void labelsCompressedResponses() throws IOException {
+        byte[] body = page(1000);
+        NanoHTTPD.Response response = compression.respond(NanoHTTPD.Response.Status.OK, "text/html", body,
+                ContentEncoding.DEFLATE);
+        assertEquals("deflate", response.getHeader("Content-Encoding"));
+        assertArrayEquals(body, new InflaterInputStream(response.getData()).readAllBytes());
+    }
+
+    @Test
+    public void rejectsIdentityAndInvalidLevels() {
+        assertThrows(IllegalArgumentException.class,
+                () -> compression.encode(ContentEncoding.IDENTITY, new byte[1], 1, new byte[0], 0));
+        assertThrows(IllegalArgumentException.class, () -> new Compression(new BufferPool(1024, 1024, 1), 10, 0, 1));
+    }
+
+    @Test
+    public void negotiatesByQualityWithGzipWinningTies() {
+        assertEquals(ContentEncoding.IDENTITY, ContentEncoding.negotiate(null));
+        assertEquals(ContentEncoding.IDENTITY, ContentEncoding.negotiate(""));
+        assertEquals(ContentEncoding.IDENTITY, ContentEncoding.negotiate("br, identity"));
+        assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("gzip, deflate, br"));
+        assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("x-gzip"));
+        assertEquals(ContentEncoding.DEFLATE, ContentEncoding.negotiate("gzip;q=0.5, deflate"));
+        assertEquals(ContentEncoding.DEFLATE, ContentEncoding.negotiate("DEFLATE"));
+        assertEquals(ContentEncoding.IDENTITY, ContentEncoding.negotiate("gzip;q=0, deflate;q=0"));
+        assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("*"));
+        assertEquals(ContentEncoding.DEFLATE, ContentEncoding.negotiate("gzip;q=0, *"));
+        assertEquals(ContentEncoding.IDENTITY, ContentEncoding.negotiate("gzip;q=abc"));
+        assertEquals(ContentEncoding.IDENTITY, ContentEncoding.negotiate("gzip;q=2"));
+    }
+
+    @Test
+    public void tagsEachRepresentationSeparately() {
+        assertEquals("\"v1\"", ContentEncoding.IDENTITY.tag("\"v1\""));
+        assertEquals("\"v1-gzip\"", ContentEncoding.GZIP.tag("\"v1\""));
+        assertEquals("\"v1-deflate\"", ContentEncoding.DEFLATE.tag("\"v1\""));
+    }
+
+    private byte[] encode(ContentEncoding encoding, byte[] first, byte[] second) {
+        PooledOutputStream out = compression.encode(encoding, first, first.length, second, second.length);
+        try {
+            return out.toByteArray();
+        } finally {
+            out.close();
+        }
+    }
+
+    /** Returns a compressible, page-like body of the given length. */
+    private static byte[] page(int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; sb.length() < length; i++) {
+            sb.append("<a class=\"cell\" href=\"/play?x=").append(i % 7).append("&y=").append(i % 5).append("\"></a>");
+        }
+        return sb.substring(0, length).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
@@ -0,0 +1,121 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GameActorTest {
+    private ExecutorService scheduler;
+    private GameFrameworkImpl game;
+    private GameActor actor;
+
+    @BeforeEach
+    public void setUp() {
+        scheduler = Executors.newFixedThreadPool(4);
+        game = new GameFrameworkImpl();
+        actor = new GameActor(game, scheduler);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void runsActionsInTheOrderTheyWereSubmitted() throws InterruptedException, ExecutionException, TimeoutException {
+        List<Integer> order = new ArrayList<>();
+        CompletableFuture<?> last = null;
+        for (int i = 0; i < 1000; i++) {
+            int n = i;
+            last = actor.submit(g -> order.add(n));
+        }
+        last.get(10, TimeUnit.SECONDS);
+        assertEquals(1000, order.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, order.get(i));
+        }
+    }
+
+    @Test
+    public void neverRunsTwoActionsAtOnce() throws InterruptedException, ExecutionException, TimeoutException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        int[] unsynchronized = new int[1];
+        int threads = 8;
+        int perThread = 2000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Void>> submitters = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            submitters.add(CompletableFuture.runAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                for (int i = 0; i < perThread; i++) {
+                    actor.submit(g -> {
+                        if (running.incrementAndGet() != 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        unsynchronized[0]++;
+                        running.decrementAndGet();
+                        return null;
+                    });
+                }
+            }));
+        }
+        start.countDown();
+        CompletableFuture.allOf(submitters.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        actor.submit(g -> null).get(10, TimeUnit.SECONDS);
+
+        assertEquals(0, overlaps.get());
+        assertEquals(threads * perThread, (int) actor.call(g -> unsynchronized[0]));
+    }
+
+    @Test
+    public void passesTheGameToEveryAction() {
+        assertSame(game, actor.call(g -> g));
+    }
+
+    @Test
+    public void callRethrowsWhatTheActionThrew() {
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> actor.call(g -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals("boom", thrown.getMessage());
+        // The actor keeps working afterwards.
+        assertEquals(1, (int) actor.call(g -> 1));
+    }
+
+    @Test
+    public void submitCompletesExceptionally() {
+        CompletableFuture<Object> result = actor.submit(g -> {
+            throw new IllegalArgumentException("bad move");
+        });
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, thrown.getCause());
+    }
+
+    @Test
+    public void nestedCallsRunImmediately() throws InterruptedException, ExecutionException, TimeoutException {
+        CompletableFuture<Integer> result = actor.submit(g -> actor.call(inner -> 42));
+        assertEquals(42, result.get(10, TimeUnit.SECONDS));
+    }
+}
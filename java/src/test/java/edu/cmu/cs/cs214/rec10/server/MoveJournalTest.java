@@ -0,0 +1,157 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MoveJournalTest {
+    // type, key, a, b, crc
+    private static final int RECORD_BYTES = 1 + 16 + 4 + 4 + 4;
+    private static final String A = key(1);
+    private static final String B = key(2);
+    private static final String C = key(3);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void replaysRecordsAfterReopening() throws IOException, InterruptedException {
+        try (MoveJournal journal = open(4096, 1)) {
+            journal.replay((type, key, a, b) -> { });
+            journal.append(MoveJournal.NEW_GAME, A, 0, 0);
+            journal.append(MoveJournal.MOVE, A, 1, 2);
+            long last = journal.append(MoveJournal.MOVE, B, 3, 4);
+            journal.awaitCommitted(last);
+        }
+        try (MoveJournal journal = open(4096, 1)) {
+            assertEquals(List.of("1 " + A + " 0 0", "2 " + A + " 1 2", "2 " + B + " 3 4"), replay(journal));
+        }
+    }
+
+    @Test
+    public void rollsOverToNewSegmentsInOrder() throws IOException {
+        try (MoveJournal journal = open(2 * RECORD_BYTES, 100)) {
+            for (int i = 0; i < 5; i++) {
+                journal.append(MoveJournal.MOVE, A, i, i);
+            }
+        }
+        try (MoveJournal journal = open(2 * RECORD_BYTES, 100)) {
+            List<String> records = replay(journal);
+            assertEquals(5, records.size());
+            for (int i = 0; i < 5; i++) {
+                assertEquals("2 " + A + " " + i + " " + i, records.get(i));
+            }
+        }
+        assertEquals(3, segments().size());
+    }
+
+    @Test
+    public void stopsAtACorruptRecordAndResumesAfterTheLastValidOne() throws IOException {
+        try (MoveJournal journal = open(4096, 1)) {
+            journal.append(MoveJournal.NEW_GAME, A, 0, 0);
+            journal.append(MoveJournal.MOVE, A, 1, 1);
+            journal.append(MoveJournal.MOVE, A, 2, 2);
+        }
+        // Flip a bit in the second record's coordinates, so its checksum no longer matches.
+        Path segment = segments().get(0);
+        try (FileChannel file = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            file.read(b, RECORD_BYTES + 20);
+            b.put(0, (byte) (b.get(0) ^ 1)).rewind();
+            file.write(b, RECORD_BYTES + 20);
+        }
+
+        try (MoveJournal journal = open(4096, 1)) {
+            assertEquals(List.of("1 " + A + " 0 0"), replay(journal));
+            journal.append(MoveJournal.MOVE, B, 5, 5);
+        }
+        try (MoveJournal journal = open(4096, 1)) {
+            // The records after the corrupt one were cleared, not resurrected behind the new one.
+            assertEquals(List.of("1 " + A + " 0 0", "2 " + B + " 5 5"), replay(journal));
+        }
+    }
+
+    @Test
+    public void compactsToEachLiveSessionsLatestGame() throws IOException, InterruptedException {
+        try (MoveJournal journal = open(2 * RECORD_BYTES, 1)) {
+            journal.append(MoveJournal.NEW_GAME, A, 0, 0);
+            journal.append(MoveJournal.NEW_GAME, A, 1, 8);
+            journal.append(MoveJournal.SNAPSHOT, A, 7, 9);
+            journal.append(MoveJournal.MOVE, A, 2, 2);
+            journal.append(MoveJournal.NEW_GAME, B, 0, 0);
+            journal.append(MoveJournal.END_SESSION, B, 0, 0);
+            journal.append(MoveJournal.NEW_GAME, C, 0, 0);
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (Files.exists(dir.resolve(String.format("%016d.log", 0))) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+        assertFalse(Files.exists(dir.resolve(String.format("%016d.log", 0))), "Segments were not compacted");
+        try (MoveJournal journal = open(2 * RECORD_BYTES, 1)) {
+            assertEquals(List.of("1 " + A + " 1 8", "4 " + A + " 7 9", "2 " + A + " 2 2", "1 " + C + " 0 0"),
+                    replay(journal));
+        }
+    }
+
+    @Test
+    public void discardsUnfinishedCompactions() throws IOException {
+        try (MoveJournal journal = open(4096, 1)) {
+            journal.append(MoveJournal.NEW_GAME, A, 0, 0);
+        }
+        Files.write(dir.resolve(String.format("%016d.compact.tmp", 0)), new byte[RECORD_BYTES]);
+        try (MoveJournal journal = open(4096, 1)) {
+            assertEquals(List.of("1 " + A + " 0 0"), replay(journal));
+        }
+        assertEquals(1, segments().size());
+    }
+
+    @Test
+    public void rejectsBadKeysAndAppendsAfterClosing() throws IOException {
+        MoveJournal journal = open(4096, 1);
+        assertThrows(IllegalArgumentException.class, () -> journal.append(MoveJournal.MOVE, "not a key", 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> journal.append(MoveJournal.MOVE,
+                Base64.getUrlEncoder().withoutPadding().encodeToString(new byte[8]), 0, 0));
+        journal.close();
+        assertThrows(IllegalStateException.class, () -> journal.append(MoveJournal.MOVE, A, 0, 0));
+    }
+
+    private MoveJournal open(int segmentBytes, int compactAfterSegments) throws IOException {
+        return MoveJournal.open(dir, segmentBytes, 5, compactAfterSegments);
+    }
+
+    private static List<String> replay(MoveJournal journal) throws IOException {
+        List<String> records = new ArrayList<>();
+        journal.replay((type, key, a, b) -> records.add(type + " " + key + " " + a + " " + b));
+        return records;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> segments = new ArrayList<>();
+            files.filter(f -> f.toString().endsWith(".log")).sorted().forEach(segments::add);
+            assertTrue(segments.size() > 0);
+            return segments;
+        }
+    }
+
+    private static String key(int n) {
+        byte[] key = new byte[16];
+        key[0] = (byte) n;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key);
+    }
+}
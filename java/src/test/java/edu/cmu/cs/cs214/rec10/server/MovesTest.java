@@ -0,0 +1,61 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+import edu.cmu.cs.cs214.rec10.games.TicTacToePlugin;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MovesTest {
+    @Test
+    public void parsesOneOrMoreMoves() {
+        assertArrayEquals(new int[]{1, 2}, Moves.parse("1,2"));
+        assertArrayEquals(new int[]{0, 0, 2, 1, 10, 3}, Moves.parse("0,0;2,1; 10 , 3"));
+    }
+
+    @Test
+    public void rejectsMalformedMoveLists() {
+        assertNull(Moves.parse(null));
+        assertNull(Moves.parse(""));
+        assertNull(Moves.parse("1"));
+        assertNull(Moves.parse("1,2;3"));
+        assertNull(Moves.parse("1,x"));
+        assertNull(Moves.parse("1,2,3"));
+    }
+
+    @Test
+    public void playsABatchUpToItsFirstInvalidMove() {
+        GameFrameworkImpl game = newGame();
+        // The third move repeats the first square, so it and everything after it is skipped.
+        assertEquals(2, game.playMoves(Moves.parse("0,0;1,1;0,0;2,2")));
+        assertEquals("X", game.getSquare(0, 0));
+        assertEquals("O", game.getSquare(1, 1));
+        assertNull(game.getSquare(2, 2));
+        assertEquals("X", game.getCurrentPlayerName());
+    }
+
+    @Test
+    public void stopsABatchOnceTheGameIsOver() {
+        GameFrameworkImpl game = newGame();
+        assertEquals(5, game.playMoves(Moves.parse("0,0;0,1;1,0;1,1;2,0;2,1")));
+        assertEquals("X won", game.getGameOverMsg());
+        assertNull(game.getSquare(2, 1));
+        assertEquals(0, game.playMoves(Moves.parse("2,2")));
+    }
+
+    @Test
+    public void rejectsUnpairedCoordinates() {
+        assertThrows(IllegalArgumentException.class, () -> newGame().playMoves(new int[]{1, 2, 3}));
+    }
+
+    private static GameFrameworkImpl newGame() {
+        GameFrameworkImpl game = new GameFrameworkImpl();
+        TicTacToePlugin plugin = new TicTacToePlugin(3, 3);
+        game.registerPlugin(plugin);
+        game.startNewGame(plugin);
+        return game;
+    }
+}
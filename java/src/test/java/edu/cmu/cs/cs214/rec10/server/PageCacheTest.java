@@ -0,0 +1,68 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PageCacheTest {
+    private static final byte[] PAGE = {1, 2, 3};
+
+    @Test
+    public void servesAPageOnlyForItsETag() {
+        PageCache cache = new PageCache(4, 1024);
+        cache.put("s", "\"v1\"", PAGE);
+
+        assertArrayEquals(PAGE, cache.get("s", "\"v1\""));
+        assertNull(cache.get("s", "\"v2\""));
+        assertNull(cache.get("other", "\"v1\""));
+    }
+
+    @Test
+    public void keepsOnlyEachSessionsLatestPage() {
+        PageCache cache = new PageCache(4, 1024);
+        cache.put("s", "\"v1\"", PAGE);
+        cache.put("s", "\"v2\"", new byte[] {4});
+
+        assertNull(cache.get("s", "\"v1\""));
+        assertArrayEquals(new byte[] {4}, cache.get("s", "\"v2\""));
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedSession() {
+        PageCache cache = new PageCache(2, 1024);
+        cache.put("a", "\"1\"", PAGE);
+        cache.put("b", "\"1\"", PAGE);
+        cache.get("a", "\"1\"");
+        cache.put("c", "\"1\"", PAGE);
+
+        assertArrayEquals(PAGE, cache.get("a", "\"1\""));
+        assertNull(cache.get("b", "\"1\""));
+        assertArrayEquals(PAGE, cache.get("c", "\"1\""));
+    }
+
+    @Test
+    public void skipsPagesOverTheSizeLimit() {
+        PageCache cache = new PageCache(2, 2);
+        assertFalse(cache.accepts(3));
+        assertTrue(cache.accepts(2));
+        cache.put("s", "\"1\"", PAGE);
+        assertNull(cache.get("s", "\"1\""));
+    }
+
+    @Test
+    public void removeDropsASessionsPage() {
+        PageCache cache = new PageCache(2, 1024);
+        cache.put("s", "\"1\"", PAGE);
+        cache.remove("s");
+        assertNull(cache.get("s", "\"1\""));
+    }
+
+    @Test
+    public void rejectsEmptyCaches() {
+        assertThrows(IllegalArgumentException.class, () -> new PageCache(0, 1024));
+    }
+}
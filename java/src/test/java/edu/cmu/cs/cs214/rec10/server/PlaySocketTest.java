@@ -0,0 +1,133 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+import edu.cmu.cs.cs214.rec10.framework.gui.Viewport;
+import edu.cmu.cs.cs214.rec10.games.TicTacToePlugin;
+import fi.iki.elonen.NanoWSD;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PlaySocketTest {
+    private final BlockingQueue<String> replies = new LinkedBlockingQueue<>();
+    private GameFrameworkImpl game;
+    private Session session;
+    private NanoWSD server;
+    private WebSocket client;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        game = new GameFrameworkImpl();
+        TicTacToePlugin plugin = new TicTacToePlugin(3, 3);
+        game.registerPlugin(plugin);
+        game.startNewGame(plugin);
+        session = new Session("token", null, "spectator", game, System.nanoTime());
+        SpectatorHub spectators = new SpectatorHub(4, 4);
+        server = new NanoWSD(0) {
+            @Override
+            protected WebSocket openWebSocket(IHTTPSession handshake) {
+                return new PlaySocket(handshake, session, spectators, 60_000, Viewport.all(3, 3));
+            }
+        };
+        server.start(5000, true);
+        client = HttpClient.newHttpClient().newWebSocketBuilder()
+                .buildAsync(URI.create("ws://localhost:" + server.getListeningPort() + "/ws"), new Collector())
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        client.abort();
+        server.stop();
+    }
+
+    @Test
+    public void sendsTheWholeBoardWhenTheSocketOpens() throws InterruptedException {
+        String json = reply();
+        assertTrue(json.contains("\"full\":true"), json);
+        assertTrue(json.contains("\"name\":\"TicTacToe\""), json);
+        assertEquals(9, count(json, "\"text\""));
+        assertTrue(json.contains("\"playable\":\"ff8\""), json);
+    }
+
+    @Test
+    public void answersEachMoveFrameWithOnlyWhatChanged() throws InterruptedException {
+        reply();
+        client.sendText("1,1", true);
+        String json = reply();
+        assertTrue(json.contains("\"full\":false"), json);
+        assertTrue(json.contains("\"squares\":[{\"x\":1,\"y\":1,\"text\":\"X\"}]"), json);
+        assertTrue(json.contains("\"currentPlayer\":\"O\""), json);
+        assertTrue(json.contains("\"playable\":\"f78\""), json);
+
+        client.sendText("0,0;2,2", true);
+        json = reply();
+        assertEquals(2, count(json, "\"text\""), json);
+        assertTrue(json.contains("{\"x\":0,\"y\":0,\"text\":\"O\"}"), json);
+        assertTrue(json.contains("{\"x\":2,\"y\":2,\"text\":\"X\"}"), json);
+        assertEquals("O", game.getCurrentPlayerName());
+        assertTrue(session.isGameInProgress());
+    }
+
+    @Test
+    public void repliesWithAnErrorToFramesItCannotPlay() throws InterruptedException {
+        reply();
+        client.sendText("not a move", true);
+        assertEquals("{\"error\":\"Expected x,y;x,y;...\"}", reply());
+
+        // The test plug-in throws on squares off its board.
+        client.sendText("5,5", true);
+        assertEquals("{\"error\":\"Move failed\"}", reply());
+
+        // The socket stays usable, and an occupied square just leaves the board as it was.
+        client.sendText("1,1", true);
+        reply();
+        client.sendText("1,1", true);
+        String json = reply();
+        assertTrue(json.contains("\"squares\":[]"), json);
+        assertEquals("O", game.getCurrentPlayerName());
+    }
+
+    private String reply() throws InterruptedException {
+        String json = replies.poll(10, TimeUnit.SECONDS);
+        assertNotNull(json, "No reply from the server");
+        return json;
+    }
+
+    private static int count(String s, String part) {
+        int n = 0;
+        for (int i = s.indexOf(part); i >= 0; i = s.indexOf(part, i + 1)) {
+            n++;
+        }
+        return n;
+    }
+
+    /** Queues each complete text message from the server. */
+    private final class Collector implements WebSocket.Listener {
+        private final StringBuilder partial = new StringBuilder();
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                replies.add(partial.toString());
+                partial.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+import edu.cmu.cs.cs214.rec10.games.TicTacToePlugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PluginCatalogTest {
+    /** Stands in for a plug-in class whose constructor fails. */
+    private static final class BrokenPlugin {
+    }
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicInteger failedLoads = new AtomicInteger();
+    private final IllegalStateException failure = new IllegalStateException("missing dependency");
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+    private PrintStream stderr;
+    private PluginCatalog catalog;
+
+    @BeforeEach
+    public void setUp() {
+        stderr = System.err;
+        System.setErr(new PrintStream(err, true));
+        catalog = new PluginCatalog(List.of(
+                provider(TicTacToePlugin.class, () -> {
+                    loads.incrementAndGet();
+                    return new TicTacToePlugin(3, 3);
+                }),
+                provider(BrokenPlugin.class, () -> {
+                    failedLoads.incrementAndGet();
+                    throw failure;
+                })), 0);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        System.setErr(stderr);
+    }
+
+    @Test
+    public void listsPluginsByClassUntilTheyAreLoaded() {
+        assertEquals(2, catalog.size());
+        assertEquals("TicTacToePlugin", catalog.name(0));
+        assertEquals(0, loads.get());
+
+        int epoch = catalog.getEpoch();
+        assertNotNull(catalog.newInstance(0));
+        assertEquals("TicTacToe", catalog.name(0));
+        assertTrue(catalog.getEpoch() != epoch);
+
+        // Loading it again does not change the listing.
+        epoch = catalog.getEpoch();
+        assertNotNull(catalog.newInstance(0));
+        assertEquals(epoch, catalog.getEpoch());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void marksAPluginThatFailsToLoadUnavailable() {
+        assertNull(catalog.failure(1));
+        int epoch = catalog.getEpoch();
+        assertNull(catalog.newInstance(1));
+        assertSame(failure, catalog.failure(1));
+        assertEquals("BrokenPlugin (unavailable)", catalog.name(1));
+        assertTrue(catalog.getEpoch() != epoch);
+        assertTrue(err.toString().contains("missing dependency"), err.toString());
+
+        // Reported once, and never tried again.
+        epoch = catalog.getEpoch();
+        err.reset();
+        assertNull(catalog.newInstance(1));
+        assertEquals(1, failedLoads.get());
+        assertEquals(epoch, catalog.getEpoch());
+        assertEquals("", err.toString());
+    }
+
+    @Test
+    public void givesEachFrameworkLazySlotsThatKeepTheirIndexes() {
+        GameFrameworkImpl game = new GameFrameworkImpl();
+        catalog.registerWith(game);
+        assertEquals(List.of("TicTacToePlugin", "BrokenPlugin"), game.getRegisteredPluginName());
+        assertEquals(0, loads.get());
+
+        assertNull(game.getRegisteredPlugin(1));
+        assertNotNull(game.getRegisteredPlugin(0));
+        assertSame(game.getRegisteredPlugin(0), game.getRegisteredPlugin(0));
+        assertEquals(1, loads.get());
+        assertEquals(List.of("TicTacToe", "BrokenPlugin (unavailable)"), game.getRegisteredPluginName());
+    }
+
+    @Test
+    public void warmsUpEveryPluginInTheBackground() throws Exception {
+        catalog.warmUp(ForkJoinPool.commonPool()).get(10, TimeUnit.SECONDS);
+        assertEquals(1, loads.get());
+        assertEquals(1, failedLoads.get());
+        assertEquals("TicTacToe", catalog.name(0));
+        assertEquals("BrokenPlugin (unavailable)", catalog.name(1));
+    }
+
+    private static ServiceLoader.Provider<Object> provider(Class<?> type, Supplier<Object> factory) {
+        return new ServiceLoader.Provider<>() {
+            @Override
+            public Class<?> type() {
+                return type;
+            }
+
+            @Override
+            public Object get() {
+                return factory.get();
+            }
+        };
+    }
+}
@@ -0,0 +1,162 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+import edu.cmu.cs.cs214.rec10.games.TicTacToePlugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SessionJournalTest {
+    /** Counts games started, so every new game opens on a different square. */
+    private static final AtomicInteger GAMES = new AtomicInteger();
+
+    /** A game that opens with a move of its own choosing, as a shuffled game deals its own deck. */
+    public static class RandomOpeningPlugin extends TicTacToePlugin {
+        public RandomOpeningPlugin() {
+            super(3, 3);
+        }
+
+        @Override
+        public void onNewGame() {
+            super.onNewGame();
+            int square = GAMES.getAndIncrement() % 9;
+            onMovePlayed(square % 3, square / 3);
+        }
+    }
+
+    @TempDir
+    Path dir;
+
+    private final List<SessionRegistry> registries = new ArrayList<>();
+    private final List<MoveJournal> journals = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        registries.forEach(SessionRegistry::shutdown);
+        for (MoveJournal journal : journals) {
+            journal.close();
+        }
+    }
+
+    @Test
+    public void restoresGamesThatStartedAtRandom() throws IOException {
+        PluginCatalog plugins = catalog(RandomOpeningPlugin::new);
+        SessionRegistry sessions = registry(plugins, open());
+        Session session = sessions.getOrCreate(null);
+        GameFrameworkImpl game = session.getGame();
+        game.startNewGame(game.getRegisteredPlugin(0));
+        int opening = findMark(game, "X");
+        int reply = opening == 4 ? 0 : 4;
+        assertTrue(game.playMove(reply % 3, reply / 3));
+        session.setGameInProgress(true);
+        journals.get(0).close();
+
+        SessionRegistry restored = registry(plugins, open());
+        Session back = restored.get(session.getId());
+        assertNotNull(back);
+        assertTrue(back.isGameInProgress());
+        for (int y = 0; y < 3; y++) {
+            for (int x = 0; x < 3; x++) {
+                assertEquals(game.getSquare(x, y), back.getGame().getSquare(x, y), "(" + x + ", " + y + ")");
+            }
+        }
+        assertEquals("X", back.getGame().getCurrentPlayerName());
+    }
+
+    @Test
+    public void restoresGamesJournaledWithoutASnapshot() throws IOException {
+        MoveJournal journal = open();
+        String journalId = SessionRegistry.journalId("token");
+        journal.append(MoveJournal.NEW_GAME, journalId, 0, 0);
+        journal.append(MoveJournal.MOVE, journalId, 1, 1);
+        journal.close();
+
+        SessionRegistry restored = registry(catalog(() -> new TicTacToePlugin(3, 3)), open());
+        Session back = restored.get("token");
+        assertNotNull(back);
+        assertEquals("X", back.getGame().getSquare(1, 1));
+    }
+
+    @Test
+    public void dropsAndReportsSessionsWhosePluginFailsToLoad() throws IOException {
+        MoveJournal journal = open();
+        journal.append(MoveJournal.NEW_GAME, SessionRegistry.journalId("token"), 0, 0);
+        journal.close();
+
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        PrintStream stderr = System.err;
+        System.setErr(new PrintStream(err, true));
+        try {
+            SessionRegistry restored = registry(catalog(() -> {
+                throw new IllegalStateException("missing dependency");
+            }), open());
+            assertNull(restored.get("token"));
+            assertEquals(0, restored.size());
+        } finally {
+            System.setErr(stderr);
+        }
+        assertTrue(err.toString().contains("Dropping restored session"), err.toString());
+        assertTrue(err.toString().contains("missing dependency"), err.toString());
+    }
+
+    private MoveJournal open() throws IOException {
+        MoveJournal journal = MoveJournal.open(dir, 4096, 5, 100);
+        journals.add(journal);
+        return journal;
+    }
+
+    /** Creates a registry journaling to {@code journal}, after restoring the sessions already in it. */
+    private SessionRegistry registry(PluginCatalog plugins, MoveJournal journal) throws IOException {
+        SessionJournal sessionJournal = new SessionJournal(journal, plugins);
+        SessionRegistry sessions = new SessionRegistry(journalId -> {
+            GameFrameworkImpl game = new GameFrameworkImpl();
+            plugins.registerWith(game);
+            if (journalId != null) {
+                game.setMoveListener(sessionJournal.listenerFor(journalId));
+            }
+            return game;
+        }, sessionJournal::sessionEnded, 60_000, 16);
+        registries.add(sessions);
+        sessionJournal.restore(sessions);
+        return sessions;
+    }
+
+    private static PluginCatalog catalog(Supplier<Object> factory) {
+        ServiceLoader.Provider<Object> provider = new ServiceLoader.Provider<>() {
+            @Override
+            public Class<?> type() {
+                return TicTacToePlugin.class;
+            }
+
+            @Override
+            public Object get() {
+                return factory.get();
+            }
+        };
+        return new PluginCatalog(List.of(provider), 0);
+    }
+
+    private static int findMark(GameFrameworkImpl game, String mark) {
+        for (int i = 0; i < 9; i++) {
+            if (mark.equals(game.getSquare(i % 3, i / 3))) {
+                return i;
+            }
+        }
+        throw new AssertionError("No " + mark + " on the board");
+    }
+}
@@ -0,0 +1,102 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SessionRegistryTest {
+    private final List<Session> evicted = new CopyOnWriteArrayList<>();
+    private SessionRegistry sessions;
+
+    @AfterEach
+    public void tearDown() {
+        if (sessions != null) {
+            sessions.shutdown();
+        }
+    }
+
+    @Test
+    public void keepsEachTokensSessionApart() {
+        sessions = registry(60_000, 4);
+        Session a = sessions.getOrCreate(null);
+        Session b = sessions.getOrCreate("unknown");
+        assertNotEquals(a.getId(), b.getId());
+        assertNotEquals("unknown", b.getId());
+        assertNotSame(a.getGame(), b.getGame());
+        assertSame(a, sessions.get(a.getId()));
+        assertSame(b, sessions.getOrCreate(b.getId()));
+        assertNull(sessions.get("unknown"));
+        assertNull(sessions.get(null));
+        assertEquals(2, sessions.size());
+    }
+
+    @Test
+    public void makesRoomByEvictingASessionWithoutAGame() {
+        sessions = registry(60_000, 2);
+        Session idle = sessions.getOrCreate(null);
+        Session playing = sessions.getOrCreate(null);
+        playing.setGameInProgress(true);
+
+        Session created = sessions.getOrCreate(null);
+        assertNotNull(created);
+        assertEquals(List.of(idle), evicted);
+        assertNull(sessions.get(idle.getId()));
+        assertSame(playing, sessions.get(playing.getId()));
+        assertEquals(2, sessions.size());
+    }
+
+    @Test
+    public void neverEvictsGamesInProgressToAdmitNewSessions() {
+        sessions = registry(60_000, 2);
+        Session first = sessions.getOrCreate(null);
+        Session second = sessions.getOrCreate(null);
+        first.setGameInProgress(true);
+        second.setGameInProgress(true);
+
+        assertNull(sessions.getOrCreate(null));
+        assertTrue(evicted.isEmpty());
+        assertEquals(2, sessions.size());
+        // Reads need no session of their own.
+        assertNotNull(sessions.getAnonymous());
+    }
+
+    @Test
+    public void evictsIdleSessionsInTheBackground() throws InterruptedException {
+        CountDownLatch evictions = new CountDownLatch(1);
+        sessions = new SessionRegistry(journalId -> new GameFrameworkImpl(), s -> {
+            evicted.add(s);
+            evictions.countDown();
+        }, 20, 4);
+        Session session = sessions.getOrCreate(null);
+        session.setGameInProgress(true);
+
+        assertTrue(evictions.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of(session), evicted);
+        assertNull(sessions.get(session.getId()));
+        assertEquals(0, sessions.size());
+    }
+
+    @Test
+    public void rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> registry(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> registry(1, 0));
+    }
+
+    private SessionRegistry registry(long idleTimeoutMillis, int maxSessions) {
+        return new SessionRegistry(journalId -> new GameFrameworkImpl(), evicted::add, idleTimeoutMillis, maxSessions);
+    }
+}
@@ -0,0 +1,135 @@
+package edu.cmu.cs.cs214.rec10.server;
+
+import edu.cmu.cs.cs214.rec10.framework.core.GameFrameworkImpl;
+import edu.cmu.cs.cs214.rec10.framework.gui.Viewport;
+import edu.cmu.cs.cs214.rec10.games.TicTacToePlugin;
+import fi.iki.elonen.NanoHTTPD;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpectatorHubTest {
+    private static final Viewport BOARD = Viewport.all(3, 3);
+
+    private Session session;
+
+    @BeforeEach
+    public void setUp() {
+        GameFrameworkImpl game = new GameFrameworkImpl();
+        TicTacToePlugin plugin = new TicTacToePlugin(3, 3);
+        game.registerPlugin(plugin);
+        game.startNewGame(plugin);
+        session = new Session("token", null, "spectator", game, System.nanoTime());
+    }
+
+    @Test
+    public void sendsEverySpectatorTheSameEvents() throws IOException {
+        SpectatorHub hub = new SpectatorHub(4, 4);
+        InputStream first = hub.subscribe(session, BOARD).getData();
+        InputStream second = hub.subscribe(session, BOARD).getData();
+        String snapshot = readEvent(first);
+        assertTrue(snapshot.contains("\"full\":true"), snapshot);
+        assertEquals(snapshot, readEvent(second));
+
+        play(hub, 1, 1);
+        String diff = readEvent(first);
+        assertTrue(diff.contains("\"full\":false"), diff);
+        assertTrue(diff.contains("\"squares\":[{\"x\":1,\"y\":1,\"text\":\"X\"}]"), diff);
+        assertEquals(diff, readEvent(second));
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void sendsEachWindowOnlyItsOwnSquares() throws IOException {
+        SpectatorHub hub = new SpectatorHub(4, 4);
+        InputStream corner = hub.subscribe(session, new Viewport(0, 0, 1, 1)).getData();
+        readEvent(corner);
+        play(hub, 2, 2);
+        play(hub, 0, 0);
+        String first = readEvent(corner);
+        assertTrue(first.contains("\"squares\":[]"), first);
+        String second = readEvent(corner);
+        assertTrue(second.contains("\"squares\":[{\"x\":0,\"y\":0,\"text\":\"O\"}]"), second);
+        corner.close();
+    }
+
+    @Test
+    public void turnsSpectatorsAwayBeyondTheStreamLimit() throws IOException {
+        SpectatorHub hub = new SpectatorHub(4, 2);
+        NanoHTTPD.Response first = hub.subscribe(session, BOARD);
+        NanoHTTPD.Response second = hub.subscribe(session, BOARD);
+        assertEquals(NanoHTTPD.Response.Status.OK, first.getStatus());
+        assertEquals(NanoHTTPD.Response.Status.OK, second.getStatus());
+        assertEquals(NanoHTTPD.Response.Status.SERVICE_UNAVAILABLE, hub.subscribe(session, BOARD).getStatus());
+
+        // A closed stream frees its slot, once.
+        first.getData().close();
+        first.getData().close();
+        assertEquals(NanoHTTPD.Response.Status.OK, hub.subscribe(session, BOARD).getStatus());
+        assertEquals(NanoHTTPD.Response.Status.SERVICE_UNAVAILABLE, hub.subscribe(session, BOARD).getStatus());
+    }
+
+    @Test
+    public void givesSlowSpectatorsASnapshotInsteadOfTheBacklog() throws IOException {
+        SpectatorHub hub = new SpectatorHub(1, 4);
+        InputStream slow = hub.subscribe(session, BOARD).getData();
+        readEvent(slow);
+        play(hub, 0, 0);
+        play(hub, 1, 1);
+        play(hub, 2, 2);
+
+        String event = readEvent(slow);
+        assertTrue(event.contains("\"full\":true"), event);
+        assertTrue(event.contains("{\"x\":0,\"y\":0,\"text\":\"X\"}"), event);
+        assertTrue(event.contains("{\"x\":2,\"y\":2,\"text\":\"X\"}"), event);
+        assertTrue(event.startsWith("id: " + session.getGame().getStateVersion() + "\n"), event);
+        slow.close();
+    }
+
+    @Test
+    public void endsTheStreamsOfSessionsThatEnd() throws IOException {
+        SpectatorHub hub = new SpectatorHub(4, 4);
+        InputStream stream = hub.subscribe(session, BOARD).getData();
+        readEvent(stream);
+        hub.sessionEnded(session);
+        assertEquals(-1, stream.read());
+        stream.close();
+    }
+
+    @Test
+    public void rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new SpectatorHub(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new SpectatorHub(1, 0));
+    }
+
+    private void play(SpectatorHub hub, int x, int y) {
+        session.getActor().call(game -> {
+            game.playMove(x, y);
+            hub.publish(session);
+            return null;
+        });
+    }
+
+    /** Reads one server-sent event, up to and including its blank line. */
+    private static String readEvent(InputStream in) throws IOException {
+        ByteArrayOutputStream event = new ByteArrayOutputStream();
+        int previous = -1;
+        for (int b = in.read(); b >= 0; b = in.read()) {
+            event.write(b);
+            if (b == '\n' && previous == '\n') {
+                break;
+            }
+            previous = b;
+        }
+        return event.toString(StandardCharsets.UTF_8);
+    }
+}